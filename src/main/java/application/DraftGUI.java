@@ -257,6 +257,10 @@ class DraftGUI extends AbstractGUI {
             }
         });
         box.getChildren().add(draftBoard);
+        // The draft board starts with the best free agents, the rest are added a page at a time
+        Button showMore = new Button("Show More Players");
+        showMore.setOnAction(e -> showMore.setDisable(!Utils.addDraftTablePage(draftBoard)));
+        box.getChildren().add(showMore);
         // Add a table of already drafted players in this draft
         box.getChildren().addAll(Utils.getBoldLabel("Draft Recap"));
         ScrollPane pane = new ScrollPane();
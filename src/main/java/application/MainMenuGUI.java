@@ -1,20 +1,34 @@
 package application;
 
 import attributes.PlayerStatTypes;
+import attributes.TeamMetricTypes;
 import attributes.TeamStatTypes;
+import core.AdvancedMetrics;
 import core.Entity;
 import core.EntityType;
 import core.GameSimulation;
+import core.Leaderboards;
 import core.League;
 import core.LeagueFunctions;
+import core.LeagueSnapshot;
 import core.Player;
+import core.SeasonProjection;
+import core.SeasonProjector;
+import core.SeasonScheduler;
+import core.SimulationSession;
 import core.Team;
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.application.Platform;
+import javafx.concurrent.Task;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
 import javafx.scene.control.ButtonType;
 import javafx.scene.control.Label;
+import javafx.scene.control.ListView;
 import javafx.scene.control.ScrollPane;
 import javafx.scene.control.Separator;
 import javafx.scene.control.TableView;
@@ -23,17 +37,18 @@ import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
-import utilities.GameRunner;
+import javafx.util.Duration;
+import utilities.CoreConfiguration;
+import utilities.SimulationExecutor;
+import utilities.SimulationProgress;
 import utilities.Utils;
 
-import java.util.Collections;
-import java.util.LinkedHashMap;
+import java.util.Comparator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.function.BiConsumer;
 
 
 /**
@@ -50,7 +65,16 @@ class MainMenuGUI extends AbstractGUI {
     // The users team
     private final Team userTeam;
     private final Stage primaryStage;
-    private Map<Thread, List<Double>> runtimes = new LinkedHashMap<>();
+    // How often the view of a multiple game simulation is refreshed
+    private static final double PROGRESS_SAMPLE_MILLIS = 250;
+    // The number of days the recent form of a team is taken over
+    private static final int RECENT_FORM_DAYS = 10;
+    // The number of players shown for each stat in the league leaders
+    private static final int NUM_LEADERS = 10;
+    // The multiple game simulation that is running, and whether the next season is being started. Only used from the
+    // JavaFX thread
+    private SimulationSession activeSession;
+    private boolean startingNextSeason = false;
 
     MainMenuGUI(Stage primaryStage, Team userTeam) {
         super();
@@ -79,12 +103,14 @@ class MainMenuGUI extends AbstractGUI {
         VBox scheduleBox = new VBox(3);
         scheduleBox.getChildren().add(Utils.getBoldLabel("Team Schedule"));
         scheduleBox.getChildren().addAll(Utils.getStandardLabel("Click Game Row to view more info and simulate game"));
-        TableView<GameSimulation> teamSchedule = Utils.createScheduleTable(getUserTeam());
+        TableView<LeagueSnapshot.GameEntry> teamSchedule = Utils.createScheduleTable(League.getInstance().getSnapshot(),
+                getUserTeam());
         // Set an event that brings up the Game View if a user clicks on one of the games in this table. From here
         // they will be able to start the game.
         teamSchedule.setOnMouseClicked((MouseEvent event) -> {
             if (event.getButton().equals(MouseButton.PRIMARY) && event.getClickCount() == 2) {
-                getRootPane().setCenter(createGameVBox(teamSchedule.getSelectionModel().getSelectedItem()));
+                getRootPane().setCenter(createGameVBox(League.getInstance().getGame(
+                        teamSchedule.getSelectionModel().getSelectedItem().getID())));
             }
         });
         // Add team schedule
@@ -111,67 +137,121 @@ class MainMenuGUI extends AbstractGUI {
             if (response.get() == ButtonType.YES) {
                 VBox threadedSimBox = new VBox(10, Utils.getTitleLabel("Multiple Game Simulation"));
                 threadedSimBox.getChildren().add(Utils.getStandardLabel("This system will use multiple threads to " +
-                        "simulate all of the games left to be played in the league."));
-                threadedSimBox.getChildren().add(Utils.getBoldLabel(String.format("Number of threads opened: %d",
-                        League.getInstance().getMaxNumThreads())));
+                        "simulate all of the games left to be played in the league, one day of the schedule at a time."));
+                threadedSimBox.getChildren().add(Utils.getBoldLabel(String.format("Number of threads opened: %d (%s)",
+                        SimulationExecutor.getInstance().getNumThreads(),
+                        SimulationExecutor.getInstance().getStrategy().toString().toLowerCase())));
                 threadedSimBox.getChildren().add(Utils.getStandardLabel("This is calculated by: Number of Processors on your machine + 1"));
-                VBox events = new VBox(3, Utils.getBoldLabel("Thread Game Events: "));
+                ListView<String> events = new ListView<>();
                 events.setPrefHeight(300);
                 VBox avgs = new VBox(3);
                 avgs.setPrefHeight(300);
-                HBox totals = new HBox(10);
-                List<GameRunner> gameRunners = new LinkedList<>();
-                for (GameSimulation g : LeagueFunctions.getAllUnplayedGames()) {
-                    GameRunner runner = new GameRunner(g);
-                    runner.setOnSucceeded((event) -> {
-                        Thread gameThread = runner.getValue().getKey();
-                        double runtime = runner.getValue().getValue();
-                        events.getChildren().add(Utils.getStandardLabel(
-                                String.format("Thread %s ran game id %d in %f ms. The outcome was %s %d - %d %s",
-                                        gameThread.getName(), g.getID(), runtime, g.getHomeTeam().getName(),
-                                        g.getHomeTeamStat(TeamStatTypes.TEAM_PTS), g.getAwayTeamStat(TeamStatTypes.TEAM_PTS),
-                                        g.getAwayTeam().getName())
-                        ));
-                        if (runtimes.containsKey(gameThread)) {
-                            runtimes.get(gameThread).add(runtime);
-                        } else {
-                            runtimes.put(gameThread, new LinkedList<>(Collections.singleton(runtime)));
-                        }
-                        avgs.getChildren().clear();
-                        int totalCount = 0;
-                        double totalAvg = 0.0;
-                        for (Map.Entry<Thread, List<Double>> runtimeEntry : runtimes.entrySet()) {
-                            int count = runtimeEntry.getValue().size();
-                            totalCount += count;
-                            double avg = 0.0;
-                            for (double d : runtimeEntry.getValue()) {
-                                avg += d;
-                                totalAvg += d;
-                            }
-                            avgs.getChildren().add(Utils.getStandardLabel(String.format("Thread %s has run %d games at an average time of %f ms per game ",
-                                    runtimeEntry.getKey().getName(), count, avg / count)));
-                        }
-                        totals.getChildren().clear();
-                        totals.getChildren().add(Utils.getBoldLabel(String.format("%d games in total executed across all threads at an average time of %f ms per game",
-                                totalCount, totalAvg / totalCount)));
-                        updateRecord();
-                    });
-                    gameRunners.add(runner);
-                }
-                ScrollPane eventPane = new ScrollPane(events);
-                ScrollPane avgPane = new ScrollPane(avgs);
-                threadedSimBox.getChildren().add(eventPane);
+                Label totals = Utils.getBoldLabel("Starting simulation...");
+                List<GameSimulation> games = LeagueFunctions.getAllUnplayedGames();
+                SimulationProgress progress = new SimulationProgress(games.size());
+                SimulationSession session = new SeasonScheduler().createSession(games);
+                Label checkpoint = Utils.getStandardLabel("No day of the schedule finished yet");
+                // Called from the simulation threads, which record straight into the progress without the JavaFX thread
+                BiConsumer<GameSimulation, Map.Entry<Thread, Double>> onGameFinished = (g, result) -> progress.record(
+                        String.format("Thread %s ran game id %d in %f ms. The outcome was %s %d - %d %s",
+                                result.getKey().getName(), g.getID(), result.getValue(), g.getHomeTeam().getName(),
+                                g.getHomeTeamStat(TeamStatTypes.TEAM_PTS), g.getAwayTeamStat(TeamStatTypes.TEAM_PTS),
+                                g.getAwayTeam().getName()), result.getValue());
+                // The view samples the progress at a fixed rate, however fast the games finish
+                Timeline sampler = new Timeline(new KeyFrame(Duration.millis(PROGRESS_SAMPLE_MILLIS),
+                        event -> showSimulationProgress(session, progress, events, avgs, totals)));
+                sampler.setCycleCount(Animation.INDEFINITE);
+                threadedSimBox.getChildren().add(Utils.getBoldLabel("Thread Game Events: "));
+                threadedSimBox.getChildren().add(events);
                 threadedSimBox.getChildren().add(Utils.getBoldLabel("Average Thread Runtimes"));
-                threadedSimBox.getChildren().add(avgPane);
+                threadedSimBox.getChildren().add(new ScrollPane(avgs));
                 threadedSimBox.getChildren().add(totals);
+                threadedSimBox.getChildren().add(checkpoint);
+                Button pause = new Button("Pause");
+                pause.setOnAction(event -> {
+                    if (session.isPaused()) {
+                        session.resume();
+                        pause.setText("Pause");
+                    } else {
+                        session.pause();
+                        pause.setText("Resume");
+                    }
+                });
+                Button cancel = new Button("Cancel");
+                cancel.setOnAction(event -> {
+                    session.cancel();
+                    pause.setDisable(true);
+                    cancel.setDisable(true);
+                });
+                threadedSimBox.getChildren().add(new HBox(10, pause, cancel));
                 getRootPane().setCenter(threadedSimBox);
-                ExecutorService service = Executors.newFixedThreadPool(League.getMaxNumThreads());
-                for (GameRunner runner : gameRunners)
-                    service.execute(runner);
-                service.shutdown();
+                // Run the games day by day in the background so that the GUI stays responsive
+                Thread seasonThread = new Thread(() -> {
+                    try {
+                        session.run(onGameFinished, day -> Platform.runLater(() -> checkpoint.setText(
+                                String.format("Day %d of the schedule is finished and saved", day))));
+                    } catch (InterruptedException ex) {
+                        ex.printStackTrace();
+                    } catch (RuntimeException ex) {
+                        ex.printStackTrace();
+                        Platform.runLater(() -> checkpoint.setText("The simulation stopped after a game failed: " +
+                                ex.getMessage()));
+                    }
+                    // Take a last sample so that the view ends on the final numbers
+                    Platform.runLater(() -> {
+                        sampler.stop();
+                        pause.setDisable(true);
+                        cancel.setDisable(true);
+                        showSimulationProgress(session, progress, events, avgs, totals);
+                        activeSession = null;
+                        setupRightBox();
+                    });
+                }, "season-scheduler");
+                seasonThread.setDaemon(true);
+                activeSession = session;
+                setupRightBox();
+                sampler.play();
+                seasonThread.start();
             }
         });
         scheduleBox.getChildren().add(simulateAllGames);
+        Button projectSeason = new Button("Project Season");
+        projectSeason.setOnAction(e -> getRootPane().setCenter(createSeasonProjectionBox()));
+        scheduleBox.getChildren().add(projectSeason);
+        Button nextSeason = new Button("Start Next Season");
+        nextSeason.setOnAction(e -> {
+            Alert confirm = new Alert(Alert.AlertType.CONFIRMATION, String.format("Season %d will be archived and " +
+                    "a new schedule created. %d unplayed games will be dropped.", League.getInstance().getSeason(),
+                    LeagueFunctions.getAllUnplayedGames().size()), ButtonType.YES, ButtonType.NO);
+            Optional<ButtonType> response = confirm.showAndWait();
+            if (response.get() != ButtonType.YES)
+                return;
+            startingNextSeason = true;
+            setupRightBox();
+            // Waiting for the writes of the season and archiving it can take a while, so it is done in the background
+            Thread rolloverThread = new Thread(() -> {
+                boolean started = false;
+                try {
+                    started = League.getInstance().startNextSeason();
+                } catch (InterruptedException | RuntimeException ex) {
+                    ex.printStackTrace();
+                }
+                boolean archived = started;
+                Platform.runLater(() -> {
+                    startingNextSeason = false;
+                    if (!archived)
+                        new Alert(Alert.AlertType.ERROR, "The season could not be archived").showAndWait();
+                    refresh();
+                });
+            }, "season-rollover");
+            rolloverThread.setDaemon(true);
+            rolloverThread.start();
+        });
+        scheduleBox.getChildren().add(nextSeason);
+        // The season cannot be simulated and started over at the same time
+        boolean seasonBusy = activeSession != null || startingNextSeason;
+        simulateAllGames.setDisable(seasonBusy);
+        nextSeason.setDisable(seasonBusy);
         schedule.setContent(scheduleBox);
         getRootPane().setRight(schedule);
     }
@@ -238,6 +318,85 @@ class MainMenuGUI extends AbstractGUI {
         return game;
     }
 
+    /**
+     * Shows a sample of the progress of a multiple game simulation: the most recent events, the runtimes of every
+     * thread and the totals across all threads.
+     *
+     * @param session  SimulationSession: The session running the simulation
+     * @param progress SimulationProgress: The progress of the simulation
+     * @param events   ListView: Where the most recent events are shown
+     * @param avgs     VBox: Where the runtimes of every thread are shown
+     * @param totals   Label: Where the totals are shown
+     */
+    private void showSimulationProgress(SimulationSession session, SimulationProgress progress,
+                                        ListView<String> events, VBox avgs, Label totals) {
+        events.getItems().setAll(progress.getRecentEvents());
+        events.scrollTo(events.getItems().size() - 1);
+        avgs.getChildren().clear();
+        for (SimulationProgress.Worker worker : progress.getWorkers())
+            avgs.getChildren().add(Utils.getStandardLabel(String.format("Thread %s has run %d games at an average " +
+                            "time of %f ms per game (median under %.3f ms, 99th percentile under %.3f ms)",
+                    worker.getName(), worker.getCount(), worker.getAverageMillis(), worker.getPercentileMillis(0.5),
+                    worker.getPercentileMillis(0.99))));
+        String status;
+        if (session.isDone())
+            status = session.isCancelled() ? "Cancelled" : "Finished";
+        else if (session.isCancelled())
+            status = "Cancelling, waiting for the running games to finish";
+        else if (session.isPaused())
+            status = "Paused";
+        else if (session.getEstimatedMillisLeft() < 0)
+            status = "Estimating time left";
+        else
+            status = String.format("About %d seconds left", (session.getEstimatedMillisLeft() + 999) / 1000);
+        totals.setText(String.format("%d of %d games executed across all threads at an average time of %f ms per " +
+                "game. %s", session.getCompleted(), session.getTotal(), progress.getAverageMillis(), status));
+        updateRecord();
+    }
+
+    /**
+     * Creates a view that projects the rest of the season in the background and shows the odds of every team as they
+     * converge. The projection stops if the user leaves the view.
+     *
+     * @return VBox
+     */
+    private VBox createSeasonProjectionBox() {
+        VBox projectionBox = new VBox(5, Utils.getTitleLabel("Season Projection"));
+        projectionBox.getChildren().add(Utils.getStandardLabel(String.format("Simulating the %d games left to be " +
+                "played in the league many times over, starting from the current standings.",
+                LeagueFunctions.getAllUnplayedGames().size())));
+        Label status = Utils.getBoldLabel("Starting projection...");
+        VBox odds = new VBox(3);
+        projectionBox.getChildren().addAll(status, new ScrollPane(odds));
+        SeasonProjector projector = new SeasonProjector(
+                CoreConfiguration.getInstance().getIntProperty("projection.num_seasons"));
+        Task<SeasonProjection> task = new Task<SeasonProjection>() {
+            @Override
+            protected SeasonProjection call() {
+                return projector.run(projection -> Platform.runLater(() -> {
+                    if (getRootPane().getCenter() != projectionBox) {
+                        projector.cancel();
+                        return;
+                    }
+                    status.setText(String.format("%d of %d seasons simulated", projection.getNumSeasons(),
+                            projection.getTargetNumSeasons()));
+                    odds.getChildren().clear();
+                    List<Team> teams = new LinkedList<>(projection.getTeams());
+                    teams.sort(Comparator.comparingDouble(projection::getProjectedWins).reversed());
+                    for (Team t : teams)
+                        odds.getChildren().add(Utils.getStandardLabel(String.format(
+                                "%s: %d wins now, %.1f projected wins, %.1f%% chance of finishing first", t.getName(),
+                                projection.getCurrentWins(t), projection.getProjectedWins(t),
+                                projection.getFirstPlaceProbability(t) * 100)));
+                }));
+            }
+        };
+        Thread projectionThread = new Thread(task, "season-projection");
+        projectionThread.setDaemon(true);
+        projectionThread.start();
+        return projectionBox;
+    }
+
     /**
      * Configures the action for the Play Game button. Will do some checking to see if the user is currently scheduled
      * to play this game or not.
@@ -311,12 +470,13 @@ class MainMenuGUI extends AbstractGUI {
     private void setupLeftBox() {
         VBox vbox = new VBox(10);
         vbox.getChildren().add(Utils.getBoldLabel(String.format("Your Team: %s", getUserTeam().getName())));
-        int[] winLoss = LeagueFunctions.getTeamRecord(getUserTeam());
-        vbox.getChildren().add(Utils.getBoldLabel(String.format("Record: %d - %d", winLoss[0], winLoss[1])));
+        LeagueSnapshot snapshot = League.getInstance().getSnapshot();
+        LeagueSnapshot.TeamEntry team = snapshot.getTeam(userTeam.getID());
+        vbox.getChildren().add(Utils.getBoldLabel(String.format("Record: %d - %d", team.getWins(), team.getLosses())));
         vbox.getChildren().add(Utils.getBoldLabel("\nRoster:"));
-        for (Player p : League.getInstance().getTeam(userTeam.getID()).getRankedRoster()) {
-            Button button = new Button(p.getName());
-            setupPlayerButton(p, button);
+        for (int pid : team.getRankedRoster()) {
+            Button button = new Button(snapshot.getPlayer(pid).getName());
+            setupPlayerButton(League.getInstance().getPlayer(pid), button);
             vbox.getChildren().add(button);
         }
         vbox.getChildren().add(new Separator());
@@ -342,7 +502,7 @@ class MainMenuGUI extends AbstractGUI {
                         confirm.setHeaderText("Confirm your selection.");
                         Optional<ButtonType> response = confirm.showAndWait();
                         if (response.get() == ButtonType.YES) {
-                            userTeam.addPlayerToRoster(freeAgent);
+                            LeagueFunctions.signFreeAgent(userTeam, freeAgent);
                             refresh();
                         }
                     } else {
@@ -359,9 +519,45 @@ class MainMenuGUI extends AbstractGUI {
             getRootPane().setCenter(freeAgentPane);
         });
         vbox.getChildren().addAll(signFreeAgent);
+        Button leaders = new Button("League Leaders");
+        leaders.setOnAction(e -> getRootPane().setCenter(createLeadersBox()));
+        vbox.getChildren().add(leaders);
         getRootPane().setLeft(vbox);
     }
 
+    /**
+     * Creates a view of the players and teams leading the league per game in the main stats. Double-clicking a player
+     * brings up their info.
+     *
+     * @return VBox
+     */
+    private VBox createLeadersBox() {
+        VBox tables = new VBox(10);
+        addPlayerLeaders(tables, "Points", PlayerStatTypes.PTS);
+        addPlayerLeaders(tables, "Rebounds", PlayerStatTypes.DRB, PlayerStatTypes.ORB);
+        addPlayerLeaders(tables, "Assists", PlayerStatTypes.ASSIST);
+        addPlayerLeaders(tables, "Steals", PlayerStatTypes.STL);
+        addPlayerLeaders(tables, "Blocks", PlayerStatTypes.BLK);
+        tables.getChildren().add(Utils.getBoldLabel("Team Points"));
+        tables.getChildren().add(Utils.createLeadersTable(LeagueFunctions.getTeamLeaders(
+                Leaderboards.Measure.PER_GAME, League.getInstance().getTeams().size(), 1, TeamStatTypes.TEAM_PTS),
+                "Per Game"));
+        VBox leadersBox = new VBox(10, Utils.getTitleLabel("League Leaders"), new ScrollPane(tables));
+        leadersBox.setAlignment(Pos.TOP_CENTER);
+        return leadersBox;
+    }
+
+    private void addPlayerLeaders(VBox tables, String title, PlayerStatTypes... stats) {
+        tables.getChildren().add(Utils.getBoldLabel(title));
+        TableView<Entity> leadersTable = Utils.createLeadersTable(LeagueFunctions.getPlayerLeaders(
+                Leaderboards.Measure.PER_GAME, NUM_LEADERS, 1, stats), "Per Game");
+        leadersTable.setOnMouseClicked((MouseEvent event) -> {
+            if (event.getButton().equals(MouseButton.PRIMARY) && event.getClickCount() == 2)
+                getRootPane().setCenter(createPlayerBox((Player) leadersTable.getSelectionModel().getSelectedItem()));
+        });
+        tables.getChildren().add(leadersTable);
+    }
+
     /**
      * This brings up a view which provides information about a team. We show things such as average stats for their roster,
      * and who their best players are
@@ -384,13 +580,33 @@ class MainMenuGUI extends AbstractGUI {
             });
             box.getChildren().add(avgStatsTable);
             /*
+            Display the advanced metrics of this team and its players, as of the last simulated day
+             */
+            AdvancedMetrics metrics = League.getInstance().getAdvancedMetrics();
+            box.getChildren().add(Utils.getTitleLabel("Advanced Metrics"));
+            TableView<Entity> metricsTable = Utils.createPlayerMetricsTable(metrics, players);
+            metricsTable.setPrefHeight(200);
+            box.getChildren().add(metricsTable);
+            HBox teamMetrics = new HBox(10);
+            for (TeamMetricTypes metric : TeamMetricTypes.values()) {
+                double value = Utils.round(metrics.getTeamMetric(t.getID(), metric), 1);
+                teamMetrics.getChildren().addAll(Utils.getBoldLabel(metric.toString()),
+                        Utils.getStandardLabel(String.valueOf(value)));
+            }
+            box.getChildren().add(teamMetrics);
+            /*
             Display this teams overall rating and current record
              */
+            LeagueSnapshot.TeamEntry team = League.getInstance().getSnapshot().getTeam(t.getID());
             box.getChildren().add(new HBox(10, Utils.getBoldLabel("Overall Team Rating"),
-                    Utils.getBoldLabel(String.valueOf(getUserTeam().getOverallTeamRating()))));
-            int[] winLoss = LeagueFunctions.getTeamRecord(getUserTeam());
+                    Utils.getBoldLabel(String.valueOf(team.getOverallRating()))));
             box.getChildren().add(new HBox(10, Utils.getBoldLabel("Team Record"),
-                    Utils.getBoldLabel(String.format(" %d - %d", winLoss[0], winLoss[1]))));
+                    Utils.getBoldLabel(String.format(" %d - %d", team.getWins(), team.getLosses()))));
+            Double recentPoints = LeagueFunctions.getTeamAvgStatOverLastDays(TeamStatTypes.TEAM_PTS,
+                    RECENT_FORM_DAYS).get(t.getID());
+            box.getChildren().add(new HBox(10, Utils.getBoldLabel(String.format("Points per Game, Last %d Days",
+                    RECENT_FORM_DAYS)), Utils.getBoldLabel((recentPoints == null) ? "-"
+                    : String.valueOf(Utils.round(recentPoints, 1)))));
             /*
             Finally, display some of the best players in a few different categories from this users team
              */
@@ -450,12 +666,17 @@ class MainMenuGUI extends AbstractGUI {
         attrTable.setPrefHeight(150);
         playerBox.getChildren().add(attrTable);
         playerBox.getChildren().add(Utils.getTitleLabel("Average Statistics"));
-        if (LeagueFunctions.teamHasNotPlayedGames(getUserTeam())) {
+        if (League.getInstance().getSnapshot().getTeam(getUserTeam().getID()).getNumGamesPlayed() == 0) {
             playerBox.getChildren().add(Utils.getBoldLabel("Team has not yet played any games"));
         } else {
             TableView<Entity> statTable = Utils.createEntityAvgStatsTable(p);
             statTable.setPrefHeight(150);
             playerBox.getChildren().add(statTable);
+            playerBox.getChildren().add(Utils.getTitleLabel("League Percentile of Average Statistics"));
+            TableView<Entity> percentileTable = Utils.createPlayerPercentileTable(
+                    League.getInstance().getStatDistributions(), p);
+            percentileTable.setPrefHeight(150);
+            playerBox.getChildren().add(percentileTable);
         }
         if (LeagueFunctions.getPlayerTeam(p) == userTeam) {
             Button dropPlayer = new Button("Release Player");
@@ -493,12 +714,12 @@ class MainMenuGUI extends AbstractGUI {
     }
 
     /**
-     * Updates the record of the user team in the GUI.
+     * Updates the record of the user team in the GUI from the latest league snapshot.
      */
     private void updateRecord() {
-        int[] winLoss = LeagueFunctions.getTeamRecord(getUserTeam());
-        ((VBox) getRootPane().getLeft())
-                .getChildren().set(1, Utils.getBoldLabel(String.format("Record: %d - %d", winLoss[0], winLoss[1])));
+        LeagueSnapshot.TeamEntry team = League.getInstance().getSnapshot().getTeam(getUserTeam().getID());
+        ((VBox) getRootPane().getLeft()).getChildren().set(1,
+                Utils.getBoldLabel(String.format("Record: %d - %d", team.getWins(), team.getLosses())));
     }
 
 
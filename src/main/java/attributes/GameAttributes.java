@@ -5,4 +5,5 @@ public enum GameAttributes {
     HOME_TEAM,
     AWAY_TEAM,
     GAME_LOG,
+    DAY,
 }
@@ -3,5 +3,8 @@ package attributes;
 public enum LeagueAttributes {
     USER_TEAM,
     SALARY_CAP,
-    MINIMUM_SALARY
+    MINIMUM_SALARY,
+    SEED,
+    NEXT_ID,
+    SEASON
 }
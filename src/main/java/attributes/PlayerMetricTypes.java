@@ -0,0 +1,17 @@
+package attributes;
+
+/**
+ * CS-622
+ * PlayerMetricTypes.java
+ * The Player Metric Enum lists the advanced metrics computed for players from their season stats
+ *
+ * @author Andras Palfi apalfi@bu.edu
+ * @version 1.0
+ */
+public enum PlayerMetricTypes {
+    TRUE_SHOOTING_PCT,
+    EFFECTIVE_FG_PCT,
+    USAGE_PCT,
+    ASSIST_TO_TURNOVER,
+    REBOUND_PCT
+}
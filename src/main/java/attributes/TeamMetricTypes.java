@@ -0,0 +1,19 @@
+package attributes;
+
+/**
+ * CS-622
+ * TeamMetricTypes.java
+ * The Team Metric Enum lists the advanced metrics computed for teams from their season stats
+ *
+ * @author Andras Palfi apalfi@bu.edu
+ * @version 1.0
+ */
+public enum TeamMetricTypes {
+    TEAM_TRUE_SHOOTING_PCT,
+    TEAM_EFFECTIVE_FG_PCT,
+    TEAM_ASSIST_TO_TURNOVER,
+    TEAM_REBOUND_PCT,
+    PACE,
+    OFFENSIVE_RATING,
+    DEFENSIVE_RATING
+}
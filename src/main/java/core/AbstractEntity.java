@@ -12,7 +12,6 @@ import javafx.collections.ObservableMap;
 import utilities.DatabaseConnection;
 import utilities.Utils;
 
-import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.Iterator;
@@ -33,6 +32,9 @@ import java.util.Map;
  */
 public class AbstractEntity implements Entity {
 
+    // Set while an attribute is changed in memory only, because its row is written separately
+    private static final ThreadLocal<Boolean> inMemoryOnly = ThreadLocal.withInitial(() -> false);
+
     String tableName;
     private String entityName;
     private Map<String, Integer> ids;
@@ -44,19 +46,109 @@ public class AbstractEntity implements Entity {
         this.tableName = tableName;
         if (!entityExistsInDatabase()) {
             createEntityInDatabase();
-            entityAttributes = FXCollections.synchronizedObservableMap(FXCollections.observableHashMap());
-            entityAttributes.addListener((MapChangeListener<String, Object>) change -> {
-                if (change.wasAdded())
-                    updateEntityAttribute(change.getKey(), change.getValueAdded());
-                else if (change.wasRemoved())
-                    updateEntityAttribute(change.getKey(), null);
-            });
+            createAttributeMap(new LinkedHashMap<>());
             initializeAttributes();
         } else {
             reloadEntityAttributes();
         }
     }
 
+    /**
+     * Creates a new entity in memory only, without any query or write to the database. Its row has to be written
+     * with insertAll() before any of its attributes change, since later changes are written through as updates.
+     *
+     * @param ids        Map<String, Integer>
+     * @param name       String
+     * @param tableName  String
+     * @param attributes Map<String, Object>: The initial attributes of the entity
+     */
+    AbstractEntity(Map<String, Integer> ids, String name, String tableName, Map<String, Object> attributes) {
+        this.ids = ids;
+        this.entityName = name;
+        this.tableName = tableName;
+        createAttributeMap(attributes);
+    }
+
+    /**
+     * Creates the attribute map of a new entity with its initial attributes, which writes every later change through
+     * to the database
+     */
+    void createAttributeMap(Map<String, Object> attributes) {
+        entityAttributes = FXCollections.synchronizedObservableMap(FXCollections.observableHashMap());
+        entityAttributes.putAll(attributes);
+        entityAttributes.addListener((MapChangeListener<String, Object>) change -> {
+            if (inMemoryOnly.get())
+                return;
+            if (change.wasAdded())
+                updateEntityAttribute(change.getKey(), change.getValueAdded());
+            else if (change.wasRemoved())
+                updateEntityAttribute(change.getKey(), null);
+        });
+    }
+
+    /**
+     * Inserts the rows of entities created in memory, with one batched statement in one transaction. Every entity
+     * must be of the same type.
+     *
+     * @param entities List<? extends AbstractEntity>
+     */
+    static void insertAll(List<? extends AbstractEntity> entities) {
+        if (entities.isEmpty())
+            return;
+        AbstractEntity first = entities.get(0);
+        List<String> attributes = first.getAttributeNames();
+        StringBuilder sql = new StringBuilder("INSERT INTO " + first.tableName + "(");
+        for (String id : first.getIDS().keySet())
+            sql.append(id).append(",");
+        sql.append("name");
+        for (String attribute : attributes)
+            sql.append(",").append(attribute);
+        sql.append(") VALUES(");
+        for (int i = 0; i < first.getIDS().size() + 1 + attributes.size(); i++)
+            sql.append("?,");
+        sql.replace(sql.length() - 1, sql.length(), ")");
+        DatabaseConnection.getInstance().executeInTransaction(() -> {
+            try {
+                DatabaseConnection.getInstance().executeStatement(sql.toString(), statement -> {
+                    for (AbstractEntity entity : entities) {
+                        int i = 1;
+                        for (int id : entity.getIDS().values())
+                            statement.setInt(i++, id);
+                        statement.setString(i++, entity.getName());
+                        for (String attribute : attributes)
+                            statement.setObject(i++, entity.getColumnValue(attribute));
+                        statement.addBatch();
+                    }
+                    statement.executeBatch();
+                });
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        });
+    }
+
+    /**
+     * Returns the value of an attribute as it is stored in its column by insertAll()
+     *
+     * @param attribute String
+     * @return Object
+     */
+    Object getColumnValue(String attribute) {
+        return getEntityAttributes().get(attribute);
+    }
+
+    /**
+     * Reads the value of an attribute from its column when the entity is loaded, the reverse of getColumnValue()
+     *
+     * @param resultSet ResultSet: On the row of this entity
+     * @param attribute String
+     * @return Object
+     * @throws SQLException if the column cannot be read
+     */
+    Object readColumnValue(ResultSet resultSet, String attribute) throws SQLException {
+        return resultSet.getObject(attribute);
+    }
+
     public static Map<String, Integer> createIDMap(EntityType type, Integer... args) {
         Map<String, Integer> ids = new LinkedHashMap<>();
         if (type == EntityType.PLAYER) {
@@ -143,7 +235,7 @@ public class AbstractEntity implements Entity {
             Map.Entry<String, Integer> idSet = iterator.next();
             ids.append(idSet.getKey()).append("=").append(idSet.getValue());
             if (iterator.hasNext())
-                ids.append(",");
+                ids.append(" AND ");
         }
         return ids.toString();
     }
@@ -161,6 +253,49 @@ public class AbstractEntity implements Entity {
     @Override
     public void setEntityAttribute(String attribute, Object value) {
         getEntityAttributes().put(attribute, value);
+        attributeChanged();
+    }
+
+    /**
+     * Sets an attribute without writing it to the database. Used when the row is written by other means, such as a
+     * batch of the PersistenceWriter.
+     *
+     * @param attribute String
+     * @param value     Object
+     */
+    void setEntityAttributeInMemory(String attribute, Object value) {
+        inMemoryOnly.set(true);
+        try {
+            getEntityAttributes().put(attribute, value);
+        } finally {
+            inMemoryOnly.set(false);
+        }
+        attributeChanged();
+    }
+
+    /**
+     * Advances the epoch of the query cache when an attribute of a player or team changes, since the league queries
+     * read them. Does nothing while the league is being created.
+     */
+    private void attributeChanged() {
+        if (!entityCanHaveStats())
+            return;
+        League league = League.getInstanceIfCreated();
+        if (league != null)
+            league.getQueryCache().advance();
+    }
+
+    /**
+     * Runs initializeAttributes() without writing any of the attributes to the database, for entities created in
+     * memory
+     */
+    void initializeAttributesInMemory() {
+        inMemoryOnly.set(true);
+        try {
+            initializeAttributes();
+        } finally {
+            inMemoryOnly.set(false);
+        }
     }
 
     @Override
@@ -188,15 +323,16 @@ public class AbstractEntity implements Entity {
         for (int i = 0; i < count; i++)
             sql.append("?,");
         sql.replace(sql.length() - 1, sql.length(), ")");
-        PreparedStatement statement = DatabaseConnection.getInstance().getBlankPreparedStatement(sql.toString());
         try {
-            int i = 1;
-            for (int id : getIDS().values()) {
-                statement.setInt(i, id);
-                i++;
-            }
-            statement.setString(i, getName());
-            statement.execute();
+            DatabaseConnection.getInstance().executeStatement(sql.toString(), statement -> {
+                int i = 1;
+                for (int id : getIDS().values()) {
+                    statement.setInt(i, id);
+                    i++;
+                }
+                statement.setString(i, getName());
+                statement.execute();
+            });
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -213,16 +349,18 @@ public class AbstractEntity implements Entity {
     @Override
     public void reloadEntityAttributes() {
         Map<String, Object> attributes = new LinkedHashMap<>();
-        for (String attr : getAttributeNames()) {
-            ResultSet resultSet = DatabaseConnection.getInstance().executeQuery("SELECT " +
-                    attr + " from " + tableName + " WHERE " + createEntityIDString());
-            try {
-                attributes.put(attr, resultSet.getObject(attr));
-            } catch (SQLException e) {
-                e.printStackTrace();
-            }
-            entityAttributes = FXCollections.synchronizedObservableMap(FXCollections.observableMap(attributes));
+        List<String> names = getAttributeNames();
+        ResultSet resultSet = DatabaseConnection.getInstance().executeQuery("SELECT " + String.join(",", names) +
+                " from " + tableName + " WHERE " + createEntityIDString());
+        try {
+            if (resultSet != null && resultSet.next())
+                for (String attr : names)
+                    attributes.put(attr, readColumnValue(resultSet, attr));
+        } catch (SQLException e) {
+            e.printStackTrace();
         }
+        // Changes after loading are written through, like the changes to a new entity
+        createAttributeMap(attributes);
     }
 
     @Override
@@ -0,0 +1,166 @@
+package core;
+
+import attributes.PlayerAttributes;
+import attributes.PlayerMetricTypes;
+import attributes.PlayerStatTypes;
+import attributes.TeamMetricTypes;
+import attributes.TeamStatTypes;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * CS-622
+ * AdvancedMetrics.java
+ * <p>
+ * AdvancedMetrics is an immutable table of the advanced metrics of every player and team, computed from their season
+ * totals: true shooting and effective field goal percentage, assist to turnover ratio and rebound percentage for both,
+ * the share of the plays of its team a player uses, and the pace and offensive and defensive rating of each team.
+ * <p>
+ * The League computes a new table after every simulated day. The season totals are copied into one array per stat,
+ * and every metric is then computed for all players or all teams in a single loop over those arrays. Views read the
+ * metrics from the latest table instead of working them out for every cell.
+ * <p>
+ * Percentages are from 0 to 100. Possessions are estimated as FGA + 0.44 * FTA - ORB + TOV, averaged over a team and
+ * its opponents, and ratings are points per 100 possessions. Metrics that would divide by zero are 0.
+ *
+ * @author Andras Palfi apalfi@bu.edu
+ * @version 1.0
+ */
+public final class AdvancedMetrics {
+
+    // The weight of a free throw attempt in a shooting or scoring possession
+    private static final double FREE_THROW_WEIGHT = 0.44;
+
+    private final Map<Integer, Integer> playerRows = new HashMap<>();
+    private final Map<Integer, Integer> teamRows = new HashMap<>();
+    // Indexed by the ordinal of the metric, then by row
+    private final double[][] playerMetrics;
+    private final double[][] teamMetrics;
+
+    /**
+     * Computes the metrics of a league. Must be called while holding the league state lock.
+     *
+     * @param players List<Player>
+     * @param teams   List<Team>
+     */
+    AdvancedMetrics(List<Player> players, List<Team> teams) {
+        int numTeams = teams.size();
+        int[][] team = new int[TeamStatTypes.values().length][numTeams];
+        int[][] opponent = new int[TeamStatTypes.values().length][numTeams];
+        int[] teamGames = new int[numTeams];
+        int row = 0;
+        for (Team t : teams) {
+            teamRows.put(t.getID(), row);
+            teamGames[row] = t.getStatTotals().copyTo(team, row);
+            t.getOpponentStatTotals().copyTo(opponent, row);
+            row++;
+        }
+        teamMetrics = new double[TeamMetricTypes.values().length][numTeams];
+        // Plays used and rebounds per game of each team, to share out among its players
+        double[] teamPlaysPerGame = new double[numTeams];
+        double[] teamReboundsPerGame = new double[numTeams];
+        int[] pts = team[TeamStatTypes.TEAM_PTS.ordinal()];
+        int[] twoMade = team[TeamStatTypes.TEAM_TWO_POINT_MADE.ordinal()];
+        int[] twoAttempts = team[TeamStatTypes.TEAM_TWO_POINT_ATTEMPTS.ordinal()];
+        int[] threeMade = team[TeamStatTypes.TEAM_THREE_POINT_MADE.ordinal()];
+        int[] threeAttempts = team[TeamStatTypes.TEAM_THREE_POINT_ATTEMPTS.ordinal()];
+        int[] ftAttempts = team[TeamStatTypes.TEAM_FREE_THROW_ATTEMPTS.ordinal()];
+        int[] ast = team[TeamStatTypes.TEAM_ASSIST.ordinal()];
+        int[] tov = team[TeamStatTypes.TEAM_TOV.ordinal()];
+        int[] orb = team[TeamStatTypes.TEAM_ORB.ordinal()];
+        int[] drb = team[TeamStatTypes.TEAM_DRB.ordinal()];
+        int[] oppPts = opponent[TeamStatTypes.TEAM_PTS.ordinal()];
+        int[] oppTwoAttempts = opponent[TeamStatTypes.TEAM_TWO_POINT_ATTEMPTS.ordinal()];
+        int[] oppThreeAttempts = opponent[TeamStatTypes.TEAM_THREE_POINT_ATTEMPTS.ordinal()];
+        int[] oppFtAttempts = opponent[TeamStatTypes.TEAM_FREE_THROW_ATTEMPTS.ordinal()];
+        int[] oppTov = opponent[TeamStatTypes.TEAM_TOV.ordinal()];
+        int[] oppOrb = opponent[TeamStatTypes.TEAM_ORB.ordinal()];
+        int[] oppDrb = opponent[TeamStatTypes.TEAM_DRB.ordinal()];
+        for (int i = 0; i < numTeams; i++) {
+            double fga = twoAttempts[i] + threeAttempts[i];
+            double oppFga = oppTwoAttempts[i] + oppThreeAttempts[i];
+            double plays = fga + FREE_THROW_WEIGHT * ftAttempts[i] + tov[i];
+            double possessions = (plays - orb[i] + oppFga + FREE_THROW_WEIGHT * oppFtAttempts[i] - oppOrb[i]
+                    + oppTov[i]) / 2;
+            double rebounds = orb[i] + drb[i];
+            teamMetrics[TeamMetricTypes.TEAM_TRUE_SHOOTING_PCT.ordinal()][i] =
+                    100 * ratio(pts[i], 2 * (fga + FREE_THROW_WEIGHT * ftAttempts[i]));
+            teamMetrics[TeamMetricTypes.TEAM_EFFECTIVE_FG_PCT.ordinal()][i] =
+                    100 * ratio(twoMade[i] + 1.5 * threeMade[i], fga);
+            teamMetrics[TeamMetricTypes.TEAM_ASSIST_TO_TURNOVER.ordinal()][i] = ratio(ast[i], tov[i]);
+            teamMetrics[TeamMetricTypes.TEAM_REBOUND_PCT.ordinal()][i] =
+                    100 * ratio(rebounds, rebounds + oppOrb[i] + oppDrb[i]);
+            teamMetrics[TeamMetricTypes.PACE.ordinal()][i] = ratio(possessions, teamGames[i]);
+            teamMetrics[TeamMetricTypes.OFFENSIVE_RATING.ordinal()][i] = 100 * ratio(pts[i], possessions);
+            teamMetrics[TeamMetricTypes.DEFENSIVE_RATING.ordinal()][i] = 100 * ratio(oppPts[i], possessions);
+            teamPlaysPerGame[i] = ratio(plays, teamGames[i]);
+            teamReboundsPerGame[i] = ratio(rebounds, teamGames[i]);
+        }
+
+        int numPlayers = players.size();
+        int[][] player = new int[PlayerStatTypes.values().length][numPlayers];
+        int[] playerGames = new int[numPlayers];
+        // The row of the team of each player, or -1 for a free agent
+        int[] playerTeamRows = new int[numPlayers];
+        row = 0;
+        for (Player p : players) {
+            playerRows.put(p.getID(), row);
+            playerGames[row] = p.getStatTotals().copyTo(player, row);
+            Object tid = p.getEntityAttribute(PlayerAttributes.TEAM_ID.toString());
+            Integer teamRow = (tid == null) ? null : teamRows.get(((Number) tid).intValue());
+            playerTeamRows[row] = (teamRow == null) ? -1 : teamRow;
+            row++;
+        }
+        playerMetrics = new double[PlayerMetricTypes.values().length][numPlayers];
+        pts = player[PlayerStatTypes.PTS.ordinal()];
+        twoMade = player[PlayerStatTypes.TWO_POINT_MADE.ordinal()];
+        twoAttempts = player[PlayerStatTypes.TWO_POINT_ATTEMPTS.ordinal()];
+        threeMade = player[PlayerStatTypes.THREE_POINT_MADE.ordinal()];
+        threeAttempts = player[PlayerStatTypes.THREE_POINT_ATTEMPTS.ordinal()];
+        ftAttempts = player[PlayerStatTypes.FREE_THROW_ATTEMPTS.ordinal()];
+        ast = player[PlayerStatTypes.ASSIST.ordinal()];
+        tov = player[PlayerStatTypes.TOV.ordinal()];
+        orb = player[PlayerStatTypes.ORB.ordinal()];
+        drb = player[PlayerStatTypes.DRB.ordinal()];
+        for (int i = 0; i < numPlayers; i++) {
+            double fga = twoAttempts[i] + threeAttempts[i];
+            double plays = fga + FREE_THROW_WEIGHT * ftAttempts[i] + tov[i];
+            int t = playerTeamRows[i];
+            playerMetrics[PlayerMetricTypes.TRUE_SHOOTING_PCT.ordinal()][i] =
+                    100 * ratio(pts[i], 2 * (fga + FREE_THROW_WEIGHT * ftAttempts[i]));
+            playerMetrics[PlayerMetricTypes.EFFECTIVE_FG_PCT.ordinal()][i] =
+                    100 * ratio(twoMade[i] + 1.5 * threeMade[i], fga);
+            playerMetrics[PlayerMetricTypes.ASSIST_TO_TURNOVER.ordinal()][i] = ratio(ast[i], tov[i]);
+            playerMetrics[PlayerMetricTypes.USAGE_PCT.ordinal()][i] = (t < 0) ? 0.0
+                    : 100 * ratio(ratio(plays, playerGames[i]), teamPlaysPerGame[t]);
+            playerMetrics[PlayerMetricTypes.REBOUND_PCT.ordinal()][i] = (t < 0) ? 0.0
+                    : 100 * ratio(ratio(orb[i] + drb[i], playerGames[i]), teamReboundsPerGame[t]);
+        }
+    }
+
+    private static double ratio(double numerator, double denominator) {
+        return (denominator == 0) ? 0.0 : numerator / denominator;
+    }
+
+    /**
+     * @param pid    int
+     * @param metric PlayerMetricTypes
+     * @return double: The metric of the player, or 0 for a player that did not exist when the table was computed
+     */
+    public double getPlayerMetric(int pid, PlayerMetricTypes metric) {
+        Integer row = playerRows.get(pid);
+        return (row == null) ? 0.0 : playerMetrics[metric.ordinal()][row];
+    }
+
+    /**
+     * @param tid    int
+     * @param metric TeamMetricTypes
+     * @return double: The metric of the team, or 0 for a team that did not exist when the table was computed
+     */
+    public double getTeamMetric(int tid, TeamMetricTypes metric) {
+        Integer row = teamRows.get(tid);
+        return (row == null) ? 0.0 : teamMetrics[metric.ordinal()][row];
+    }
+}
@@ -0,0 +1,562 @@
+package core;
+
+import attributes.PlayerAttributes;
+import attributes.PlayerStatTypes;
+import attributes.TeamStatTypes;
+import utilities.Utils;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static core.GameEngine.ASSIST_RATE;
+import static core.GameEngine.AWAY;
+import static core.GameEngine.BLOWOUT;
+import static core.GameEngine.DEFENSIVE_REBOUND_RATE;
+import static core.GameEngine.FOUL_RATE;
+import static core.GameEngine.GAME_LENGTH_SECONDS;
+import static core.GameEngine.HOME;
+import static core.GameEngine.INSIDE_BLOCK_RATE;
+import static core.GameEngine.PERIMETER_BLOCK_RATE;
+import static core.GameEngine.PLAYERS_ON_COURT;
+import static core.GameEngine.SHOT_CLOCK_LENGTH_SECONDS;
+import static core.GameEngine.STEAL_RATE;
+import static core.GameEngine.TURNOVER_RATE;
+
+/**
+ * CS622
+ * BatchGameEngine.java
+ * <p>
+ * The BatchGameEngine plays a batch of independent games together, one possession of every unfinished game at a time,
+ * under the same rules and rates as the GameEngine. Instead of one engine object per game, the state of every game is
+ * kept in flat arrays indexed by game (clock, offense, random state) or by lane, where a lane is one team in one game
+ * (lane = game * 2 + HOME or AWAY). Players are still referred to by their slot in the ranked roster of their team.
+ * <p>
+ * The attributes of the teams are copied out of their TeamSnapshots into one flat array up front, so a possession only
+ * ever reads primitive arrays. Each game has its own SplitMix64 random state seeded from the generator passed in, so
+ * games do not share randomness and a batch is reproducible from its seed. No play by play is kept.
+ *
+ * @author Andras Palfi apalfi@bu.edu
+ * @version 1.0
+ */
+final class BatchGameEngine {
+    private static final int NUM_ATTRIBUTES = PlayerAttributes.values().length;
+    private static final int NUM_TEAM_STATS = TeamStatTypes.values().length;
+    private static final int NUM_PLAYER_STATS = PlayerStatTypes.values().length;
+    // Increment of the SplitMix64 generator
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+    // Ordinals of the attributes and stats used by the rules
+    private static final int FREE_THROW = PlayerAttributes.FREE_THROW.ordinal();
+    private static final int THREE_P_SCORING = PlayerAttributes.THREE_P_SCORING.ordinal();
+    private static final int MID_SCORING = PlayerAttributes.MID_SCORING.ordinal();
+    private static final int INSIDE_SCORING = PlayerAttributes.INSIDE_SCORING.ordinal();
+    private static final int DUNK = PlayerAttributes.DUNK.ordinal();
+    private static final int PERIMETER_DEFENSE = PlayerAttributes.PERIMETER_DEFENSE.ordinal();
+    private static final int INSIDE_DEFENSE = PlayerAttributes.INSIDE_DEFENSE.ordinal();
+    private static final int ASSIST = PlayerAttributes.ASSIST.ordinal();
+    private static final int HEIGHT = PlayerAttributes.HEIGHT.ordinal();
+    private static final int TEAM_PTS = TeamStatTypes.TEAM_PTS.ordinal();
+
+    /*
+    Member variables
+     */
+    private final int numGames;
+    // The distinct teams playing in this batch and the largest roster among them
+    private final TeamSnapshot[] teams;
+    private final int maxRosterSize;
+    private final int[] rosterSize; // [team]
+    // The team playing in each lane
+    private final int[] teamOfLane; // [lane]
+    // Game related attributes: [(team * NUM_ATTRIBUTES + attribute) * maxRosterSize + slot]
+    private final double[] attributes;
+    // Roster slots ordered by each game related attribute, best first. Indexed the same way as attributes
+    private final int[] slotsByAttribute;
+    // Tendencies: the turnover probability of each team (already defaulted to TURNOVER_RATE) and the three point cutoff
+    // point of each player, [team * maxRosterSize + slot]
+    private final double[] turnoverProbability;
+    private final double[] threePointCutoffPoint;
+    // State of each game
+    private final long[] randomState; // [game]
+    private final int[] gameTime; // [game]
+    private final int[] offense; // [game]
+    private final int[] playersOnCourt; // [lane], a bitmask of roster slots
+    private final double[] playerEnergy; // [lane * maxRosterSize + slot]
+    private final int[][] teamStats; // [stat ordinal][lane]
+    private final int[][] playerStats; // [stat ordinal][lane * maxRosterSize + slot]
+
+    /**
+     * Sets up a batch of games. Game g is played between home[g] and away[g]. Every player starts with full energy
+     * and the best 5 players of each team are placed on the court.
+     *
+     * @param home   TeamSnapshot[]: The home team of each game
+     * @param away   TeamSnapshot[]: The away team of each game
+     * @param random SplittableRandom: Seeds the random state of every game
+     */
+    BatchGameEngine(TeamSnapshot[] home, TeamSnapshot[] away, SplittableRandom random) {
+        if (home.length != away.length)
+            throw new IllegalArgumentException("Every game needs a home and an away team");
+        numGames = home.length;
+        // Collect the distinct teams so that their attributes are only copied once
+        Map<TeamSnapshot, Integer> teamIndexes = new IdentityHashMap<>();
+        teamOfLane = new int[numGames * 2];
+        for (int g = 0; g < numGames; g++) {
+            teamOfLane[lane(g, HOME)] = teamIndexes.computeIfAbsent(home[g], t -> teamIndexes.size());
+            teamOfLane[lane(g, AWAY)] = teamIndexes.computeIfAbsent(away[g], t -> teamIndexes.size());
+        }
+        teams = new TeamSnapshot[teamIndexes.size()];
+        for (Map.Entry<TeamSnapshot, Integer> entry : teamIndexes.entrySet())
+            teams[entry.getValue()] = entry.getKey();
+        rosterSize = new int[teams.length];
+        int largest = PLAYERS_ON_COURT;
+        for (int t = 0; t < teams.length; t++) {
+            rosterSize[t] = teams[t].getRosterSize();
+            assert PLAYERS_ON_COURT <= rosterSize[t] && rosterSize[t] < Integer.SIZE;
+            largest = Math.max(largest, rosterSize[t]);
+        }
+        maxRosterSize = largest;
+        // Copy the attributes and tendencies of each team
+        attributes = new double[teams.length * NUM_ATTRIBUTES * maxRosterSize];
+        slotsByAttribute = new int[attributes.length];
+        turnoverProbability = new double[teams.length];
+        threePointCutoffPoint = new double[teams.length * maxRosterSize];
+        for (int t = 0; t < teams.length; t++) {
+            for (PlayerAttributes attr : PlayerAttributes.values()) {
+                if (Player.NON_GAME_RELATED_ATTRS.contains(attr))
+                    continue;
+                int base = attributeIndex(t, attr.ordinal(), 0);
+                int[] sorted = teams[t].getSlotsSortedByAttribute(attr);
+                for (int slot = 0; slot < rosterSize[t]; slot++) {
+                    attributes[base + slot] = teams[t].getAttribute(attr, slot);
+                    slotsByAttribute[base + slot] = sorted[slot];
+                }
+            }
+            TeamTendencies tendencies = teams[t].getTendencies();
+            turnoverProbability[t] = (tendencies.getTurnoverProbability() != 0) ?
+                    tendencies.getTurnoverProbability() : TURNOVER_RATE;
+            for (int slot = 0; slot < rosterSize[t]; slot++)
+                threePointCutoffPoint[t * maxRosterSize + slot] = tendencies.getThreePointCutoffPoint(slot);
+        }
+        // Set up the state of each game
+        randomState = new long[numGames];
+        for (int g = 0; g < numGames; g++)
+            randomState[g] = random.nextLong();
+        gameTime = new int[numGames];
+        offense = new int[numGames];
+        playersOnCourt = new int[numGames * 2];
+        playerEnergy = new double[numGames * 2 * maxRosterSize];
+        teamStats = new int[NUM_TEAM_STATS][numGames * 2];
+        playerStats = new int[NUM_PLAYER_STATS][numGames * 2 * maxRosterSize];
+        for (int lane = 0; lane < numGames * 2; lane++) {
+            playersOnCourt[lane] = (1 << PLAYERS_ON_COURT) - 1;
+            for (int slot = 0; slot < rosterSize[teamOfLane[lane]]; slot++)
+                playerEnergy[lane * maxRosterSize + slot] = 1.0;
+        }
+    }
+
+    /**
+     * Simulate every game in the batch. Each pass plays one possession of every game that is not over yet, and a game
+     * drops out of the passes as soon as its clock runs out.
+     */
+    void simulate() {
+        int[] live = new int[numGames];
+        for (int g = 0; g < numGames; g++) {
+            live[g] = g;
+            determineRandomTipOffWinner(g);
+        }
+        int numLive = numGames;
+        while (numLive > 0) {
+            int stillLive = 0;
+            for (int i = 0; i < numLive; i++) {
+                int g = live[i];
+                simPossession(g);
+                if (gameTime[g] < GAME_LENGTH_SECONDS)
+                    live[stillLive++] = g;
+            }
+            numLive = stillLive;
+        }
+    }
+
+    /*
+    Results of the games
+     */
+
+    int getNumGames() {
+        return numGames;
+    }
+
+    TeamSnapshot getTeam(int game, int team) {
+        return teams[teamOfLane[lane(game, team)]];
+    }
+
+    int getGameTime(int game) {
+        return gameTime[game];
+    }
+
+    int getTeamStat(int game, int team, TeamStatTypes stat) {
+        return teamStats[stat.ordinal()][lane(game, team)];
+    }
+
+    int getPlayerStat(int game, int team, int slot, PlayerStatTypes stat) {
+        return playerStats[stat.ordinal()][lane(game, team) * maxRosterSize + slot];
+    }
+
+    /**
+     * Returns the index of the team that won a game
+     *
+     * @param game int
+     * @return int
+     */
+    int getWinner(int game) {
+        assert gameTime[game] >= GAME_LENGTH_SECONDS;
+        return (teamStats[TEAM_PTS][lane(game, HOME)] > teamStats[TEAM_PTS][lane(game, AWAY)]) ? HOME : AWAY;
+    }
+
+    /*
+    Game state helpers
+     */
+
+    private static int lane(int game, int team) {
+        return game * 2 + team;
+    }
+
+    private int attributeIndex(int team, int attr, int slot) {
+        return (team * NUM_ATTRIBUTES + attr) * maxRosterSize + slot;
+    }
+
+    private int offenseLane(int game) {
+        return lane(game, offense[game]);
+    }
+
+    private int defenseLane(int game) {
+        return lane(game, 1 - offense[game]);
+    }
+
+    private void incrementTeamStat(int lane, TeamStatTypes stat, int amount) {
+        teamStats[stat.ordinal()][lane] += amount;
+    }
+
+    private void incrementPlayerStat(int lane, int slot, PlayerStatTypes stat, int amount) {
+        playerStats[stat.ordinal()][lane * maxRosterSize + slot] += amount;
+    }
+
+    private double getAttribute(int lane, int slot, int attr) {
+        return attributes[attributeIndex(teamOfLane[lane], attr, slot)];
+    }
+
+    /**
+     * Returns the next random double between 0 and 1 of a game from its SplitMix64 state
+     *
+     * @return double
+     */
+    private double nextDouble(int game) {
+        long z = (randomState[game] += GOLDEN_GAMMA);
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        z = z ^ (z >>> 31);
+        return (z >>> 11) * 0x1.0p-53;
+    }
+
+    /**
+     * Returns a random double between 0 and 1, rounded to two decimals the same way as Utils.getRandomDouble
+     *
+     * @return double
+     */
+    private double getRandomDouble(int game) {
+        return Math.round(nextDouble(game) * 100) / 100.0;
+    }
+
+    /**
+     * Returns a random integer between low and high the same way as Utils.getRandomInteger
+     *
+     * @return int
+     */
+    private int getRandomInteger(int game, int low, int high) {
+        return (int) (Math.round((low + (high - low) * nextDouble(game)) * 100) / 100.0);
+    }
+
+    /**
+     * Returns the roster slot of the n-th player (0-4) currently on the court in a lane, in roster rank order
+     *
+     * @param lane int
+     * @param n    int
+     * @return int
+     */
+    private int getSlotOnCourt(int lane, int n) {
+        int mask = playersOnCourt[lane];
+        for (int i = 0; i < n; i++)
+            mask &= mask - 1;
+        return Integer.numberOfTrailingZeros(mask);
+    }
+
+    /**
+     * Returns the roster slot of the n-th best player (0-4) currently on the court in a lane based off a player
+     * attribute
+     *
+     * @param lane int
+     * @param attr int: The ordinal of the attribute
+     * @param n    int
+     * @return int
+     */
+    private int getSortedSlotOnCourtBasedOffAttribute(int lane, int attr, int n) {
+        int team = teamOfLane[lane];
+        int base = attributeIndex(team, attr, 0);
+        for (int i = 0; i < rosterSize[team]; i++) {
+            int slot = slotsByAttribute[base + i];
+            if ((playersOnCourt[lane] & (1 << slot)) != 0 && n-- == 0)
+                return slot;
+        }
+        throw new IllegalStateException("Not enough players on the court for " + teams[team].getTeam().getName());
+    }
+
+    /**
+     * Maps a random integer between 1 and 15 to a position (0-4) in a sorted list of the players on the court, the
+     * same way as the GameEngine
+     *
+     * @param i int
+     * @return int
+     */
+    private static int getWeightedCourtRank(int i) {
+        if (i <= 5)
+            return 0;
+        else if (i <= 9)
+            return 1;
+        else if (i <= 12)
+            return 2;
+        else if (i <= 14)
+            return 3;
+        return 4;
+    }
+
+    /*
+    Rules. Each of these mirrors the method of the same name in the GameEngine for one game of the batch.
+     */
+
+    /**
+     * Plays one possession of a game, then moves the clock, scales energy, swaps possession and makes substitutions
+     */
+    private void simPossession(int game) {
+        int playLength = simPlay(game);
+        gameTime[game] += playLength;
+        scaleEnergyForPlayers(game, playLength);
+        offense[game] = 1 - offense[game];
+        modifyPlayersOnCourt(game);
+    }
+
+    private void modifyPlayersOnCourt(int game) {
+        int[] fouls = playerStats[PlayerStatTypes.FOULS.ordinal()];
+        for (int lane = lane(game, HOME); lane <= lane(game, AWAY); lane++)
+            playersOnCourt[lane] = GameEngine.substitutePlayers(playersOnCourt[lane], playerEnergy, fouls,
+                    lane * maxRosterSize, rosterSize[teamOfLane[lane]]);
+    }
+
+    private void scaleEnergyForPlayers(int game, int playLength) {
+        double amount = Utils.round(playLength / 1000.0, 4);
+        for (int lane = lane(game, HOME); lane <= lane(game, AWAY); lane++) {
+            int base = lane * maxRosterSize;
+            int onCourt = playersOnCourt[lane];
+            int size = rosterSize[teamOfLane[lane]];
+            for (int slot = 0; slot < size; slot++)
+                playerEnergy[base + slot] = Math.min(((onCourt & (1 << slot)) != 0) ?
+                        playerEnergy[base + slot] - amount : playerEnergy[base + slot] + amount, 1.0);
+        }
+    }
+
+    private void determineRandomTipOffWinner(int game) {
+        offense[game] = (getRandomDouble(game) > 0.5) ? HOME : AWAY;
+    }
+
+    private boolean determineIfTurnover(int game) {
+        return turnoverProbability[teamOfLane[offenseLane(game)]] >= getRandomDouble(game);
+    }
+
+    private void simulateTurnover(int game) {
+        int lane = offenseLane(game);
+        int slot = getSlotOnCourt(lane, getRandomInteger(game, 0, 4));
+        incrementTeamStat(lane, TeamStatTypes.TEAM_TOV, 1);
+        incrementPlayerStat(lane, slot, PlayerStatTypes.TOV, 1);
+    }
+
+    private void simulateFreeThrows(int game, int foulingLane, int numShots, int fouledSlot) {
+        int foulingSlot = getSlotOnCourt(foulingLane, getRandomInteger(game, 0, 4));
+        incrementTeamStat(foulingLane, TeamStatTypes.TEAM_FOULS, 1);
+        incrementPlayerStat(foulingLane, foulingSlot, PlayerStatTypes.FOULS, 1);
+        // If the fouling team was defense, then the offense shoots free throws. Else the possession will just change.
+        if (foulingLane == defenseLane(game)) {
+            int lane = offenseLane(game);
+            if (fouledSlot < 0)
+                fouledSlot = getSlotOnCourt(lane, getRandomInteger(game, 0, 4));
+            for (int i = 0; i < numShots; i++) {
+                if (getRandomDouble(game) <= getAttribute(lane, fouledSlot, FREE_THROW)) {
+                    incrementTeamStat(lane, TeamStatTypes.TEAM_PTS, 1);
+                    incrementTeamStat(lane, TeamStatTypes.TEAM_FREE_THROW_MADE, 1);
+                    incrementPlayerStat(lane, fouledSlot, PlayerStatTypes.FREE_THROW_MADE, 1);
+                    incrementPlayerStat(lane, fouledSlot, PlayerStatTypes.PTS, 1);
+                }
+                incrementPlayerStat(lane, fouledSlot, PlayerStatTypes.FREE_THROW_ATTEMPTS, 1);
+                incrementTeamStat(lane, TeamStatTypes.TEAM_FREE_THROW_ATTEMPTS, 1);
+            }
+        }
+    }
+
+    private void simulateThreePointer(int game, int shooter) {
+        int lane = offenseLane(game);
+        incrementTeamStat(lane, TeamStatTypes.TEAM_THREE_POINT_ATTEMPTS, 1);
+        incrementPlayerStat(lane, shooter, PlayerStatTypes.THREE_POINT_ATTEMPTS, 1);
+        boolean shotBlocked = simulateBlock(game, true, shooter);
+        if (getRandomDouble(game) <= (getAttribute(lane, shooter, THREE_P_SCORING) * 0.5) && !shotBlocked) {
+            simulateAssist(game);
+            incrementTeamStat(lane, TeamStatTypes.TEAM_THREE_POINT_MADE, 1);
+            incrementTeamStat(lane, TeamStatTypes.TEAM_PTS, 3);
+            incrementPlayerStat(lane, shooter, PlayerStatTypes.THREE_POINT_MADE, 1);
+            incrementPlayerStat(lane, shooter, PlayerStatTypes.PTS, 3);
+        } else if (simulateRebound(game)) {
+            simulateShot(game);
+        }
+    }
+
+    private void recordMadeTwoPointer(int game, int shooter, boolean andOne) {
+        int lane = offenseLane(game);
+        incrementTeamStat(lane, TeamStatTypes.TEAM_TWO_POINT_MADE, 1);
+        incrementTeamStat(lane, TeamStatTypes.TEAM_PTS, 2);
+        incrementPlayerStat(lane, shooter, PlayerStatTypes.TWO_POINT_MADE, 1);
+        incrementPlayerStat(lane, shooter, PlayerStatTypes.PTS, 2);
+        if (andOne)
+            simulateFreeThrows(game, defenseLane(game), 1, shooter);
+    }
+
+    private void simulateTwoPointer(int game, int shooter) {
+        int lane = offenseLane(game);
+        double insideScoringAttr = getAttribute(lane, shooter, INSIDE_SCORING);
+        double midRangeShotAttr = getAttribute(lane, shooter, MID_SCORING);
+        incrementTeamStat(lane, TeamStatTypes.TEAM_TWO_POINT_ATTEMPTS, 1);
+        incrementPlayerStat(lane, shooter, PlayerStatTypes.TWO_POINT_ATTEMPTS, 1);
+        double probabilityFoul;
+        double probabilityAndOne;
+        double makeAttribute;
+        boolean jumpShot;
+        if (midRangeShotAttr > insideScoringAttr) {
+            probabilityFoul = 0.08;
+            probabilityAndOne = 0.05;
+            makeAttribute = midRangeShotAttr;
+            jumpShot = true;
+        } else {
+            double dunkAttribute = getAttribute(lane, shooter, DUNK);
+            if (dunkAttribute > insideScoringAttr) {
+                probabilityFoul = 0.2;
+                probabilityAndOne = 0.25;
+                makeAttribute = dunkAttribute;
+            } else {
+                probabilityFoul = 0.15;
+                probabilityAndOne = 0.15;
+                makeAttribute = insideScoringAttr;
+            }
+            jumpShot = false;
+        }
+        double outcome = getRandomDouble(game);
+        if (outcome <= probabilityFoul) {
+            simulateFreeThrows(game, defenseLane(game), 2, shooter);
+            return;
+        }
+        boolean blocked = simulateBlock(game, jumpShot, shooter);
+        if (outcome <= makeAttribute && !blocked) {
+            simulateAssist(game);
+            recordMadeTwoPointer(game, shooter, getRandomDouble(game) <= probabilityAndOne);
+        } else if (simulateRebound(game)) {
+            simulateShot(game);
+        }
+    }
+
+    private void simulateShot(int game) {
+        int lane = offenseLane(game);
+        int shooter = getSlotOnCourt(lane, getRandomInteger(game, 0, 4));
+        if (simulateSteal(game, shooter))
+            return;
+        if (getAttribute(lane, shooter, THREE_P_SCORING) > 0.85) {
+            // The GameEngine draws against the cutoff point whenever there is one, so the same draw is made here to
+            // keep the two engines on the same distribution even though both branches shoot a three
+            if (threePointCutoffPoint[teamOfLane[lane] * maxRosterSize + shooter] != 0)
+                getRandomDouble(game);
+            simulateThreePointer(game, shooter);
+        } else {
+            simulateTwoPointer(game, shooter);
+        }
+    }
+
+    private boolean simulateBlock(int game, boolean jumpShot, int shooter) {
+        double decisionPoint = getRandomDouble(game);
+        double cutoffPoint = getRandomDouble(game);
+        int i = getRandomInteger(game, 0, 4);
+        if (decisionPoint <= ((jumpShot) ? PERIMETER_BLOCK_RATE : INSIDE_BLOCK_RATE)) {
+            int lane = defenseLane(game);
+            int blocker = getSlotOnCourt(lane, i);
+            if (getAttribute(lane, blocker, (jumpShot) ? PERIMETER_DEFENSE : INSIDE_DEFENSE) >= cutoffPoint) {
+                incrementTeamStat(lane, TeamStatTypes.TEAM_BLK, 1);
+                incrementPlayerStat(lane, blocker, PlayerStatTypes.BLK, 1);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean simulateSteal(int game, int shooter) {
+        if (getRandomDouble(game) <= STEAL_RATE) {
+            int lane = defenseLane(game);
+            int stealer = getSlotOnCourt(lane, getRandomInteger(game, 0, 4));
+            if (getAttribute(lane, stealer, PERIMETER_DEFENSE) >= getRandomDouble(game)) {
+                incrementTeamStat(lane, TeamStatTypes.TEAM_STL, 1);
+                incrementPlayerStat(lane, stealer, PlayerStatTypes.STL, 1);
+                incrementTeamStat(offenseLane(game), TeamStatTypes.TEAM_TOV, 1);
+                incrementPlayerStat(offenseLane(game), shooter, PlayerStatTypes.TOV, 1);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void simulateAssist(int game) {
+        if (getRandomDouble(game) > ASSIST_RATE)
+            return;
+        int lane = offenseLane(game);
+        int assister = getSortedSlotOnCourtBasedOffAttribute(lane, ASSIST,
+                getWeightedCourtRank(getRandomInteger(game, 1, 15)));
+        incrementTeamStat(lane, TeamStatTypes.TEAM_ASSIST, 1);
+        incrementPlayerStat(lane, assister, PlayerStatTypes.ASSIST, 1);
+    }
+
+    private boolean simulateRebound(int game) {
+        boolean defensiveRebound = getRandomDouble(game) <= DEFENSIVE_REBOUND_RATE;
+        int lane = (defensiveRebound) ? defenseLane(game) : offenseLane(game);
+        int rebounder = getSortedSlotOnCourtBasedOffAttribute(lane, HEIGHT,
+                getWeightedCourtRank(getRandomInteger(game, 1, 15)));
+        if (defensiveRebound) {
+            incrementTeamStat(lane, TeamStatTypes.TEAM_DRB, 1);
+            incrementPlayerStat(lane, rebounder, PlayerStatTypes.DRB, 1);
+            return false;
+        } else {
+            incrementTeamStat(lane, TeamStatTypes.TEAM_ORB, 1);
+            incrementPlayerStat(lane, rebounder, PlayerStatTypes.ORB, 1);
+            return true;
+        }
+    }
+
+    private int simPlay(int game) {
+        int playLength = getRandomInteger(game, 4, SHOT_CLOCK_LENGTH_SECONDS);
+        int pointDiff = teamStats[TEAM_PTS][lane(game, HOME)] - teamStats[TEAM_PTS][lane(game, AWAY)];
+        // If there is a blowout and the game is almost over, the leading team runs out the clock
+        if (((gameTime[game] + playLength) >= GAME_LENGTH_SECONDS)
+                && ((offense[game] == HOME && pointDiff >= BLOWOUT) || (offense[game] == AWAY && pointDiff <= -BLOWOUT)))
+            return playLength;
+        if (determineIfTurnover(game)) {
+            simulateTurnover(game);
+            return playLength;
+        }
+        if (FOUL_RATE >= getRandomDouble(game)) {
+            // Determine which team committed the foul the same way as the GameEngine
+            int foulingLane = (getRandomDouble(game) >= 0.25) ? offenseLane(game) : defenseLane(game);
+            simulateFreeThrows(game, foulingLane, 2, -1);
+            return playLength;
+        }
+        simulateShot(game);
+        return playLength;
+    }
+}
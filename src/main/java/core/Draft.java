@@ -44,11 +44,11 @@ public class Draft {
      * Performs an automated draft of the league. Each team takes turns drafting players until their roster is filled up.
      */
     public void automatedDraft() {
-        List<Player> bestPlayers = LeagueFunctions.getBestPlayers();
         while (!draftIsDone()) {
             for (Team t : League.getInstance().getTeams())
-                t.addPlayerToRoster(bestPlayers.remove(0));
+                t.addPlayerToRoster(LeagueFunctions.getBestAvailableFreeAgent());
         }
+        League.getInstance().publishSnapshot();
     }
 
     /**
@@ -126,11 +126,13 @@ public class Draft {
     public void draftPlayer(Player p, Team t) {
         if (p == null)
             return;
-        assert LeagueFunctions.getFreeAgents().contains(p);
+        assert League.getInstance().getFreeAgentPool().contains(p);
         assert t.getRosterSize() < League.PLAYERS_PER_TEAM;
         t.addPlayerToRoster(p);
         draftRecap.get(t).put(p, pickNum + 1);
         pickNum++;
+        if (draftIsDone())
+            League.getInstance().publishSnapshot();
     }
 
     /**
@@ -0,0 +1,130 @@
+package core;
+
+import attributes.PlayerAttributes;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * CS-622
+ * FreeAgentPool.java
+ * <p>
+ * The FreeAgentPool keeps every player without a team, ordered from the best overall rating to the worst. Players
+ * leave the pool when they are added to a roster and come back when they are removed from one, so the best free agent
+ * is found in O(log n) and the free agents are listed in order without sorting the players of the league.
+ * <p>
+ * The attributes of a player are set when it is generated and do not change, so the overall rating of a player is read
+ * once, when it enters the pool.
+ *
+ * @author Andras Palfi apalfi@bu.edu
+ * @version 1.0
+ */
+public final class FreeAgentPool {
+
+    // Best first, ties to the lower id
+    private static final Comparator<Entry> ORDER = Comparator.comparingInt((Entry e) -> e.rating).reversed()
+            .thenComparingInt(e -> e.player.getID());
+
+    // Guarded by this
+    private final TreeSet<Entry> ordered = new TreeSet<>(ORDER);
+    private final Map<Integer, Entry> entries = new HashMap<>();
+
+    /**
+     * Fills the pool with the players of a league that have no team
+     *
+     * @param players Collection<Player>: Every player of the league
+     */
+    synchronized void rebuild(Collection<Player> players) {
+        ordered.clear();
+        entries.clear();
+        for (Player p : players)
+            if (p.getEntityAttribute(PlayerAttributes.TEAM_ID.toString()) == null)
+                add(p);
+    }
+
+    /**
+     * Adds a player that was removed from a roster
+     *
+     * @param p Player
+     */
+    synchronized void add(Player p) {
+        Entry entry = new Entry(p);
+        Entry previous = entries.put(p.getID(), entry);
+        if (previous != null)
+            ordered.remove(previous);
+        ordered.add(entry);
+    }
+
+    /**
+     * Removes a player that was added to a roster
+     *
+     * @param p Player
+     */
+    synchronized void remove(Player p) {
+        Entry entry = entries.remove(p.getID());
+        if (entry != null)
+            ordered.remove(entry);
+    }
+
+    public synchronized boolean contains(Player p) {
+        return entries.containsKey(p.getID());
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return Player: The free agent with the best overall rating, or null if there are none
+     */
+    public synchronized Player getBest() {
+        return ordered.isEmpty() ? null : ordered.first().player;
+    }
+
+    /**
+     * @return List<Player>: Every free agent, from the best overall rating to the worst
+     */
+    public synchronized List<Player> getAll() {
+        List<Player> players = new ArrayList<>(ordered.size());
+        for (Entry entry : ordered)
+            players.add(entry.player);
+        return players;
+    }
+
+    /**
+     * Returns a page of the free agents, in order from the best overall rating to the worst
+     *
+     * @param after Player: The last free agent of the previous page, or null for the first page. If it has joined a
+     *              team since, the page starts from the best free agent again
+     * @param limit int: The most free agents to return
+     * @return List<Player>
+     */
+    public synchronized List<Player> getPage(Player after, int limit) {
+        Entry last = (after == null) ? null : entries.get(after.getID());
+        List<Player> page = new ArrayList<>(Math.min(limit, ordered.size()));
+        for (Entry entry : (last == null) ? ordered : ordered.tailSet(last, false)) {
+            if (page.size() == limit)
+                break;
+            page.add(entry.player);
+        }
+        return page;
+    }
+
+    /**
+     * A free agent and the overall rating it is ordered by
+     */
+    private static final class Entry {
+        private final Player player;
+        private final int rating;
+
+        private Entry(Player player) {
+            this.player = player;
+            this.rating = player.getOverallPlayerRating();
+        }
+    }
+}
@@ -0,0 +1,725 @@
+package core;
+
+import attributes.PlayerAttributes;
+import attributes.PlayerStatTypes;
+import attributes.TeamStatTypes;
+import utilities.CoreConfiguration;
+import utilities.Utils;
+
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * CS622
+ * GameEngine.java
+ * <p>
+ * The GameEngine holds the rules of a basketball game along with the private state of one game being played under
+ * them: the players on the court, their energy, the score and every stat counter. Teams are read from TeamSnapshots
+ * and nothing is written to the Team and Player entities or the database while the game is running, so any number of
+ * engines can run side by side. A GameSimulation records the outcome of its engine once the game is over.
+ * <p>
+ * Teams are referred to by their index (HOME or AWAY), players by their slot in the ranked roster of their team.
+ *
+ * @author Andras Palfi apalfi@bu.edu
+ * @version 1.0
+ */
+final class GameEngine {
+    // The amount of fouls a player can get before they foul out of the game
+    static final int FOUL_LIMIT = CoreConfiguration.getInstance().getIntProperty("simulation.foul_limit");
+    // THe length in minutes of each quarter
+    static final int GAME_LENGTH_MIN_PER_QUARTER = CoreConfiguration.getInstance().
+            getIntProperty("simulation.game_length_min_per_quarter");
+    // The length in minutes of the entire game
+    static final int GAME_LENGTH_MIN = GAME_LENGTH_MIN_PER_QUARTER * 4;
+    // The length in seconds of the entire game
+    static final int GAME_LENGTH_SECONDS = GAME_LENGTH_MIN * 60;
+    // The amount of time the offense has before they must put up a shot
+    static final int SHOT_CLOCK_LENGTH_SECONDS = CoreConfiguration.getInstance().
+            getIntProperty("simulation.shot_clock_seconds");
+    // Blowout defines the point differential between two teams. If this differential is reached, the game is considered
+    // all but over and the offense will adjust by running the clock down more
+    static final int BLOWOUT = CoreConfiguration.getInstance().
+            getIntProperty("simulation.blowout_point_threshold");
+    // The rate that random fouls occur (Non-shooting fouls only)
+    static final double FOUL_RATE = CoreConfiguration.getInstance().getDoubleProperty("simulation.foul_rate");
+    static final double STEAL_RATE = CoreConfiguration.getInstance().getDoubleProperty("simulation.steal_rate");
+    static final double PERIMETER_BLOCK_RATE = CoreConfiguration.getInstance().
+            getDoubleProperty("simulation.perimeter_block_rate");
+    static final double INSIDE_BLOCK_RATE = CoreConfiguration.getInstance().
+            getDoubleProperty("simulation.inside_block_rate");
+    static final double DEFENSIVE_REBOUND_RATE = CoreConfiguration.getInstance().
+            getDoubleProperty("simulation.defensive_rebound_rate");
+    static final double TURNOVER_RATE = CoreConfiguration.getInstance().
+            getDoubleProperty("simulation.turnover_rate");
+    static final double ASSIST_RATE = CoreConfiguration.getInstance().
+            getDoubleProperty("simulation.assist_rate");
+    // Energy threshold for subbing out
+    static final double ENERGY_LIMIT = 0.6;
+    // Number of players each team has on the court at any given time
+    static final int PLAYERS_ON_COURT = 5;
+    // Indexes of the home and away team
+    static final int HOME = 0;
+    static final int AWAY = 1;
+
+    /*
+    Member variables
+     */
+    private final TeamSnapshot[] teams;
+    private final SplittableRandom random;
+    // The play by play of this game. null if this game is not being logged
+    private final List<String> gameLog;
+    // A bitmask of the roster slots each team currently has on the court. Bit i set means slot i is on the court
+    private final int[] playersOnCourt = new int[2];
+    // Energy of each roster slot: [team][slot]
+    private final double[][] playerEnergy = new double[2][];
+    // Stats of each player: [team][stat ordinal][slot]
+    private final int[][][] playerStats = new int[2][PlayerStatTypes.values().length][];
+    // Stats of each team: [team][stat ordinal]
+    private final int[][] teamStats = new int[2][TeamStatTypes.values().length];
+    private int gameTime;
+    private int offense; // index of the team currently on offense
+
+    /**
+     * Sets up a game between two teams. Every player starts with full energy and the best 5 players of each team are
+     * placed on the court.
+     *
+     * @param home   TeamSnapshot
+     * @param away   TeamSnapshot
+     * @param random SplittableRandom: The source of randomness for this game. Must not be shared with another game
+     * @param logged boolean: Whether a play by play log of this game should be kept
+     */
+    GameEngine(TeamSnapshot home, TeamSnapshot away, SplittableRandom random, boolean logged) {
+        this.teams = new TeamSnapshot[]{home, away};
+        this.random = random;
+        this.gameLog = (logged) ? new LinkedList<>() : null;
+        for (int team = HOME; team <= AWAY; team++) {
+            int rosterSize = teams[team].getRosterSize();
+            assert PLAYERS_ON_COURT <= rosterSize && rosterSize < Integer.SIZE;
+            playerEnergy[team] = new double[rosterSize];
+            Arrays.fill(playerEnergy[team], 1.0);
+            for (int stat = 0; stat < playerStats[team].length; stat++)
+                playerStats[team][stat] = new int[rosterSize];
+            playersOnCourt[team] = (1 << PLAYERS_ON_COURT) - 1;
+        }
+    }
+
+    /**
+     * Simulate the game, including any overtimes
+     *
+     * @return int: The index of the winning team
+     */
+    int simulate() {
+        simRegulation();
+        return getWinner();
+    }
+
+    /*
+    Results of the game
+     */
+
+    TeamSnapshot getTeam(int team) {
+        return teams[team];
+    }
+
+    int getGameTime() {
+        return gameTime;
+    }
+
+    List<String> getGameLog() {
+        return gameLog;
+    }
+
+    int getTeamStat(int team, TeamStatTypes stat) {
+        return teamStats[team][stat.ordinal()];
+    }
+
+    int getPlayerStat(int team, int slot, PlayerStatTypes stat) {
+        return playerStats[team][stat.ordinal()][slot];
+    }
+
+    /**
+     * Returns the index of the team that won the game
+     *
+     * @return int
+     */
+    int getWinner() {
+        assert regulationIsOver();
+        return (teamStats[HOME][TeamStatTypes.TEAM_PTS.ordinal()] > teamStats[AWAY][TeamStatTypes.TEAM_PTS.ordinal()])
+                ? HOME : AWAY;
+    }
+
+    /*
+    Game state helpers
+     */
+
+    private int getDefense() {
+        return 1 - offense;
+    }
+
+    private void incrementTeamStat(int team, TeamStatTypes stat, int amount) {
+        teamStats[team][stat.ordinal()] += amount;
+    }
+
+    private void incrementPlayerStat(int team, int slot, PlayerStatTypes stat, int amount) {
+        playerStats[team][stat.ordinal()][slot] += amount;
+    }
+
+    private double getAttribute(int team, int slot, PlayerAttributes attr) {
+        return teams[team].getAttribute(attr, slot);
+    }
+
+    private String getPlayerName(int team, int slot) {
+        return teams[team].getPlayer(slot).getName();
+    }
+
+    private void log(String format, Object... args) {
+        if (gameLog != null)
+            gameLog.add(String.format(format, args));
+    }
+
+    /**
+     * Returns a random double between 0 and 1, rounded to two decimals the same way as Utils.getRandomDouble
+     *
+     * @return double
+     */
+    private double getRandomDouble() {
+        return Math.round(random.nextDouble() * 100) / 100.0;
+    }
+
+    /**
+     * Returns a random integer between low and high the same way as Utils.getRandomInteger
+     *
+     * @return int
+     */
+    private int getRandomInteger(int low, int high) {
+        return (int) (Math.round((low + (high - low) * random.nextDouble()) * 100) / 100.0);
+    }
+
+    /**
+     * Returns the roster slot of the n-th player (0-4) currently on the court for a team, in roster rank order
+     *
+     * @param team int
+     * @param n    int
+     * @return int
+     */
+    private int getSlotOnCourt(int team, int n) {
+        int mask = playersOnCourt[team];
+        for (int i = 0; i < n; i++)
+            mask &= mask - 1;
+        return Integer.numberOfTrailingZeros(mask);
+    }
+
+    /**
+     * Returns the roster slot of the n-th best player (0-4) currently on the court for a team based off a player
+     * attribute
+     *
+     * @param team int
+     * @param attr PlayerAttributes
+     * @param n    int
+     * @return int
+     */
+    private int getSortedSlotOnCourtBasedOffAttribute(int team, PlayerAttributes attr, int n) {
+        for (int slot : teams[team].getSlotsSortedByAttribute(attr)) {
+            if ((playersOnCourt[team] & (1 << slot)) != 0 && n-- == 0)
+                return slot;
+        }
+        throw new IllegalStateException("Not enough players on the court for " + teams[team].getTeam().getName());
+    }
+
+    /**
+     * Maps a random integer between 1 and 15 to a position (0-4) in a sorted list of the players on the court, giving
+     * the best player the highest chance of being picked:
+     * 1-5: first, 6-9: second, 10-12: third, 13-14: fourth, 15: fifth
+     *
+     * @param i int
+     * @return int
+     */
+    private static int getWeightedCourtRank(int i) {
+        if (i <= 5)
+            return 0;
+        else if (i <= 9)
+            return 1;
+        else if (i <= 12)
+            return 2;
+        else if (i <= 14)
+            return 3;
+        return 4;
+    }
+
+    /**
+     * Determines if the regulation period is over. Regulation ends when the gameTime
+     * has either met or passed the GAME_LENGTH_SECONDS variable
+     *
+     * @return boolean
+     */
+    private boolean regulationIsOver() {
+        return gameTime >= GAME_LENGTH_SECONDS;
+    }
+
+    /*
+    Rules
+     */
+
+    /**
+     * This function gets called at the the end of each possession. It essentially checks whether a timeout and swap of
+     * players on the court should happen. In the current implementation, the starting players on the court are subbed
+     * out once their energy goes below 0.6. They are replaced with the next best player in that team's roster
+     * <p>
+     * Both the court and the bench are scanned as bits over the ranked roster slots, so a substitution touches at
+     * most one roster worth of slots and does not allocate.
+     */
+    private void modifyPlayersOnCourt() {
+        for (int team = HOME; team <= AWAY; team++)
+            playersOnCourt[team] = substitutePlayers(playersOnCourt[team], playerEnergy[team],
+                    playerStats[team][PlayerStatTypes.FOULS.ordinal()], 0, teams[team].getRosterSize());
+        assert Integer.bitCount(playersOnCourt[HOME]) == PLAYERS_ON_COURT &&
+                Integer.bitCount(playersOnCourt[AWAY]) == PLAYERS_ON_COURT;
+    }
+
+    /**
+     * Makes the substitutions of one team, for both the GameEngine and the BatchGameEngine. The players on the court
+     * with low energy are taken off, and the court is filled with the best players on the bench that have full energy
+     * and have not fouled out. Should there not be enough of them, the most rested players that have not fouled out
+     * take the remaining spots, so a team is never left short-handed.
+     *
+     * @param onCourt    int: The roster slots on the court, as bits
+     * @param energy     double[]: The energy of the players
+     * @param fouls      int[]: The fouls of the players
+     * @param base       int: The index of roster slot 0 in energy and fouls
+     * @param rosterSize int
+     * @return int: The roster slots on the court after the substitutions
+     */
+    static int substitutePlayers(int onCourt, double[] energy, int[] fouls, int base, int rosterSize) {
+        // Remove the players from the court that have low energy
+        for (int mask = onCourt; mask != 0; mask &= mask - 1) {
+            int slot = Integer.numberOfTrailingZeros(mask);
+            if (energy[base + slot] <= ENERGY_LIMIT)
+                onCourt &= ~(1 << slot);
+        }
+        // Populate the court with the best players on the bench that have full energy and have not fouled out.
+        // This effectively counts as a player substitution
+        for (int slot = 0; slot < rosterSize && Integer.bitCount(onCourt) < PLAYERS_ON_COURT; slot++) {
+            if ((onCourt & (1 << slot)) == 0 && energy[base + slot] == 1.0 && fouls[base + slot] < FOUL_LIMIT)
+                onCourt |= 1 << slot;
+        }
+        while (Integer.bitCount(onCourt) < PLAYERS_ON_COURT) {
+            int rested = -1;
+            for (int slot = 0; slot < rosterSize; slot++) {
+                if ((onCourt & (1 << slot)) == 0 && fouls[base + slot] < FOUL_LIMIT &&
+                        (rested < 0 || energy[base + slot] > energy[base + rested]))
+                    rested = slot;
+            }
+            // Everyone left on the bench has fouled out
+            if (rested < 0)
+                break;
+            onCourt |= 1 << rested;
+        }
+        return onCourt;
+    }
+
+    /**
+     * After each play, the players on the court experience an energy decay at a rate of playLength/1000.
+     * When a players energy goes below 0.6, they will be subbed out. Players not on the court experience an energy boost
+     * at the same rate, unless they already have full energy (1.0).
+     * <p>
+     * For example, if a play takes 20 seconds, the energy decay amount would be (20/1000) = 0.02. Therefore, everyone who
+     * is currently on the court loses 0.02 energy, and at the same time, everyone on the bench experiences an energy
+     * boost of 0.02, unless they already have full energy.
+     */
+    private void scaleEnergyForPlayers(int playLength) {
+        // Energy amount to scale by
+        double amount = Utils.round(playLength / 1000.0, 4);
+        for (int team = HOME; team <= AWAY; team++) {
+            double[] energy = playerEnergy[team];
+            int onCourt = playersOnCourt[team];
+            for (int slot = 0; slot < energy.length; slot++)
+                energy[slot] = Math.min(((onCourt & (1 << slot)) != 0) ?
+                        energy[slot] - amount : energy[slot] + amount, 1.0);
+        }
+    }
+
+    /**
+     * Determine who wins a tip off randomly. In the current implementation, each team has equal odds of winning the
+     * tipoff. In future iterations, this should probably take into consideration the starting centers height
+     */
+    private void determineRandomTipOffWinner() {
+        offense = (getRandomDouble() > 0.5) ? HOME : AWAY;
+    }
+
+    /**
+     * Randomly determine how long a possession will take. I set the lower bound to 4 since it's hard to get a play
+     * to happen quicker than that. The upper limit is the length of the shot clock (24 seconds).
+     *
+     * @return int
+     */
+    private int determinePossessionTime() {
+        return getRandomInteger(4, SHOT_CLOCK_LENGTH_SECONDS);
+    }
+
+    /**
+     * Randomly determine if a turnover will occur this possession. The calculation is as follows:
+     * Take the teams average turnovers per game and divide it by the length of the game in minutes. Compare this value
+     * to a random double to see if it will occur. The average is taken from the tendencies in the team snapshot.
+     * <p>
+     * Should the team not have any historical stat values for turnovers, then a league default turnover rate is used
+     * in lieu (set to 0.8, meaning there is a 8% chance of a turnover)
+     *
+     * @return boolean
+     */
+    private boolean determineIfTurnover() {
+        double turnoverProb = teams[offense].getTendencies().getTurnoverProbability();
+        turnoverProb = (turnoverProb != 0) ? turnoverProb : TURNOVER_RATE;
+        return turnoverProb >= getRandomDouble();
+    }
+
+    /**
+     * Used when determineIfTurnover() returns true. Will increment both team and player stats marking that a turnover
+     * was committed.
+     */
+    private void simulateTurnover() {
+        // Pick a player who committed the turnover randomly
+        int slot = getSlotOnCourt(offense, getRandomInteger(0, 4));
+        // Increment the player and team tov stats
+        incrementTeamStat(offense, TeamStatTypes.TEAM_TOV, 1);
+        incrementPlayerStat(offense, slot, PlayerStatTypes.TOV, 1);
+    }
+
+    /**
+     * Randomly determine if a foul will happen. This function is used before simulateShot, meaning it only simulates
+     * non-shooting fouls
+     * The possibility of a non-shooting foul occurring is currently set to FOUL_RATE (0.05) meaning there is a 5%
+     * chance of a foul occurring
+     *
+     * @return boolean
+     */
+    private boolean determineIfFoul() {
+        // A foul occurs if a random double is below the foul rate threshold
+        return FOUL_RATE >= getRandomDouble();
+    }
+
+    /**
+     * Simulates a free throw event. This function does not determine if a foul occured, it should only be called
+     * after that determination has happened. If 'fouledSlot' is negative, the simulation will randomly pick a player
+     * that was fouled.
+     * <p>
+     * A random player is picked as the fouling player.
+     *
+     * @param foulingTeam int: The team that committed the fouled
+     * @param numShots    int: the number of free throws to take
+     * @param fouledSlot  int: The roster slot of the player who was fouled. Can be -1
+     */
+    private void simulateFreeThrows(int foulingTeam, int numShots, int fouledSlot) {
+        // Pick a player who committed the foul randomly.
+        int foulingSlot = getSlotOnCourt(foulingTeam, getRandomInteger(0, 4));
+        // Increment team and player foul stats
+        incrementTeamStat(foulingTeam, TeamStatTypes.TEAM_FOULS, 1);
+        incrementPlayerStat(foulingTeam, foulingSlot, PlayerStatTypes.FOULS, 1);
+        // If the fouling team was defense, then the offense shoots free throws. Else the possession will just change.
+        if (foulingTeam == getDefense()) {
+            // Pick a player to shoot the foul shots if not set
+            if (fouledSlot < 0)
+                fouledSlot = getSlotOnCourt(offense, getRandomInteger(0, 4));
+            log("%s from %s has committed a foul on %s", getPlayerName(foulingTeam, foulingSlot),
+                    teams[foulingTeam].getTeam().getName(), getPlayerName(offense, fouledSlot));
+            // Simulate each free throw taking into consideration the players free throw rating
+            for (int i = 0; i < numShots; i++) {
+                // A free-throw is made if the fouledPlayers free throw attribute is higher than the random number
+                // that is generated
+                if (getRandomDouble() <= getAttribute(offense, fouledSlot, PlayerAttributes.FREE_THROW)) {
+                    // Free throw made! Increment stats as needed
+                    log("%s has made a free throw", getPlayerName(offense, fouledSlot));
+                    incrementTeamStat(offense, TeamStatTypes.TEAM_PTS, 1);
+                    incrementTeamStat(offense, TeamStatTypes.TEAM_FREE_THROW_MADE, 1);
+                    incrementPlayerStat(offense, fouledSlot, PlayerStatTypes.FREE_THROW_MADE, 1);
+                    incrementPlayerStat(offense, fouledSlot, PlayerStatTypes.PTS, 1);
+                }
+                // Increment free throws attempted stats
+                incrementPlayerStat(offense, fouledSlot, PlayerStatTypes.FREE_THROW_ATTEMPTS, 1);
+                incrementTeamStat(offense, TeamStatTypes.TEAM_FREE_THROW_ATTEMPTS, 1);
+            }
+        }
+    }
+
+    /**
+     * Simulates a three point shot
+     *
+     * @param shooter int: the roster slot of the player shooting the 3 pointer
+     */
+    private void simulateThreePointer(int shooter) {
+        // Three point attempt, increment stats
+        incrementTeamStat(offense, TeamStatTypes.TEAM_THREE_POINT_ATTEMPTS, 1);
+        incrementPlayerStat(offense, shooter, PlayerStatTypes.THREE_POINT_ATTEMPTS, 1);
+        // Check if the shot was made based of thee players three pt attr. There is also an opportunity that the shot
+        // is blocked before the shot goes up
+        boolean shotBlocked = simulateBlock(true, shooter);
+        if (getRandomDouble() <= (getAttribute(offense, shooter, PlayerAttributes.THREE_P_SCORING) * 0.5)
+                && !shotBlocked) {
+            simulateAssist();
+            // Three point shot made! Increment stats as needed
+            log("%s has made a three point shot", getPlayerName(offense, shooter));
+            incrementTeamStat(offense, TeamStatTypes.TEAM_THREE_POINT_MADE, 1);
+            incrementTeamStat(offense, TeamStatTypes.TEAM_PTS, 3);
+            incrementPlayerStat(offense, shooter, PlayerStatTypes.THREE_POINT_MADE, 1);
+            incrementPlayerStat(offense, shooter, PlayerStatTypes.PTS, 3);
+        } else {
+            log("%s has missed a three point shot", getPlayerName(offense, shooter));
+            // Check to see if the offense grabbed a rebound and can have a new possession
+            boolean offensiveRebound = simulateRebound();
+            if (offensiveRebound)
+                simulateShot();
+        }
+    }
+
+    /**
+     * Utility function to record a two pointer being made. Used in simulateTwoPointer. Will increment stats
+     * accordingly and also force free throws if there was an and-one
+     *
+     * @param shooter int: the roster slot of the player shooting the ball
+     * @param andOne  boolean: Whether the player was fouled in the act of shooting
+     */
+    private void recordMadeTwoPointer(int shooter, boolean andOne) {
+        // Increment stats
+        incrementTeamStat(offense, TeamStatTypes.TEAM_TWO_POINT_MADE, 1);
+        incrementTeamStat(offense, TeamStatTypes.TEAM_PTS, 2);
+        incrementPlayerStat(offense, shooter, PlayerStatTypes.TWO_POINT_MADE, 1);
+        incrementPlayerStat(offense, shooter, PlayerStatTypes.PTS, 2);
+        if (andOne) {
+            // If the player was fouled in the act of shooting, simulate a free throw
+            log("%s has made a two-point shot with an and-one", getPlayerName(offense, shooter));
+            simulateFreeThrows(getDefense(), 1, shooter);
+        } else {
+            log("%s has made a two-point shot", getPlayerName(offense, shooter));
+        }
+    }
+
+    /**
+     * Function to simulate two pointers. Two pointers can either be a mid-range shot or a shot in the post. The shooter
+     * will pick the one they are better at (I.e. whichever attribute is higher). If it is a inside shot, it can either
+     * be a dunk or a layup. Again, this determination is made based off the players attributes and what they are better at
+     *
+     * @param shooter int: the roster slot of the shooter
+     */
+    private void simulateTwoPointer(int shooter) {
+        // First determine if this will be a mid-range shot or a shot inside the post. To determine this, we look
+        // at the players MID_RANGE_SHOOTING and INSIDE_SCORING attributes.
+        double insideScoringAttr = getAttribute(offense, shooter, PlayerAttributes.INSIDE_SCORING);
+        double midRangeShotAttr = getAttribute(offense, shooter, PlayerAttributes.MID_SCORING);
+        // Increment attempts stat
+        incrementTeamStat(offense, TeamStatTypes.TEAM_TWO_POINT_ATTEMPTS, 1);
+        incrementPlayerStat(offense, shooter, PlayerStatTypes.TWO_POINT_ATTEMPTS, 1);
+        double probabilityFoul;
+        double probabilityAndOne;
+        double makeAttribute;
+        boolean jumpShot;
+        if (midRangeShotAttr > insideScoringAttr) {
+            // Player will take a mid-range jump shot. A mid range shot has an 8% chance of being fouled and a 5% chance
+            // of an and-one
+            probabilityFoul = 0.08;
+            probabilityAndOne = 0.05;
+            makeAttribute = midRangeShotAttr;
+            jumpShot = true;
+        } else {
+            // if it was not a shot, then it was either a layup (inside_scoring) or dunk.
+            double dunkAttribute = getAttribute(offense, shooter, PlayerAttributes.DUNK);
+            if (dunkAttribute > insideScoringAttr) {
+                // Dunk, 20% chance of being fouled and a 25% chance of an and-one
+                probabilityFoul = 0.2;
+                probabilityAndOne = 0.25;
+                makeAttribute = dunkAttribute;
+            } else {
+                // Normal layup
+                probabilityFoul = 0.15;
+                probabilityAndOne = 0.15;
+                makeAttribute = insideScoringAttr;
+            }
+            jumpShot = false;
+        }
+        double outcome = getRandomDouble();
+        // First check if player was fouled without making a shot
+        if (outcome <= probabilityFoul) {
+            simulateFreeThrows(getDefense(), 2, shooter);
+            return;
+        }
+        // Next check if the shot was made. Also check to see if a block happens
+        boolean blocked = simulateBlock(jumpShot, shooter);
+        if (outcome <= makeAttribute && !blocked) {
+            // check to see if the shot is assisted
+            simulateAssist();
+            // Player made the shot! Check to see if an and-one
+            recordMadeTwoPointer(shooter, getRandomDouble() <= probabilityAndOne);
+        } else {
+            if (simulateRebound())
+                simulateShot();
+        }
+    }
+
+    /**
+     * Simulate a shot during a team's possession. First a random player is chosen as the shooter. If that shooter has
+     * an above-average 3pt-shot then they will take a 3 pointer. Else they will take a two-pointer.
+     */
+    private void simulateShot() {
+        // First pick a player to be the shooting player
+        int shooter = getSlotOnCourt(offense, getRandomInteger(0, 4));
+        // Check to see if the shooter has the ball stolen
+        if (simulateSteal(shooter))
+            return; // No shot happens if the ball is stolen
+
+        // First we check to see if a 3 pointer can occur
+        double threePtCutoffPoint = teams[offense].getTendencies().getThreePointCutoffPoint(shooter);
+        if (getAttribute(offense, shooter, PlayerAttributes.THREE_P_SCORING) > 0.85) {
+            if (threePtCutoffPoint != 0 && getRandomDouble() <= threePtCutoffPoint) {
+                simulateThreePointer(shooter);
+            } else {
+                simulateThreePointer(shooter);
+            }
+        } else {
+            // Two point shot
+            simulateTwoPointer(shooter);
+        }
+    }
+
+    /**
+     * Simulate a block
+     */
+    private boolean simulateBlock(boolean jumpShot, int shooter) {
+        double decisionPoint = getRandomDouble();
+        double cutoffPoint = getRandomDouble();
+        int i = getRandomInteger(0, 4);
+        boolean decision = decisionPoint <= ((jumpShot) ? PERIMETER_BLOCK_RATE : INSIDE_BLOCK_RATE);
+        if (decision) {
+            int blocker = getSlotOnCourt(getDefense(), i);
+            PlayerAttributes defense = (jumpShot) ? PlayerAttributes.PERIMETER_DEFENSE : PlayerAttributes.INSIDE_DEFENSE;
+            if (getAttribute(getDefense(), blocker, defense) >= cutoffPoint) {
+                log("%s has blocked a %s shot from %s", getPlayerName(getDefense(), blocker),
+                        (jumpShot) ? "jump" : "inside", getPlayerName(offense, shooter));
+                incrementTeamStat(getDefense(), TeamStatTypes.TEAM_BLK, 1);
+                incrementPlayerStat(getDefense(), blocker, PlayerStatTypes.BLK, 1);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Simulate a steal
+     */
+    private boolean simulateSteal(int shooter) {
+        // First check to see if a steal occurs
+        if (getRandomDouble() <= STEAL_RATE) {
+            //Steal will (maybe) occur
+            // Pick a random player to be the stealer
+            int stealer = getSlotOnCourt(getDefense(), getRandomInteger(0, 4));
+            if (getAttribute(getDefense(), stealer, PlayerAttributes.PERIMETER_DEFENSE) >= getRandomDouble()) {
+                log("%s has stolen the ball from %s", getPlayerName(getDefense(), stealer),
+                        getPlayerName(offense, shooter));
+                incrementTeamStat(getDefense(), TeamStatTypes.TEAM_STL, 1);
+                incrementPlayerStat(getDefense(), stealer, PlayerStatTypes.STL, 1);
+                incrementTeamStat(offense, TeamStatTypes.TEAM_TOV, 1);
+                incrementPlayerStat(offense, shooter, PlayerStatTypes.TOV, 1);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks to see if this shot attempt will come off of an assist. Currently there is a 57% chance that any shot that
+     * is going in comes off an assist. The teams best assisters have the higher chance of making the assist.
+     */
+    private void simulateAssist() {
+        boolean assistHappens = getRandomDouble() <= ASSIST_RATE;
+        if (!assistHappens)
+            return;
+        int assister = getSortedSlotOnCourtBasedOffAttribute(offense, PlayerAttributes.ASSIST,
+                getWeightedCourtRank(getRandomInteger(1, 15)));
+        // Increment stats
+        incrementTeamStat(offense, TeamStatTypes.TEAM_ASSIST, 1);
+        incrementPlayerStat(offense, assister, PlayerStatTypes.ASSIST, 1);
+    }
+
+    /**
+     * Simulate a rebound. Returns true if the offensive team gets the ball back
+     *
+     * @return boolean
+     */
+    private boolean simulateRebound() {
+        // Check if it is offensive or defensive rebound. There is much higher chance for a defensive rebound
+        boolean defensiveRebound = getRandomDouble() <= DEFENSIVE_REBOUND_RATE;
+        // Pick a player to rebound. Taller players have better chance
+        // TODO factor in ORB and DRB attributes here
+        int reboundingTeam = (defensiveRebound) ? getDefense() : offense;
+        int rebounder = getSortedSlotOnCourtBasedOffAttribute(reboundingTeam, PlayerAttributes.HEIGHT,
+                getWeightedCourtRank(getRandomInteger(1, 15)));
+        // Increment stats
+        if (defensiveRebound) {
+            incrementTeamStat(reboundingTeam, TeamStatTypes.TEAM_DRB, 1);
+            incrementPlayerStat(reboundingTeam, rebounder, PlayerStatTypes.DRB, 1);
+            log("%s has grabbed a defensive rebound", getPlayerName(reboundingTeam, rebounder));
+            return false;
+        } else {
+            incrementTeamStat(reboundingTeam, TeamStatTypes.TEAM_ORB, 1);
+            incrementPlayerStat(reboundingTeam, rebounder, PlayerStatTypes.ORB, 1);
+            log("%s has grabbed an offensive rebound", getPlayerName(reboundingTeam, rebounder));
+            return true;
+        }
+    }
+
+    /**
+     * Simulate an entire possession. There are various things that can happen:
+     * 1. If at the end of a game and the score is a blowout the winning team runs out the clock
+     * 2. A turnover may occur
+     * 3. A foul may occur
+     * 4. If none of those occur, then the offensive team will attempt to take a shot
+     *
+     * @return int: the length of time this play took
+     */
+    private int simPlay() {
+        int playLength = determinePossessionTime();
+        int pointDiff = getTeamStat(HOME, TeamStatTypes.TEAM_PTS) - getTeamStat(AWAY, TeamStatTypes.TEAM_PTS);
+        // If there is a blowout for either team and the game is almost over, then  just run out the clock without a
+        // a play and return the play length
+        if (((gameTime + playLength) >= GAME_LENGTH_SECONDS)
+                && ((offense == HOME && pointDiff >= BLOWOUT) || (offense == AWAY && pointDiff <= -BLOWOUT)))
+            return playLength;
+
+        // Check if the offense commits a turnover before a shot attempt
+        if (determineIfTurnover()) {
+            simulateTurnover();
+            return playLength;
+        }
+
+        // Next thing that could occur before a shot is a non-shooting foul by either team
+        if (determineIfFoul()) {
+            // determine which team committed the foul. There is a 75 % chance the defending team commits the foul
+            int foulingTeam = (getRandomDouble() >= 0.25) ? offense : getDefense();
+            simulateFreeThrows(foulingTeam, 2, -1);
+            return playLength;
+        }
+
+        // If no foul, then just simulate a (potential) shot
+        simulateShot();
+        return playLength;
+    }
+
+    /**
+     * Simulates the regulation period of the game
+     */
+    private void simRegulation() {
+        // First determine who wins tipoff
+        determineRandomTipOffWinner();
+        // Run a continual loop until the game ends
+        while (!regulationIsOver()) {
+            // Simulate a play and move the clock up by how long the play took
+            int playLength = simPlay();
+            gameTime += playLength;
+            // Scale energy for players
+            scaleEnergyForPlayers(playLength);
+            // swap possession for next play
+            offense = getDefense();
+            // See if a timeout or subs should happen now
+            modifyPlayersOnCourt();
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package core;
+
+import attributes.PlayerStatTypes;
+import attributes.TeamStatTypes;
+import utilities.DatabaseConnection;
+import utilities.PersistenceWriter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * CS-622
+ * GameResult.java
+ * <p>
+ * A GameResult is an immutable copy of everything a finished game writes to the database: the box score of both teams
+ * and their players, the game clock and the game log. It is taken from the GameEngine when the game ends, so it can be
+ * handed to the PersistenceWriter while the simulation moves on. Every row is written with a single statement. The
+ * rows of players who joined a team after the game was scheduled are inserted first.
+ *
+ * @author Andras Palfi apalfi@bu.edu
+ * @version 1.0
+ */
+final class GameResult implements PersistenceWriter.Record {
+
+    private final int gid;
+    private final int gameClock;
+    private final List<String> gameLog;
+    private final int[] tids = new int[2];
+    private final int[][] teamStats = new int[2][];
+    private final int[][] pids = new int[2][];
+    // Indexed by team, roster slot and stat
+    private final int[][][] playerStats = new int[2][][];
+    // Indexed by team and roster slot, whether the player has no row for this game yet
+    private final boolean[][] newPlayerRows = new boolean[2][];
+    private boolean hasNewPlayerRows = false;
+
+    /**
+     * Copies the results of a finished game. Must be called under the state lock of the league, before the results
+     * are recorded, so it sees which players have no stat line for the game yet.
+     *
+     * @param gid    int
+     * @param engine GameEngine
+     */
+    GameResult(int gid, GameEngine engine) {
+        this.gid = gid;
+        this.gameClock = engine.getGameTime();
+        this.gameLog = Collections.unmodifiableList(new ArrayList<>(engine.getGameLog()));
+        for (int team = GameEngine.HOME; team <= GameEngine.AWAY; team++) {
+            TeamSnapshot snapshot = engine.getTeam(team);
+            tids[team] = snapshot.getTeam().getID();
+            teamStats[team] = new int[TeamStatTypes.values().length];
+            for (TeamStatTypes stat : TeamStatTypes.values())
+                teamStats[team][stat.ordinal()] = engine.getTeamStat(team, stat);
+            pids[team] = new int[snapshot.getRosterSize()];
+            playerStats[team] = new int[snapshot.getRosterSize()][PlayerStatTypes.values().length];
+            newPlayerRows[team] = new boolean[snapshot.getRosterSize()];
+            for (int slot = 0; slot < snapshot.getRosterSize(); slot++) {
+                pids[team][slot] = snapshot.getPlayer(slot).getID();
+                newPlayerRows[team][slot] = snapshot.getPlayer(slot).getPlayerStat(gid) == null;
+                hasNewPlayerRows |= newPlayerRows[team][slot];
+                for (PlayerStatTypes stat : PlayerStatTypes.values())
+                    playerStats[team][slot][stat.ordinal()] = engine.getPlayerStat(team, slot, stat);
+            }
+        }
+    }
+
+    @Override
+    public void write(DatabaseConnection db) throws SQLException {
+        db.executeStatement(createUpdateSQL("team_stats", TeamStatTypes.values(), "tid=? AND gid=?"), statement -> {
+            for (int team = GameEngine.HOME; team <= GameEngine.AWAY; team++) {
+                int i = 1;
+                for (int value : teamStats[team])
+                    statement.setInt(i++, value);
+                statement.setInt(i++, tids[team]);
+                statement.setInt(i, gid);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        });
+        if (hasNewPlayerRows)
+            db.executeStatement("INSERT OR IGNORE INTO player_stats(pid,tid,gid,name) VALUES(?,?,?,?)", statement -> {
+                for (int team = GameEngine.HOME; team <= GameEngine.AWAY; team++) {
+                    for (int slot = 0; slot < pids[team].length; slot++) {
+                        if (!newPlayerRows[team][slot])
+                            continue;
+                        statement.setInt(1, pids[team][slot]);
+                        statement.setInt(2, tids[team]);
+                        statement.setInt(3, gid);
+                        statement.setString(4, PlayerStat.createName(pids[team][slot], tids[team], gid));
+                        statement.addBatch();
+                    }
+                }
+                statement.executeBatch();
+            });
+        db.executeStatement(createUpdateSQL("player_stats", PlayerStatTypes.values(), "pid=? AND tid=? AND gid=?"),
+                statement -> {
+                    for (int team = GameEngine.HOME; team <= GameEngine.AWAY; team++) {
+                        for (int slot = 0; slot < pids[team].length; slot++) {
+                            int i = 1;
+                            for (int value : playerStats[team][slot])
+                                statement.setInt(i++, value);
+                            statement.setInt(i++, pids[team][slot]);
+                            statement.setInt(i++, tids[team]);
+                            statement.setInt(i, gid);
+                            statement.addBatch();
+                        }
+                    }
+                    statement.executeBatch();
+                });
+        db.executeStatement("UPDATE games SET GAME_CLOCK=?, GAME_LOG=? WHERE gid=?", statement -> {
+            statement.setInt(1, gameClock);
+            statement.setBytes(2, serializeGameLog());
+            statement.setInt(3, gid);
+            statement.execute();
+        });
+    }
+
+    /**
+     * Creates an UPDATE statement that sets every column of a stat table for one row
+     */
+    private static String createUpdateSQL(String table, Enum<?>[] stats, String where) {
+        StringBuilder sql = new StringBuilder("UPDATE " + table + " SET ");
+        for (Enum<?> stat : stats)
+            sql.append(stat.toString()).append("=?,");
+        sql.replace(sql.length() - 1, sql.length(), " WHERE " + where);
+        return sql.toString();
+    }
+
+    private byte[] serializeGameLog() {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(bos)) {
+            oos.writeObject(new ArrayList<>(gameLog));
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return bos.toByteArray();
+    }
+}
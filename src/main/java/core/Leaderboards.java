@@ -0,0 +1,267 @@
+package core;
+
+import attributes.PlayerStatTypes;
+import attributes.TeamStatTypes;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * CS-622
+ * Leaderboards.java
+ * <p>
+ * The Leaderboards keep the league leaders of a stat, or of the sum of a few stats such as DRB and ORB, by season total
+ * or per game, for players and for teams. Each leaderboard only holds its best entries, and is updated with the new
+ * totals of every player and team of a game when the game is recorded, so asking for the leaders costs about as much
+ * as the number of leaders asked for, however many players the league has.
+ * <p>
+ * A leaderboard is created the first time its leaders are asked for, from the season totals of everyone, and is kept
+ * up to date from then on. It also remembers the best entity it had to leave out. When an entry falls below that
+ * entity, which can happen to averages, or when a filter leaves too few entries, the leaders are found from the season
+ * totals of everyone again.
+ *
+ * @author Andras Palfi apalfi@bu.edu
+ * @version 1.0
+ */
+public final class Leaderboards {
+
+    // The most leaders that can be asked for
+    public static final int MAX_K = 100;
+    // Leaderboards keep more entries than can be asked for, so entries that drop or are filtered out rarely force a
+    // look at everyone
+    private static final int CAPACITY = 2 * MAX_K;
+
+    public enum Measure {TOTAL, PER_GAME}
+
+    private final League league;
+    private final Map<String, Leaderboard<Player>> playerBoards = new HashMap<>();
+    private final Map<String, Leaderboard<Team>> teamBoards = new HashMap<>();
+
+    Leaderboards(League league) {
+        this.league = league;
+    }
+
+    /**
+     * Returns the players leading the league in a stat, or in the sum of a few stats
+     *
+     * @param measure        Measure: Season total or average per game
+     * @param k              int: The number of leaders, at most MAX_K
+     * @param minGamesPlayed int: Players with fewer games played are left out
+     * @param stats          PlayerStatTypes: The stats to add up
+     * @return List<Leader<Player>>: The leaders, best first. Ties go to the lower id
+     */
+    public List<Leader<Player>> getPlayerLeaders(Measure measure, int k, int minGamesPlayed, PlayerStatTypes... stats) {
+        EnumSet<PlayerStatTypes> statSet = EnumSet.noneOf(PlayerStatTypes.class);
+        Collections.addAll(statSet, stats);
+        synchronized (league.getStateLock()) {
+            return playerBoards.computeIfAbsent(measure + statSet.toString(), key -> new Leaderboard<>(
+                    league::getPlayers, Player::getStatTotals, statSet, measure)).getLeaders(k, minGamesPlayed);
+        }
+    }
+
+    /**
+     * Returns the teams leading the league in a stat, or in the sum of a few stats
+     *
+     * @param measure        Measure: Season total or average per game
+     * @param k              int: The number of leaders, at most MAX_K
+     * @param minGamesPlayed int: Teams with fewer games played are left out
+     * @param stats          TeamStatTypes: The stats to add up
+     * @return List<Leader<Team>>: The leaders, best first. Ties go to the lower id
+     */
+    public List<Leader<Team>> getTeamLeaders(Measure measure, int k, int minGamesPlayed, TeamStatTypes... stats) {
+        EnumSet<TeamStatTypes> statSet = EnumSet.noneOf(TeamStatTypes.class);
+        Collections.addAll(statSet, stats);
+        synchronized (league.getStateLock()) {
+            return teamBoards.computeIfAbsent(measure + statSet.toString(), key -> new Leaderboard<>(
+                    league::getTeams, Team::getStatTotals, statSet, measure)).getLeaders(k, minGamesPlayed);
+        }
+    }
+
+    /**
+     * Updates every leaderboard with the season totals of a player. Called with the league state lock held, once the
+     * totals of a finished game are added.
+     */
+    void update(Player player) {
+        for (Leaderboard<Player> board : playerBoards.values())
+            board.update(player);
+    }
+
+    /**
+     * Updates every leaderboard with the season totals of a team. Called with the league state lock held, once the
+     * totals of a finished game are added.
+     */
+    void update(Team team) {
+        for (Leaderboard<Team> board : teamBoards.values())
+            board.update(team);
+    }
+
+    /**
+     * Drops every leaderboard, for when the season totals are replaced. They are created again when asked for.
+     */
+    void clear() {
+        synchronized (league.getStateLock()) {
+            playerBoards.clear();
+            teamBoards.clear();
+        }
+    }
+
+    /**
+     * A player or team on a leaderboard, with its value and games played at the time
+     */
+    public static final class Leader<E extends AbstractEntity> {
+        private final E entity;
+        private final double value;
+        private final int gamesPlayed;
+
+        private Leader(E entity, double value, int gamesPlayed) {
+            this.entity = entity;
+            this.value = value;
+            this.gamesPlayed = gamesPlayed;
+        }
+
+        public E getEntity() {
+            return entity;
+        }
+
+        public double getValue() {
+            return value;
+        }
+
+        public int getGamesPlayed() {
+            return gamesPlayed;
+        }
+    }
+
+    /**
+     * The best entries of one stat and measure. Only used with the league state lock held.
+     */
+    private static final class Leaderboard<E extends AbstractEntity> {
+        // Best first, ties to the lower id
+        private static final Comparator<Leader<?>> RANKING = Comparator.<Leader<?>>comparingDouble(Leader::getValue)
+                .reversed().thenComparingInt(l -> l.getEntity().getID());
+
+        private final Supplier<Collection<E>> entities;
+        private final Function<E, StatTotals<?>> totals;
+        // The ordinals of the stats to add up
+        private final int[] stats;
+        private final Measure measure;
+        private final TreeSet<Leader<E>> ranked = new TreeSet<>(RANKING);
+        private final Map<Integer, Leader<E>> members = new HashMap<>();
+        // At least as good as any entity left out, or null if nobody is left out
+        private Leader<E> bestLeftOut = null;
+        // The number of entities when the leaderboard was last built from everyone
+        private int numEntities = -1;
+
+        private Leaderboard(Supplier<Collection<E>> entities, Function<E, StatTotals<?>> totals, EnumSet<?> stats,
+                            Measure measure) {
+            this.entities = entities;
+            this.totals = totals;
+            this.stats = stats.stream().mapToInt(Enum::ordinal).toArray();
+            this.measure = measure;
+        }
+
+        private Leader<E> createLeader(E entity) {
+            StatTotals<?> entityTotals = totals.apply(entity);
+            double sum = 0;
+            for (int stat : stats)
+                sum += entityTotals.getTotal(stat);
+            int gamesPlayed = entityTotals.getGamesPlayed();
+            double value = (measure == Measure.TOTAL) ? sum : (gamesPlayed == 0) ? 0.0 : sum / gamesPlayed;
+            return new Leader<>(entity, value, gamesPlayed);
+        }
+
+        void update(E entity) {
+            Leader<E> leader = createLeader(entity);
+            Leader<E> previous = members.remove(entity.getID());
+            if (previous != null)
+                ranked.remove(previous);
+            else if (ranked.size() >= CAPACITY) {
+                if (RANKING.compare(leader, ranked.last()) > 0) {
+                    leaveOut(leader);
+                    return;
+                }
+                Leader<E> evicted = ranked.pollLast();
+                members.remove(evicted.getEntity().getID());
+                leaveOut(evicted);
+            }
+            ranked.add(leader);
+            members.put(entity.getID(), leader);
+        }
+
+        private void leaveOut(Leader<E> leader) {
+            if (bestLeftOut == null || RANKING.compare(leader, bestLeftOut) < 0)
+                bestLeftOut = leader;
+        }
+
+        List<Leader<E>> getLeaders(int k, int minGamesPlayed) {
+            assert k >= 0 && k <= MAX_K;
+            if (numEntities != entities.get().size())
+                rebuild();
+            List<Leader<E>> leaders = new ArrayList<>(k);
+            for (Leader<E> leader : ranked) {
+                if (leaders.size() == k)
+                    return leaders;
+                if (bestLeftOut != null && RANKING.compare(leader, bestLeftOut) > 0) {
+                    // An entity that was left out may be better than this entry by now
+                    rebuild();
+                    return getLeaders(k, minGamesPlayed);
+                }
+                if (leader.getGamesPlayed() >= minGamesPlayed)
+                    leaders.add(leader);
+            }
+            if (leaders.size() < k && bestLeftOut != null)
+                return findLeaders(k, minGamesPlayed);
+            return leaders;
+        }
+
+        /**
+         * Builds the leaderboard from the season totals of everyone
+         */
+        private void rebuild() {
+            PriorityQueue<Leader<E>> best = selectBest(CAPACITY + 1, 0);
+            ranked.clear();
+            members.clear();
+            bestLeftOut = (best.size() > CAPACITY) ? best.poll() : null;
+            for (Leader<E> leader : best) {
+                ranked.add(leader);
+                members.put(leader.getEntity().getID(), leader);
+            }
+            numEntities = entities.get().size();
+        }
+
+        /**
+         * Finds the leaders among everyone, without changing the leaderboard
+         */
+        private List<Leader<E>> findLeaders(int k, int minGamesPlayed) {
+            List<Leader<E>> leaders = new ArrayList<>(selectBest(k, minGamesPlayed));
+            leaders.sort(RANKING);
+            return leaders;
+        }
+
+        /**
+         * Returns the best n entities with enough games played, with the worst of them at the head of the queue
+         */
+        private PriorityQueue<Leader<E>> selectBest(int n, int minGamesPlayed) {
+            PriorityQueue<Leader<E>> best = new PriorityQueue<>(n + 1, RANKING.reversed());
+            for (E entity : entities.get()) {
+                Leader<E> leader = createLeader(entity);
+                if (leader.getGamesPlayed() < minGamesPlayed)
+                    continue;
+                best.add(leader);
+                if (best.size() > n)
+                    best.poll();
+            }
+            return best;
+        }
+    }
+}
@@ -1,8 +1,14 @@
 package core;
 
+import attributes.GameAttributes;
 import attributes.LeagueAttributes;
+import attributes.PlayerStatTypes;
+import attributes.TeamStatTypes;
 import utilities.CoreConfiguration;
 import utilities.DatabaseConnection;
+import utilities.IdAllocator;
+import utilities.PersistenceWriter;
+import utilities.SimulationExecutor;
 import utilities.Utils;
 
 import java.io.BufferedReader;
@@ -10,9 +16,13 @@ import java.io.FileReader;
 import java.io.IOException;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * CS-622
@@ -35,10 +45,13 @@ public class League extends AbstractEntity {
     static final int NUM_PLAYERS = (NUM_TEAMS * PLAYERS_PER_TEAM) + 100;
     // Max number of threads that can be used in the thread pool
     private static final int MAX_NUM_THREADS = Runtime.getRuntime().availableProcessors() + 1;
+    // Number of chunks the players of a new league are generated in. Fixed, so a seed gives the same players on any
+    // number of threads
+    private static final int GENERATION_CHUNKS = 64;
+    // Leagues saved before seasons existed are in their first season
+    private static final int FIRST_SEASON = 1;
     // League singleton
     private static League instance = null;
-    // An AtomicInteger is a thread-safe way to create IDs for our entities.
-    private static AtomicInteger idCreator = new AtomicInteger();
     // Lists of names needed to populate random names for the various Entities
     private List<String> firstNames;
     private List<String> lastNames;
@@ -47,6 +60,32 @@ public class League extends AbstractEntity {
     private List<Team> teams;
     private List<Player> players;
     private List<GameSimulation> games;
+    // Guards the teams, players and their stats while a game copies them at tip-off or merges its results back in
+    private final Object stateLock = new Object();
+    // The latest snapshot the views render from, and its version. The version is guarded by the state lock
+    private final AtomicReference<LeagueSnapshot> snapshot = new AtomicReference<>();
+    private long snapshotVersion = 0;
+    // The latest advanced metrics of the players and teams, computed after every simulated day
+    private final AtomicReference<AdvancedMetrics> advancedMetrics = new AtomicReference<>();
+    // League leaders, updated as games are recorded
+    private final Leaderboards leaderboards = new Leaderboards(this);
+    // Games by id, team and day, and which of them have been played
+    private final ScheduleIndex scheduleIndex = new ScheduleIndex();
+    // Records of the teams, updated as games are recorded
+    private final Standings standings = new Standings();
+    // Players without a team, updated as rosters change
+    private final FreeAgentPool freeAgentPool = new FreeAgentPool();
+    // The box score of every game played, one row per player or team per game
+    private final StatTable playerStatTable = new StatTable(PlayerStatTypes.class);
+    private final StatTable teamStatTable = new StatTable(TeamStatTypes.class);
+    // The box scores of every season including the current one, null until they are first asked for. Guarded by the
+    // state lock
+    private StatTable playerHistoryTable = null;
+    private StatTable teamHistoryTable = null;
+    // Where the stat lines and season averages of the players rank in the league
+    private final StatDistributions statDistributions = new StatDistributions();
+    // Results of the LeagueFunctions queries, until a write advances their epoch
+    private final QueryCache queryCache = new QueryCache();
 
 
     private League(int id, String name) throws SQLException {
@@ -55,6 +94,13 @@ public class League extends AbstractEntity {
         teams = new LinkedList<>();
         players = new LinkedList<>();
         games = new LinkedList<>();
+    }
+
+    /**
+     * Builds a new league, or loads the saved one from its tables. Called once the league is the one getInstance()
+     * returns, since the loaded games look up their teams through it.
+     */
+    void buildOrLoad() throws SQLException {
         // Check if this is the first time this league has been launched
         ResultSet playerEntries = DatabaseConnection.getInstance().getAllPlayerEntries();
         ResultSet teamEntries = DatabaseConnection.getInstance().getAllTeamEntries();
@@ -66,28 +112,249 @@ public class League extends AbstractEntity {
 
     }
 
-    private static AtomicInteger getIdCreator() {
-        return idCreator;
-    }
-
-
+    /**
+     * Returns the league of the league context bound to the calling thread, or the program wide league if there is
+     * none
+     *
+     * @return League
+     */
     public static League getInstance() {
+        LeagueContext context = LeagueContext.current();
+        if (context != null)
+            return context.getLeague();
         assert instance != null;
         return instance;
     }
 
+    /**
+     * Returns the league getInstance() would, or null if there is none yet
+     *
+     * @return League
+     */
+    static League getInstanceIfCreated() {
+        LeagueContext context = LeagueContext.current();
+        return (context != null) ? context.getLeague() : instance;
+    }
+
     public static League getInstance(int id, String name) throws SQLException {
         assert instance == null;
         instance = new League(id, name);
+        instance.buildOrLoad();
         return instance;
     }
 
+    /**
+     * Creates a league that is not the program wide one, for a LeagueContext. The context builds or loads it with
+     * buildOrLoad() once it holds the league.
+     */
+    static League create(int id, String name) throws SQLException {
+        return new League(id, name);
+    }
+
     public static int getMaxNumThreads() {
         return MAX_NUM_THREADS;
     }
 
+    /**
+     * Returns the lock that games hold while they read from or write to the shared entities of the league. A game
+     * only holds it to take its snapshots at tip-off and to record its results, never while it is being played.
+     *
+     * @return Object
+     */
+    Object getStateLock() {
+        return stateLock;
+    }
+
+    /**
+     * Returns the latest published snapshot of the league. Never blocks once a snapshot has been published.
+     *
+     * @return LeagueSnapshot
+     */
+    public LeagueSnapshot getSnapshot() {
+        LeagueSnapshot latest = snapshot.get();
+        return (latest != null) ? latest : publishSnapshot();
+    }
+
+    /**
+     * Takes a new snapshot of the league and publishes it to the views. Called after every change the views show,
+     * once it is fully recorded.
+     *
+     * @return LeagueSnapshot: The snapshot that was published
+     */
+    public LeagueSnapshot publishSnapshot() {
+        synchronized (stateLock) {
+            LeagueSnapshot latest = new LeagueSnapshot(this, ++snapshotVersion);
+            snapshot.set(latest);
+            return latest;
+        }
+    }
+
+    /**
+     * Returns the latest advanced metrics of the players and teams. Computes them if they never were.
+     *
+     * @return AdvancedMetrics
+     */
+    public AdvancedMetrics getAdvancedMetrics() {
+        AdvancedMetrics latest = advancedMetrics.get();
+        return (latest != null) ? latest : publishAdvancedMetrics();
+    }
+
+    /**
+     * Computes the advanced metrics of every player and team from their season totals and publishes them to the views,
+     * along with the season distributions of the player stats. Called after every simulated day.
+     *
+     * @return AdvancedMetrics: The metrics that were published
+     */
+    public AdvancedMetrics publishAdvancedMetrics() {
+        synchronized (stateLock) {
+            AdvancedMetrics latest = new AdvancedMetrics(players, teams);
+            advancedMetrics.set(latest);
+            statDistributions.rebuildSeason(players);
+            return latest;
+        }
+    }
+
+    /**
+     * Returns the league leaders of every stat, for players and teams
+     *
+     * @return Leaderboards
+     */
+    public Leaderboards getLeaderboards() {
+        return leaderboards;
+    }
+
+    /**
+     * Returns the index of the games of the league
+     *
+     * @return ScheduleIndex
+     */
+    public ScheduleIndex getScheduleIndex() {
+        return scheduleIndex;
+    }
+
+    /**
+     * Returns the record of every team
+     *
+     * @return Standings
+     */
+    public Standings getStandings() {
+        return standings;
+    }
+
+    /**
+     * Returns the players without a team
+     *
+     * @return FreeAgentPool
+     */
+    public FreeAgentPool getFreeAgentPool() {
+        return freeAgentPool;
+    }
+
+    /**
+     * Returns the player stats of every game played, one row per player per game
+     *
+     * @return StatTable
+     */
+    public StatTable getPlayerStatTable() {
+        return playerStatTable;
+    }
+
+    /**
+     * Returns the team stats of every game played, one row per team per game
+     *
+     * @return StatTable
+     */
+    public StatTable getTeamStatTable() {
+        return teamStatTable;
+    }
+
+    /**
+     * Returns the player stats of every game played in every season, one row per player per game. The finished
+     * seasons are read from the SeasonArchive the first time the history is asked for, and from then on it is kept
+     * up to date as games are recorded, so a league only holds its history in memory once it has been queried.
+     *
+     * @return StatTable
+     */
+    public StatTable getPlayerHistoryTable() {
+        synchronized (stateLock) {
+            loadHistory();
+            return playerHistoryTable;
+        }
+    }
+
+    /**
+     * Returns the team stats of every game played in every season, one row per team per game. Loaded like
+     * getPlayerHistoryTable()
+     *
+     * @return StatTable
+     */
+    public StatTable getTeamHistoryTable() {
+        synchronized (stateLock) {
+            loadHistory();
+            return teamHistoryTable;
+        }
+    }
+
+    /**
+     * Reads the history from the archive and adds the current season, unless it is loaded. Must hold the state lock
+     */
+    private void loadHistory() {
+        if (playerHistoryTable != null)
+            return;
+        StatTable players = new StatTable(PlayerStatTypes.class);
+        StatTable teams = new StatTable(TeamStatTypes.class);
+        SeasonArchive.loadHistory(players, teams);
+        players.appendAll(playerStatTable);
+        teams.appendAll(teamStatTable);
+        playerHistoryTable = players;
+        teamHistoryTable = teams;
+    }
+
+    /**
+     * Appends the stats of a player in a game to the stat table of the season, and to the history if it is loaded.
+     * Must hold the state lock
+     */
+    void appendPlayerStats(int pid, int tid, int gid, int day, int[] stats) {
+        playerStatTable.append(pid, tid, gid, getSeason(), day, stats);
+        if (playerHistoryTable != null)
+            playerHistoryTable.append(pid, tid, gid, getSeason(), day, stats);
+    }
+
+    /**
+     * Appends the stats of a team in a game to the stat table of the season, and to the history if it is loaded.
+     * Must hold the state lock
+     */
+    void appendTeamStats(int tid, int gid, int day, int[] stats) {
+        teamStatTable.append(-1, tid, gid, getSeason(), day, stats);
+        if (teamHistoryTable != null)
+            teamHistoryTable.append(-1, tid, gid, getSeason(), day, stats);
+    }
+
+    /**
+     * Returns the distributions of the player stats, for the percentile of a stat line or season average
+     *
+     * @return StatDistributions
+     */
+    public StatDistributions getStatDistributions() {
+        return statDistributions;
+    }
+
+    /**
+     * Returns the cache of the LeagueFunctions queries
+     *
+     * @return QueryCache
+     */
+    public QueryCache getQueryCache() {
+        return queryCache;
+    }
+
+    /**
+     * Returns a new id for an entity, unique across every entity of the league and across reloads
+     *
+     * @return int
+     */
     public static int getNextUniqueKey() {
-        return getIdCreator().incrementAndGet();
+        return IdAllocator.getInstance().nextId();
     }
 
     private void buildLeague() throws SQLException {
@@ -97,35 +364,176 @@ public class League extends AbstractEntity {
                 getStringProperty("file_path.last_names_csv"));
         cities = getFirstRowFromCSVFile(CoreConfiguration.getInstance().
                 getStringProperty("file_path.cities_csv"));
-        for (int i = 0; i < NUM_PLAYERS; i++)
-            players.add(new Player(getNextUniqueKey(), String.format("%s %s",
-                    getRandomFirstName(), getRandomLastName())));
+        players.addAll(generatePlayers(NUM_PLAYERS, new SplittableRandom(getSeed()), SimulationExecutor.getInstance()));
+        insertAll(players);
+        freeAgentPool.rebuild(players);
         for (int i = 0; i < NUM_TEAMS; i++)
-            teams.add(new Team(getNextUniqueKey(), getRandomCity()));
+            teams.add(Team.createInMemory(getNextUniqueKey(), getRandomCity()));
+        insertAll(teams);
+    }
 
+    /**
+     * Generates new players in memory. The players are split into chunks that are generated in parallel on an
+     * executor, each with its own random generator split from the root in chunk order, so a seed always gives the same
+     * players.
+     *
+     * @param numPlayers int
+     * @param root       SplittableRandom
+     * @param executor   SimulationExecutor: The executor of the league
+     * @return List<Player>: The players, in id order
+     */
+    List<Player> generatePlayers(int numPlayers, SplittableRandom root, SimulationExecutor executor) {
+        int[] ids = new int[numPlayers];
+        for (int i = 0; i < numPlayers; i++)
+            ids[i] = getNextUniqueKey();
+        int numChunks = Math.max(1, Math.min(numPlayers, GENERATION_CHUNKS));
+        SplittableRandom[] randoms = new SplittableRandom[numChunks];
+        for (int chunk = 0; chunk < numChunks; chunk++)
+            randoms[chunk] = root.split();
+        Player[] generated = new Player[numPlayers];
+        try {
+            executor.runChunks(numChunks, chunk -> {
+                SplittableRandom random = randoms[chunk];
+                int start = (int) ((long) numPlayers * chunk / numChunks);
+                int end = (int) ((long) numPlayers * (chunk + 1) / numChunks);
+                for (int i = start; i < end; i++)
+                    generated[i] = new Player(ids[i], String.format("%s %s",
+                            firstNames.get(random.nextInt(firstNames.size())),
+                            lastNames.get(random.nextInt(lastNames.size()))), random);
+                return null;
+            });
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+        return Arrays.asList(generated);
     }
 
+    /**
+     * Loads the league from its tables. Each result set is already on its first row, and sqlite result sets can only
+     * move forward, so every row is read from where the cursor is
+     */
     private void rebuildLeague(ResultSet playerEntries, ResultSet teamEntries, ResultSet gameEntries) throws SQLException {
-        playerEntries.beforeFirst();
-        teamEntries.beforeFirst();
-        gameEntries.beforeFirst();
-        while (playerEntries.next()) {
+        do {
             int pid = playerEntries.getInt("pid");
             String name = playerEntries.getString("name");
             //Reload this player into the players list from the db
             players.add(new Player(pid, name));
-        }
-        while (teamEntries.next()) {
+        } while (playerEntries.next());
+        freeAgentPool.rebuild(players);
+        do {
             int tid = teamEntries.getInt("tid");
             String name = teamEntries.getString("name");
             teams.add(new Team(tid, name));
-        }
-        while (gameEntries.next()) {
+        } while (teamEntries.next());
+        for (Team t : teams)
+            t.restoreRoster(players);
+        do {
             int gid = gameEntries.getInt("gid");
             int homeTeamID = gameEntries.getInt("HOME_TEAM");
             int awayTeamID = gameEntries.getInt("AWAY_TEAM");
+            int day = gameEntries.getInt("DAY");
             games.add(new GameSimulation(getTeam(homeTeamID),
-                    getTeam(awayTeamID), gid));
+                    getTeam(awayTeamID), gid, day));
+        } while (gameEntries.next());
+        scheduleIndex.rebuild(games);
+        standings.rebuild(games);
+        loadStatTotals("player_stats", "pid", PlayerStatTypes.values());
+        loadStatTotals("team_stats", "tid", TeamStatTypes.values());
+        loadOpponentStatTotals();
+        loadStatTable(playerStatTable, "player_stats", "pid", PlayerStatTypes.values());
+        loadStatTable(teamStatTable, "team_stats", "-1", TeamStatTypes.values());
+        statDistributions.rebuild(playerStatTable, players);
+    }
+
+    /**
+     * Rebuilds the season totals of every player or team from a stat table, in a single query over the games that
+     * were played
+     *
+     * @param table    String: player_stats or team_stats
+     * @param idColumn String: pid or tid
+     * @param stats    Enum[]: The stat types of the table
+     */
+    private void loadStatTotals(String table, String idColumn, Enum<?>[] stats) throws SQLException {
+        StringBuilder sql = new StringBuilder("SELECT s." + idColumn + " AS id, COUNT(*) AS games_played");
+        for (Enum<?> stat : stats)
+            sql.append(", SUM(s.").append(stat).append(") AS ").append(stat);
+        sql.append(" FROM ").append(table).append(" s JOIN games g ON s.gid=g.gid WHERE g.")
+                .append(GameAttributes.GAME_CLOCK).append(">=").append(GameEngine.GAME_LENGTH_SECONDS)
+                .append(" GROUP BY s.").append(idColumn);
+        Map<Integer, StatTotals<?>> statTotals = new HashMap<>();
+        if (idColumn.equals("pid"))
+            for (Player p : players)
+                statTotals.put(p.getID(), p.getStatTotals());
+        else
+            for (Team t : teams)
+                statTotals.put(t.getID(), t.getStatTotals());
+        ResultSet rs = DatabaseConnection.getInstance().executeQuery(sql.toString());
+        if (rs == null)
+            return;
+        while (rs.next()) {
+            StatTotals<?> entityTotals = statTotals.get(rs.getInt("id"));
+            if (entityTotals == null)
+                continue;
+            int[] totals = new int[stats.length];
+            for (Enum<?> stat : stats)
+                totals[stat.ordinal()] = rs.getInt(stat.toString());
+            entityTotals.reset(totals, rs.getInt("games_played"));
+        }
+    }
+
+    /**
+     * Rebuilds the season totals of the opponents of every team from the team_stats table, in a single query over the
+     * games that were played
+     */
+    private void loadOpponentStatTotals() throws SQLException {
+        StringBuilder sql = new StringBuilder("SELECT s.tid AS id, COUNT(*) AS games_played");
+        for (TeamStatTypes stat : TeamStatTypes.values())
+            sql.append(", SUM(o.").append(stat).append(") AS ").append(stat);
+        sql.append(" FROM team_stats s JOIN team_stats o ON s.gid=o.gid AND s.tid<>o.tid JOIN games g ON s.gid=g.gid")
+                .append(" WHERE g.").append(GameAttributes.GAME_CLOCK).append(">=")
+                .append(GameEngine.GAME_LENGTH_SECONDS).append(" GROUP BY s.tid");
+        ResultSet rs = DatabaseConnection.getInstance().executeQuery(sql.toString());
+        if (rs == null)
+            return;
+        while (rs.next()) {
+            Team team = getTeam(rs.getInt("id"));
+            if (team == null)
+                continue;
+            int[] totals = new int[TeamStatTypes.values().length];
+            for (TeamStatTypes stat : TeamStatTypes.values())
+                totals[stat.ordinal()] = rs.getInt(stat.toString());
+            team.getOpponentStatTotals().reset(totals, rs.getInt("games_played"));
+        }
+    }
+
+    /**
+     * Fills a stat table from the rows of a stat table in the database of the games that were played, in a single query
+     *
+     * @param statTable StatTable
+     * @param table     String: player_stats or team_stats
+     * @param pidColumn String: The column of the player, or -1 for team stats
+     * @param stats     Enum[]: The stat types of the table
+     */
+    private void loadStatTable(StatTable statTable, String table, String pidColumn, Enum<?>[] stats)
+            throws SQLException {
+        statTable.clear();
+        StringBuilder sql = new StringBuilder("SELECT " + pidColumn + " AS pid, s.tid AS tid, s.gid AS gid, " +
+                "g.DAY AS day");
+        for (Enum<?> stat : stats)
+            sql.append(", s.").append(stat);
+        sql.append(" FROM ").append(table).append(" s JOIN games g ON s.gid=g.gid WHERE g.")
+                .append(GameAttributes.GAME_CLOCK).append(">=").append(GameEngine.GAME_LENGTH_SECONDS)
+                .append(" ORDER BY g.DAY, s.gid");
+        ResultSet rs = DatabaseConnection.getInstance().executeQuery(sql.toString());
+        if (rs == null)
+            return;
+        int[] values = new int[stats.length];
+        while (rs.next()) {
+            for (Enum<?> stat : stats)
+                values[stat.ordinal()] = rs.getInt(stat.toString());
+            statTable.append(rs.getInt("pid"), rs.getInt("tid"), rs.getInt("gid"), getSeason(), rs.getInt("day"),
+                    values);
         }
     }
 
@@ -134,31 +542,97 @@ public class League extends AbstractEntity {
         setEntityAttribute(LeagueAttributes.SALARY_CAP.toString(), CoreConfiguration.getInstance().
                 getIntProperty("league.salary_cap"));
         setEntityAttribute(LeagueAttributes.USER_TEAM.toString(), null);
+        setEntityAttribute(LeagueAttributes.SEED.toString(), new SplittableRandom().nextLong());
+        setEntityAttribute(LeagueAttributes.NEXT_ID.toString(), IdAllocator.getInstance().getHighWaterMark());
+        setEntityAttribute(LeagueAttributes.SEASON.toString(), FIRST_SEASON);
+    }
+
+    public Team getUserTeam() {
+        return getTeam((int) getEntityAttribute(LeagueAttributes.USER_TEAM.toString()));
+    }
+
+    public void setUserTeam(Team userTeam) {
+        setEntityAttribute(LeagueAttributes.USER_TEAM.toString(),
+                userTeam.getID());
     }
 
     /**
-     * @return A random first name
+     * Returns the seed of this league, which every game result is derived from. Leagues saved before the seed existed
+     * are given one the first time it is needed.
+     *
+     * @return long
      */
-    private String getRandomFirstName() {
-        return firstNames.get(
-                Utils.getRandomInteger(firstNames.size() - 1));
+    public long getSeed() {
+        Object seed = getEntityAttribute(LeagueAttributes.SEED.toString());
+        if (seed == null) {
+            seed = new SplittableRandom().nextLong();
+            setEntityAttribute(LeagueAttributes.SEED.toString(), seed);
+        }
+        return ((Number) seed).longValue();
     }
 
     /**
-     * @return a random last name
+     * Returns the seed of the random generator a game is played with. It only depends on the league seed and the id of
+     * the game, so a game played on the same history always has the same outcome no matter which thread plays it or
+     * when.
+     *
+     * @param gid int
+     * @return long
      */
-    private String getRandomLastName() {
-        return lastNames.get(
-                Utils.getRandomInteger(lastNames.size() - 1));
+    public long getGameSeed(int gid) {
+        long z = getSeed() + gid * 0x9e3779b97f4a7c15L;
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return z ^ (z >>> 33);
     }
 
-    public Team getUserTeam() {
-        return getTeam((int) getEntityAttribute(LeagueAttributes.USER_TEAM.toString()));
+    /**
+     * Returns the number of the season being played. Seasons are numbered from 1
+     *
+     * @return int
+     */
+    public int getSeason() {
+        Object season = getEntityAttribute(LeagueAttributes.SEASON.toString());
+        return (season == null) ? FIRST_SEASON : ((Number) season).intValue();
     }
 
-    public void setUserTeam(Team userTeam) {
-        setEntityAttribute(LeagueAttributes.USER_TEAM.toString(),
-                userTeam.getID());
+    /**
+     * Ends the current season and starts the next one with a new round robin schedule. The played games of the season
+     * are compacted into season totals and archived by the SeasonArchive, and every structure that holds the stats of
+     * the season is cleared, so the league in memory and on disk only grows with the current season. Games of the
+     * season that were not played are dropped. The history tables, if they have been loaded, keep the rows of the
+     * season.
+     * <p>
+     * Must not be called while games are being simulated.
+     *
+     * @return boolean: Whether the next season started. If the season could not be archived, nothing changes
+     * @throws InterruptedException  if the calling thread is interrupted while waiting for results to be written
+     * @throws IllegalStateException if results of the season could not be written. Nothing changes
+     */
+    public boolean startNextSeason() throws InterruptedException {
+        // Every result of the season has to be in the database before it is archived
+        PersistenceWriter.getInstance().flush();
+        synchronized (stateLock) {
+            int season = getSeason();
+            if (!SeasonArchive.archiveSeason(season))
+                return false;
+            games.clear();
+            for (Player p : players)
+                p.startNewSeason();
+            for (Team t : teams)
+                t.startNewSeason();
+            scheduleIndex.rebuild(games);
+            standings.rebuild(games);
+            leaderboards.clear();
+            playerStatTable.clear();
+            teamStatTable.clear();
+            statDistributions.rebuild(playerStatTable, players);
+            setEntityAttribute(LeagueAttributes.SEASON.toString(), season + 1);
+            queryCache.invalidateAll();
+        }
+        setupRoundRobinTournament();
+        publishAdvancedMetrics();
+        return true;
     }
 
     private String getRandomCity() {
@@ -172,15 +646,24 @@ public class League extends AbstractEntity {
         return games;
     }
 
+    /**
+     * Returns the number of days that have been scheduled so far. Days are numbered from 0
+     *
+     * @return int
+     */
+    public int getNumDays() {
+        return scheduleIndex.getNumDays();
+    }
+
     public GameSimulation getGame(int gid) {
-        for (GameSimulation g : getGames())
-            if (g.getID() == gid)
-                return g;
-        return null;
+        return scheduleIndex.getGame(gid);
     }
 
     void addGame(GameSimulation game) {
         games.add(game);
+        scheduleIndex.addGame(game);
+        queryCache.advance(game.getHomeTeam());
+        queryCache.advance(game.getAwayTeam());
     }
 
     public List<Team> getTeams() {
@@ -237,10 +720,12 @@ public class League extends AbstractEntity {
 
     /**
      * Sets up a round robin tournament between the teams in the league. Adds each GameSimulation to the list of
-     * games so that they may be simulated later.
+     * games so that they may be simulated later. Every team plays at most once a day, and the days of the tournament
+     * follow the days that were already scheduled.
      */
     public void setupRoundRobinTournament() {
         int numDays = (getNumTeams() - 1);
+        int firstDay = getNumDays();
         List<Team> teams = new LinkedList<>(getTeams());
         Team team0 = teams.remove(0);
         try {
@@ -254,7 +739,7 @@ public class League extends AbstractEntity {
                     p.addPlayerStat(new PlayerStat(p.getID(), team0.getID(), gid));
                 for (Player p : nextTeam.getRoster())
                     p.addPlayerStat(new PlayerStat(p.getID(), nextTeam.getID(), gid));
-                addGame(new GameSimulation(team0, nextTeam, gid));
+                addGame(new GameSimulation(team0, nextTeam, gid, firstDay + day));
                 for (int idx = 1; idx < (getNumTeams() / 2); idx++) {
                     int firstTeam = (day + idx) % teams.size();
                     int secondTeam = (day + teams.size() - idx) % teams.size();
@@ -268,12 +753,13 @@ public class League extends AbstractEntity {
                         p.addPlayerStat(new PlayerStat(p.getID(), t1.getID(), gid));
                     for (Player p : t2.getRoster())
                         p.addPlayerStat(new PlayerStat(p.getID(), t2.getID(), gid));
-                    addGame(new GameSimulation(t1, t2, gid));
+                    addGame(new GameSimulation(t1, t2, gid, firstDay + day));
                 }
             }
         } catch (SQLException e) {
             e.printStackTrace();
         }
+        publishSnapshot();
     }
 
     private List<String> getFirstRowFromCSVFile(String path) {
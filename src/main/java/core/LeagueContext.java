@@ -0,0 +1,207 @@
+package core;
+
+import utilities.DatabaseConnection;
+import utilities.IdAllocator;
+import utilities.PersistenceWriter;
+import utilities.SimulationExecutor;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.function.Supplier;
+
+/**
+ * CS-622
+ * LeagueContext.java
+ * <p>
+ * A LeagueContext owns everything one league needs: the League itself, its database connection, the persistence
+ * writer and id allocator of that connection, and the executor its simulations run on. Several contexts can be open
+ * in one program at once, so many independent leagues can be simulated side by side without starting a new JVM for
+ * each.
+ * <p>
+ * Work for a league runs with its context bound to the thread, through run() or call(). While a context is bound,
+ * League.getInstance(), DatabaseConnection.getInstance() and the other accessors of the league return the ones of that
+ * context, so the rest of the core works unchanged. The SimulationExecutor binds the context of the submitting thread
+ * on its own threads, so games of a league always run in the league they belong to, even on a shared executor. Threads
+ * without a bound context use the program wide league, like the GUI does.
+ * <p>
+ * Every context shares the configuration of config.properties, which CoreConfiguration.getInstance() reads once for
+ * the whole program. The randomness of each league comes from its own league seed. Parallel work of a league, such as
+ * generating its players or predicting a matchup, runs on the executor of its context rather than on the common pool
+ * of parallel streams, whose threads have no context bound.
+ *
+ * @author Andras Palfi apalfi@bu.edu
+ * @version 1.0
+ */
+public final class LeagueContext implements AutoCloseable {
+
+    private static final ThreadLocal<LeagueContext> current = new ThreadLocal<>();
+
+    private final DatabaseConnection database;
+    private final PersistenceWriter persistenceWriter;
+    private final IdAllocator idAllocator;
+    private final SimulationExecutor executor;
+    private final boolean ownsExecutor;
+    private League league;
+
+    private LeagueContext(DatabaseConnection database, SimulationExecutor executor, boolean ownsExecutor) {
+        this.database = database;
+        this.persistenceWriter = PersistenceWriter.create(database);
+        this.idAllocator = IdAllocator.create(database);
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+    }
+
+    /**
+     * Creates a new league in a save file, replacing anything saved in it, with its own executor
+     *
+     * @param saveFilePath String
+     * @param name         String: The name of the league
+     * @return LeagueContext
+     * @throws SQLException if the league cannot be created
+     */
+    public static LeagueContext create(String saveFilePath, String name) throws SQLException {
+        return create(saveFilePath, name, null);
+    }
+
+    /**
+     * Creates a new league in a save file, replacing anything saved in it
+     *
+     * @param saveFilePath String
+     * @param name         String: The name of the league
+     * @param executor     SimulationExecutor: The executor to simulate on, which may be shared with other contexts and
+     *                     stays open when this context is closed. If null, the context creates its own
+     * @return LeagueContext
+     * @throws SQLException if the league cannot be created
+     */
+    public static LeagueContext create(String saveFilePath, String name, SimulationExecutor executor)
+            throws SQLException {
+        LeagueContext context = open(saveFilePath, true, executor);
+        context.initializeLeague(League::getNextUniqueKey, name);
+        return context;
+    }
+
+    /**
+     * Loads the league saved in a save file
+     *
+     * @param saveFilePath String
+     * @param executor     SimulationExecutor: The executor to simulate on, which may be shared with other contexts and
+     *                     stays open when this context is closed. If null, the context creates its own
+     * @return LeagueContext
+     * @throws SQLException if the league cannot be loaded
+     */
+    public static LeagueContext load(String saveFilePath, SimulationExecutor executor) throws SQLException {
+        LeagueContext context = open(saveFilePath, false, executor);
+        ResultSet leagueEntry = context.database.getLeagueEntry();
+        int lid = leagueEntry.getInt("lid");
+        context.initializeLeague(() -> lid, leagueEntry.getString("name"));
+        return context;
+    }
+
+    private static LeagueContext open(String saveFilePath, boolean clear, SimulationExecutor executor) {
+        DatabaseConnection database = DatabaseConnection.open(saveFilePath, clear);
+        return (executor != null) ? new LeagueContext(database, executor, false)
+                : new LeagueContext(database, SimulationExecutor.createConfigured(), true);
+    }
+
+    /**
+     * Creates or reloads the league of this context with the context bound
+     */
+    private void initializeLeague(Supplier<Integer> id, String name) throws SQLException {
+        LeagueContext previous = bind(this);
+        try {
+            league = League.create(id.get(), name);
+            league.buildOrLoad();
+        } finally {
+            bind(previous);
+        }
+    }
+
+    /**
+     * Returns the context bound to the calling thread
+     *
+     * @return LeagueContext, or null if the thread uses the program wide league
+     */
+    public static LeagueContext current() {
+        return current.get();
+    }
+
+    /**
+     * Binds a context to the calling thread. Callers restore the previous context once their work is done.
+     *
+     * @param context LeagueContext: May be null to use the program wide league
+     * @return LeagueContext: The context that was bound before
+     */
+    public static LeagueContext bind(LeagueContext context) {
+        LeagueContext previous = current.get();
+        if (context == null)
+            current.remove();
+        else
+            current.set(context);
+        return previous;
+    }
+
+    /**
+     * Runs some work with this context bound to the calling thread
+     *
+     * @param work Runnable
+     */
+    public void run(Runnable work) {
+        LeagueContext previous = bind(this);
+        try {
+            work.run();
+        } finally {
+            bind(previous);
+        }
+    }
+
+    /**
+     * Runs some work with this context bound to the calling thread and returns its result
+     *
+     * @param work Supplier<T>
+     * @return T
+     */
+    public <T> T call(Supplier<T> work) {
+        LeagueContext previous = bind(this);
+        try {
+            return work.get();
+        } finally {
+            bind(previous);
+        }
+    }
+
+    public League getLeague() {
+        return league;
+    }
+
+    public DatabaseConnection getDatabase() {
+        return database;
+    }
+
+    public PersistenceWriter getPersistenceWriter() {
+        return persistenceWriter;
+    }
+
+    public IdAllocator getIdAllocator() {
+        return idAllocator;
+    }
+
+    public SimulationExecutor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Writes every pending result, stops the threads this context owns and closes its database connection
+     *
+     * @throws InterruptedException if the calling thread is interrupted while the last results are written
+     */
+    @Override
+    public void close() throws InterruptedException {
+        try {
+            persistenceWriter.close();
+        } finally {
+            if (ownsExecutor)
+                executor.shutdown();
+            database.close();
+        }
+    }
+}
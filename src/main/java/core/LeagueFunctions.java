@@ -1,14 +1,15 @@
 package core;
 
 import attributes.PlayerAttributes;
+import attributes.PlayerStatTypes;
+import attributes.TeamStatTypes;
 import utilities.Utils;
 
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * CS-622
@@ -16,6 +17,9 @@ import java.util.List;
  * <p>
  * This class provides static functions to interface with the league data. Essentially it is the API for data queries
  * we can make against the League object
+ * <p>
+ * The results of the queries are memoized by the QueryCache of the league until a write changes them, so views that
+ * refresh between simulations read them from the cache. Lists returned by the queries are shared and cannot be changed.
  *
  * @author Andras Palfi apalfi@bu.edu
  */
@@ -27,10 +31,12 @@ public class LeagueFunctions {
     }
 
     public static List<Player> getBestPlayers() {
-        List<Player> players = new LinkedList<>(League.getInstance().getPlayers());
-        players.sort(Comparator.comparingInt(Player::getOverallPlayerRating));
-        Collections.reverse(players);
-        return players;
+        return getQueryCache().get(() -> {
+            List<Player> players = new ArrayList<>(League.getInstance().getPlayers());
+            players.sort(Comparator.comparingInt(Player::getOverallPlayerRating));
+            Collections.reverse(players);
+            return Collections.unmodifiableList(players);
+        }, "getBestPlayers");
     }
 
     public static List<GameSimulation> getAllGames() {
@@ -38,55 +44,56 @@ public class LeagueFunctions {
     }
 
     public static List<GameSimulation> getAllExpiredGames() {
-        List<GameSimulation> games = new LinkedList<>();
-        for (GameSimulation g : getAllGames())
-            if (g.gameIsOver())
-                games.add(g);
-        return games;
+        return getQueryCache().get(() -> Collections.unmodifiableList(
+                League.getInstance().getScheduleIndex().getPlayedGames()), "getAllExpiredGames");
     }
 
     public static List<GameSimulation> getAllUnplayedGames() {
-        List<GameSimulation> games = new LinkedList<>();
-        List<GameSimulation> expiredGames = getAllExpiredGames();
-        for (GameSimulation g : getAllGames())
-            if (!expiredGames.contains(g))
-                games.add(g);
-        return games;
+        return getQueryCache().get(() -> Collections.unmodifiableList(
+                League.getInstance().getScheduleIndex().getUnplayedGames()), "getAllUnplayedGames");
+    }
+
+    public static List<GameSimulation> getGamesOnDay(int day) {
+        return getQueryCache().get(() -> League.getInstance().getScheduleIndex().getGamesOnDay(day),
+                "getGamesOnDay", day);
     }
 
 
     public static List<GameSimulation> getGamesForTeam(Team team) {
-        List<GameSimulation> games = new ArrayList<>();
-        for (GameSimulation gs : League.getInstance().getGames())
-            if (gs.getHomeTeam() == team || gs.getAwayTeam() == team)
-                games.add(gs);
-        return games;
+        return getQueryCache().getForTeam(team, () -> League.getInstance().getScheduleIndex().getGamesForTeam(team),
+                "getGamesForTeam");
     }
 
     public static List<GameSimulation> getGamesForPlayer(Player player) {
-        List<GameSimulation> games = new LinkedList<>();
-        Team playerTeam = getPlayerTeam(player);
-        for (GameSimulation gs : getAllGames())
-            if (gs.getHomeTeam() == playerTeam || gs.getAwayTeam() == playerTeam)
-                games.add(gs);
-        return games;
+        return getGamesForTeam(getPlayerTeam(player));
     }
 
     public static GameSimulation getNextGameForTeam(Team team) {
-        return getGamesForTeam(team).get(getNumOfGamesPlayedForTeam(team));
+        return getQueryCache().getForTeam(team, () -> League.getInstance().getScheduleIndex().getNextGame(team),
+                "getNextGameForTeam");
     }
 
 
+    /**
+     * Returns every player without a team, from the best overall rating to the worst
+     */
     public static List<Player> getFreeAgents() {
-        List<Player> freeAgents = new LinkedList<>(getBestPlayers());
-        for (Team t : League.getInstance().getTeams())
-            for (Player p : t.getRoster())
-                freeAgents.remove(p);
-        return freeAgents;
+        return getQueryCache().get(() -> Collections.unmodifiableList(
+                League.getInstance().getFreeAgentPool().getAll()), "getFreeAgents");
+    }
+
+    /**
+     * Returns a page of the players without a team, from the best overall rating to the worst
+     *
+     * @param after Player: The last free agent of the previous page, or null for the first page
+     * @param limit int: The most free agents to return
+     */
+    public static List<Player> getFreeAgentPage(Player after, int limit) {
+        return League.getInstance().getFreeAgentPool().getPage(after, limit);
     }
 
     public static Player getBestAvailableFreeAgent() {
-        return (getFreeAgents().size() > 0) ? getFreeAgents().get(0) : null;
+        return League.getInstance().getFreeAgentPool().getBest();
     }
 
     /**
@@ -94,28 +101,18 @@ public class LeagueFunctions {
      * [numWins, numLosses]
      */
     public static int[] getTeamRecord(Team team) {
-        int[] record = new int[2];
-        int numWin = 0, numLoss = 0;
-        for (GameSimulation game : getGamesForTeam(team)) {
-            if (!game.gameIsOver()) {
-                continue;
-            }
-            if (game.getWinner() == team)
-                numWin++;
-            else
-                numLoss++;
-        }
-        record[0] = numWin;
-        record[1] = numLoss;
-        return record;
+        int[] record = getQueryCache().getForTeam(team, () -> {
+            Standings standings = League.getInstance().getStandings();
+            return new int[]{standings.getWins(team), standings.getLosses(team)};
+        }, "getTeamRecord");
+        return record.clone();
     }
 
     /**
      * Returns the number of games a team has played
      */
     public static int getNumOfGamesPlayedForTeam(Team team) {
-        int[] record = getTeamRecord(team);
-        return record[0] + record[1];
+        return League.getInstance().getStandings().getNumGamesPlayed(team);
     }
 
     /**
@@ -124,7 +121,90 @@ public class LeagueFunctions {
      * @return boolean
      */
     public static boolean teamHasNotPlayedGames(Team team) {
-        return Arrays.equals(getTeamRecord(team), new int[]{0, 0});
+        return getNumOfGamesPlayedForTeam(team) == 0;
+    }
+
+    /**
+     * Returns the box score of each team in a game, or nothing if the game has not been played
+     *
+     * @return Map<Integer, double[]>: The stats of each team id, indexed by the ordinal of the TeamStatTypes
+     */
+    public static Map<Integer, double[]> getTeamBoxScores(GameSimulation gs) {
+        // A box score only changes when its game is recorded, which advances the epoch of both teams
+        return getQueryCache().getForTeam(gs.getHomeTeam(), () -> Collections.unmodifiableMap(
+                League.getInstance().getTeamStatTable().query().where(StatTable.Key.GID, gs.getID())
+                        .groupBy(StatTable.Key.TID).aggregateAll(StatQuery.Aggregation.SUM)),
+                "getTeamBoxScores", gs.getID());
+    }
+
+    /**
+     * Returns the box score of each player in a game, or nothing if the game has not been played
+     *
+     * @return Map<Integer, double[]>: The stats of each player id, indexed by the ordinal of the PlayerStatTypes
+     */
+    public static Map<Integer, double[]> getPlayerBoxScores(GameSimulation gs) {
+        return getQueryCache().getForTeam(gs.getHomeTeam(), () -> Collections.unmodifiableMap(
+                League.getInstance().getPlayerStatTable().query().where(StatTable.Key.GID, gs.getID())
+                        .groupBy(StatTable.Key.PID).aggregateAll(StatQuery.Aggregation.SUM)),
+                "getPlayerBoxScores", gs.getID());
+    }
+
+    /**
+     * Returns the average of a stat per game of every team over its games of the last few days that were played
+     *
+     * @param stat    TeamStatTypes
+     * @param numDays int: The number of days, counting back from the last day with a game played
+     * @return Map<Integer, Double>: The average of each team id that played in those days
+     */
+    public static Map<Integer, Double> getTeamAvgStatOverLastDays(TeamStatTypes stat, int numDays) {
+        return getQueryCache().get(() -> {
+            StatTable table = League.getInstance().getTeamStatTable();
+            int last = table.getLastDay();
+            return Collections.unmodifiableMap(table.query().whereBetween(StatTable.Key.DAY, last - numDays + 1, last)
+                    .groupBy(StatTable.Key.TID).aggregate(StatQuery.Aggregation.AVG, stat));
+        }, "getTeamAvgStatOverLastDays", stat, numDays);
+    }
+
+    /**
+     * Returns the average of a stat per game of a team in every season it played, from the history of the league
+     *
+     * @param team Team
+     * @param stat TeamStatTypes
+     * @return Map<Integer, Double>: The average of each season the team played a game in
+     */
+    public static Map<Integer, Double> getTeamAvgStatBySeason(Team team, TeamStatTypes stat) {
+        return getQueryCache().getForTeam(team, () -> Collections.unmodifiableMap(
+                League.getInstance().getTeamHistoryTable().query().where(StatTable.Key.TID, team.getID())
+                        .groupBy(StatTable.Key.SEASON).aggregate(StatQuery.Aggregation.AVG, stat)),
+                "getTeamAvgStatBySeason", stat);
+    }
+
+    /**
+     * Returns the players leading the league in a stat, or in the sum of a few stats such as DRB and ORB
+     *
+     * @param measure        Leaderboards.Measure: Season total or average per game
+     * @param k              int: The number of leaders, at most Leaderboards.MAX_K
+     * @param minGamesPlayed int: Players with fewer games played are left out
+     * @param stats          PlayerStatTypes: The stats to add up
+     * @return List<Leaderboards.Leader<Player>>: The leaders, best first
+     */
+    public static List<Leaderboards.Leader<Player>> getPlayerLeaders(Leaderboards.Measure measure, int k,
+                                                                     int minGamesPlayed, PlayerStatTypes... stats) {
+        return League.getInstance().getLeaderboards().getPlayerLeaders(measure, k, minGamesPlayed, stats);
+    }
+
+    /**
+     * Returns the teams leading the league in a stat, or in the sum of a few stats
+     *
+     * @param measure        Leaderboards.Measure: Season total or average per game
+     * @param k              int: The number of leaders, at most Leaderboards.MAX_K
+     * @param minGamesPlayed int: Teams with fewer games played are left out
+     * @param stats          TeamStatTypes: The stats to add up
+     * @return List<Leaderboards.Leader<Team>>: The leaders, best first
+     */
+    public static List<Leaderboards.Leader<Team>> getTeamLeaders(Leaderboards.Measure measure, int k,
+                                                                 int minGamesPlayed, TeamStatTypes... stats) {
+        return League.getInstance().getLeaderboards().getTeamLeaders(measure, k, minGamesPlayed, stats);
     }
 
     /**
@@ -132,6 +212,15 @@ public class LeagueFunctions {
      */
     public static void simulateGame(GameSimulation gs) {
         gs.simulateGame();
+        League.getInstance().publishSnapshot();
+        League.getInstance().publishAdvancedMetrics();
+    }
+
+    /**
+     * Predict the outcome of a matchup by simulating it numSimulations times without recording anything to the league
+     */
+    public static MatchupPrediction predictMatchup(Team home, Team away, int numSimulations) {
+        return MatchupPredictor.predict(home, away, numSimulations);
     }
 
 
@@ -142,17 +231,33 @@ public class LeagueFunctions {
         Team playerTeam = getPlayerTeam(p);
         assert playerTeam != null;
         playerTeam.removePlayerFromRoster(p);
+        League.getInstance().publishSnapshot();
+    }
+
+    /**
+     * Signs a free agent to a team
+     */
+    public static void signFreeAgent(Team team, Player p) {
+        assert League.getInstance().getFreeAgentPool().contains(p);
+        team.addPlayerToRoster(p);
+        League.getInstance().publishSnapshot();
     }
 
     public static double getLeagueAvgTeamOvrRating() {
-        int count = 0;
-        double avg = 0.0;
-        for (Team t : League.getInstance().getTeams()) {
-            if (t.getRoster().size() <= 0)
-                continue;
-            count++;
-            avg += t.getOverallTeamRating();
-        }
-        return (count == 0) ? avg : Utils.round((avg / count), 2);
+        return getQueryCache().get(() -> {
+            int count = 0;
+            double avg = 0.0;
+            for (Team t : League.getInstance().getTeams()) {
+                if (t.getRoster().size() <= 0)
+                    continue;
+                count++;
+                avg += t.getOverallTeamRating();
+            }
+            return (count == 0) ? avg : Utils.round((avg / count), 2);
+        }, "getLeagueAvgTeamOvrRating");
+    }
+
+    private static QueryCache getQueryCache() {
+        return League.getInstance().getQueryCache();
     }
 }
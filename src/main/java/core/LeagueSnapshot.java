@@ -0,0 +1,282 @@
+package core;
+
+import attributes.PlayerAttributes;
+import attributes.TeamStatTypes;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * CS-622
+ * LeagueSnapshot.java
+ * <p>
+ * A LeagueSnapshot is an immutable copy of what the views of the league show: the standings, the rosters and ratings
+ * of every team, and the schedule with the result of every game played. The League publishes a new snapshot after
+ * every change that matters to the views, such as a finished game, a finished day of a bulk simulation or a roster
+ * move, and views render from the latest one. Reading a snapshot needs no locking, and a snapshot never shows a game
+ * half recorded, however long a simulation runs in the background.
+ *
+ * @author Andras Palfi apalfi@bu.edu
+ * @version 1.0
+ */
+public final class LeagueSnapshot {
+
+    private final long version;
+    private final List<TeamEntry> standings;
+    private final Map<Integer, TeamEntry> teams = new HashMap<>();
+    private final Map<Integer, PlayerEntry> players = new HashMap<>();
+    private final List<GameEntry> games;
+    private final Map<Integer, List<GameEntry>> gamesByTeam = new HashMap<>();
+
+    /**
+     * Copies the state of a league. Must be called while holding the league state lock.
+     *
+     * @param league  League
+     * @param version long: Increases with every snapshot of the league
+     */
+    LeagueSnapshot(League league, long version) {
+        this.version = version;
+        List<GameEntry> gameList = new ArrayList<>(league.getGames().size());
+        Map<Integer, int[]> records = new HashMap<>();
+        for (Team t : league.getTeams()) {
+            records.put(t.getID(), new int[2]);
+            gamesByTeam.put(t.getID(), new ArrayList<>());
+        }
+        for (GameSimulation g : league.getGames()) {
+            GameEntry game = new GameEntry(g);
+            gameList.add(game);
+            gamesByTeam.get(game.homeTid).add(game);
+            gamesByTeam.get(game.awayTid).add(game);
+            if (game.played) {
+                records.get(game.getWinnerID())[0]++;
+                records.get(game.getLoserID())[1]++;
+            }
+        }
+        gameList.sort(Comparator.comparingInt(GameEntry::getDay).thenComparingInt(GameEntry::getID));
+        this.games = Collections.unmodifiableList(gameList);
+        for (Map.Entry<Integer, List<GameEntry>> teamGames : gamesByTeam.entrySet()) {
+            teamGames.getValue().sort(Comparator.comparingInt(GameEntry::getDay).thenComparingInt(GameEntry::getID));
+            teamGames.setValue(Collections.unmodifiableList(teamGames.getValue()));
+        }
+        List<TeamEntry> teamList = new ArrayList<>(league.getNumTeams());
+        for (Team t : league.getTeams()) {
+            TeamEntry team = new TeamEntry(t, records.get(t.getID()));
+            teamList.add(team);
+            teams.put(team.tid, team);
+        }
+        teamList.sort(Comparator.comparingInt(TeamEntry::getWins).reversed()
+                .thenComparingInt(TeamEntry::getLosses).thenComparing(TeamEntry::getName));
+        this.standings = Collections.unmodifiableList(teamList);
+        for (Player p : league.getPlayers())
+            players.put(p.getID(), new PlayerEntry(p));
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * @return List<TeamEntry>: Every team, from the most wins to the fewest
+     */
+    public List<TeamEntry> getStandings() {
+        return standings;
+    }
+
+    public TeamEntry getTeam(int tid) {
+        return teams.get(tid);
+    }
+
+    public PlayerEntry getPlayer(int pid) {
+        return players.get(pid);
+    }
+
+    /**
+     * @return List<GameEntry>: Every scheduled game, in order of day
+     */
+    public List<GameEntry> getGames() {
+        return games;
+    }
+
+    /**
+     * @param tid int
+     * @return List<GameEntry>: The games of a team, in order of day
+     */
+    public List<GameEntry> getGamesForTeam(int tid) {
+        return gamesByTeam.getOrDefault(tid, Collections.emptyList());
+    }
+
+    /**
+     * A team as of the snapshot
+     */
+    public static final class TeamEntry {
+        private final int tid;
+        private final String name;
+        private final int wins;
+        private final int losses;
+        private final double overallRating;
+        private final List<Integer> rankedRoster;
+
+        private TeamEntry(Team team, int[] record) {
+            this.tid = team.getID();
+            this.name = team.getName();
+            this.wins = record[0];
+            this.losses = record[1];
+            this.overallRating = team.getOverallTeamRating();
+            List<Integer> roster = new ArrayList<>();
+            for (Player p : team.getRankedRoster())
+                roster.add(p.getID());
+            this.rankedRoster = Collections.unmodifiableList(roster);
+        }
+
+        public int getID() {
+            return tid;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getWins() {
+            return wins;
+        }
+
+        public int getLosses() {
+            return losses;
+        }
+
+        public int getNumGamesPlayed() {
+            return wins + losses;
+        }
+
+        public double getOverallRating() {
+            return overallRating;
+        }
+
+        /**
+         * @return List<Integer>: The ids of the players on the roster, from the best overall rating to the worst
+         */
+        public List<Integer> getRankedRoster() {
+            return rankedRoster;
+        }
+    }
+
+    /**
+     * A player as of the snapshot
+     */
+    public static final class PlayerEntry {
+        private final int pid;
+        private final String name;
+        private final Integer tid;
+        private final int overallRating;
+
+        private PlayerEntry(Player player) {
+            this.pid = player.getID();
+            this.name = player.getName();
+            Object team = player.getEntityAttribute(PlayerAttributes.TEAM_ID.toString());
+            this.tid = (team == null) ? null : ((Number) team).intValue();
+            this.overallRating = player.getOverallPlayerRating();
+        }
+
+        public int getID() {
+            return pid;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return Integer: The id of the team of the player, or null for a free agent
+         */
+        public Integer getTeamID() {
+            return tid;
+        }
+
+        public int getOverallRating() {
+            return overallRating;
+        }
+    }
+
+    /**
+     * A scheduled game and its result as of the snapshot
+     */
+    public static final class GameEntry {
+        private final int gid;
+        private final int day;
+        private final int homeTid;
+        private final int awayTid;
+        private final String homeName;
+        private final String awayName;
+        private final boolean played;
+        private final int homePoints;
+        private final int awayPoints;
+
+        private GameEntry(GameSimulation game) {
+            this.gid = game.getID();
+            this.day = game.getDay();
+            this.homeTid = game.getHomeTeam().getID();
+            this.awayTid = game.getAwayTeam().getID();
+            this.homeName = game.getHomeTeam().getName();
+            this.awayName = game.getAwayTeam().getName();
+            this.played = game.gameIsOver();
+            this.homePoints = played ? game.getHomeTeamStat(TeamStatTypes.TEAM_PTS) : 0;
+            this.awayPoints = played ? game.getAwayTeamStat(TeamStatTypes.TEAM_PTS) : 0;
+        }
+
+        public int getID() {
+            return gid;
+        }
+
+        public int getDay() {
+            return day;
+        }
+
+        public int getHomeTeamID() {
+            return homeTid;
+        }
+
+        public int getAwayTeamID() {
+            return awayTid;
+        }
+
+        public String getHomeTeamName() {
+            return homeName;
+        }
+
+        public String getAwayTeamName() {
+            return awayName;
+        }
+
+        public boolean isPlayed() {
+            return played;
+        }
+
+        public int getHomePoints() {
+            return homePoints;
+        }
+
+        public int getAwayPoints() {
+            return awayPoints;
+        }
+
+        /**
+         * @return int: The id of the winning team. Only valid for a played game
+         */
+        public int getWinnerID() {
+            assert played;
+            return (homePoints > awayPoints) ? homeTid : awayTid;
+        }
+
+        /**
+         * @return int: The id of the losing team. Only valid for a played game
+         */
+        public int getLoserID() {
+            assert played;
+            return (homePoints > awayPoints) ? awayTid : homeTid;
+        }
+    }
+}
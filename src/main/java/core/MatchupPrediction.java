@@ -0,0 +1,216 @@
+package core;
+
+import attributes.PlayerStatTypes;
+import attributes.TeamStatTypes;
+
+import java.util.Collections;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * CS-622
+ * MatchupPrediction.java
+ * <p>
+ * The MatchupPrediction class holds the outcome of a MatchupPredictor run: how often each team won, the distribution of
+ * the scores and the average box score of each team and player over every simulated game. Intervals are 95% confidence
+ * intervals returned as {low, high}.
+ *
+ * @author Andras Palfi apalfi@bu.edu
+ * @version 1.0
+ */
+public final class MatchupPrediction {
+
+    // z-score of a 95% confidence interval
+    private static final double Z_95 = 1.96;
+
+    private final TeamSnapshot[] teams;
+    private final int numSimulations;
+    private final int homeWins;
+    // Number of games each team scored a given amount of points in: [team][points]
+    private final int[][] scoreCounts;
+    // Number of games that ended with a given margin (home - away), offset by marginOffset
+    private final int[] marginCounts;
+    private final int marginOffset;
+    // Sum and sum of squares of the points of each team, and of the margin
+    private final double[] scoreSums;
+    private final double[] scoreSquareSums;
+    private final double marginSum;
+    private final double marginSquareSum;
+    // Sums of each stat over every game: [team][stat ordinal] and [team][stat ordinal][slot]
+    private final long[][] teamStatSums;
+    private final long[][][] playerStatSums;
+
+    MatchupPrediction(TeamSnapshot[] teams, int numSimulations, int homeWins, int[][] scoreCounts, int[] marginCounts,
+                      int marginOffset, double[] scoreSums, double[] scoreSquareSums, double marginSum,
+                      double marginSquareSum, long[][] teamStatSums, long[][][] playerStatSums) {
+        this.teams = teams;
+        this.numSimulations = numSimulations;
+        this.homeWins = homeWins;
+        this.scoreCounts = scoreCounts;
+        this.marginCounts = marginCounts;
+        this.marginOffset = marginOffset;
+        this.scoreSums = scoreSums;
+        this.scoreSquareSums = scoreSquareSums;
+        this.marginSum = marginSum;
+        this.marginSquareSum = marginSquareSum;
+        this.teamStatSums = teamStatSums;
+        this.playerStatSums = playerStatSums;
+    }
+
+    public Team getHomeTeam() {
+        return teams[GameEngine.HOME].getTeam();
+    }
+
+    public Team getAwayTeam() {
+        return teams[GameEngine.AWAY].getTeam();
+    }
+
+    public int getNumSimulations() {
+        return numSimulations;
+    }
+
+    /**
+     * Returns the probability that a team wins this matchup
+     *
+     * @param team Team: the home or away team
+     * @return double
+     */
+    public double getWinProbability(Team team) {
+        double home = (double) homeWins / numSimulations;
+        return (getTeamIndex(team) == GameEngine.HOME) ? home : 1 - home;
+    }
+
+    /**
+     * Returns the 95% confidence interval of the win probability of a team, using the Wilson score interval so that
+     * lopsided matchups do not produce an interval outside of [0, 1]
+     *
+     * @param team Team: the home or away team
+     * @return double[] {low, high}
+     */
+    public double[] getWinProbabilityInterval(Team team) {
+        double p = getWinProbability(team);
+        double n = numSimulations;
+        double z2 = Z_95 * Z_95;
+        double center = (p + z2 / (2 * n)) / (1 + z2 / n);
+        double halfWidth = (Z_95 / (1 + z2 / n)) * Math.sqrt(p * (1 - p) / n + z2 / (4 * n * n));
+        return new double[]{Math.max(0, center - halfWidth), Math.min(1, center + halfWidth)};
+    }
+
+    /**
+     * Returns the average points scored by a team
+     *
+     * @param team Team: the home or away team
+     * @return double
+     */
+    public double getMeanScore(Team team) {
+        return scoreSums[getTeamIndex(team)] / numSimulations;
+    }
+
+    /**
+     * Returns the 95% confidence interval of the average points scored by a team
+     *
+     * @param team Team: the home or away team
+     * @return double[] {low, high}
+     */
+    public double[] getMeanScoreInterval(Team team) {
+        int index = getTeamIndex(team);
+        return getMeanInterval(scoreSums[index], scoreSquareSums[index]);
+    }
+
+    /**
+     * Returns the average margin of victory of the home team. Negative if the away team is favored
+     *
+     * @return double
+     */
+    public double getMeanMargin() {
+        return marginSum / numSimulations;
+    }
+
+    /**
+     * Returns the 95% confidence interval of the average margin of victory of the home team
+     *
+     * @return double[] {low, high}
+     */
+    public double[] getMeanMarginInterval() {
+        return getMeanInterval(marginSum, marginSquareSum);
+    }
+
+    /**
+     * Returns the distribution of the points scored by a team, as a map of points to the share of games the team
+     * scored exactly that many points in
+     *
+     * @param team Team: the home or away team
+     * @return SortedMap<Integer, Double>
+     */
+    public SortedMap<Integer, Double> getScoreDistribution(Team team) {
+        return toDistribution(scoreCounts[getTeamIndex(team)], 0);
+    }
+
+    /**
+     * Returns the distribution of the margin of victory of the home team, as a map of margin to the share of games that
+     * ended with exactly that margin
+     *
+     * @return SortedMap<Integer, Double>
+     */
+    public SortedMap<Integer, Double> getMarginDistribution() {
+        return toDistribution(marginCounts, marginOffset);
+    }
+
+    /**
+     * Returns the average value of a team stat per game
+     *
+     * @param team Team: the home or away team
+     * @param stat TeamStatTypes
+     * @return double
+     */
+    public double getMeanTeamStat(Team team, TeamStatTypes stat) {
+        return (double) teamStatSums[getTeamIndex(team)][stat.ordinal()] / numSimulations;
+    }
+
+    /**
+     * Returns the average value of a player stat per game, or 0 if the player is not on either roster
+     *
+     * @param player Player
+     * @param stat   PlayerStatTypes
+     * @return double
+     */
+    public double getMeanPlayerStat(Player player, PlayerStatTypes stat) {
+        for (int team = GameEngine.HOME; team <= GameEngine.AWAY; team++) {
+            int slot = teams[team].getSlot(player);
+            if (slot >= 0)
+                return (double) playerStatSums[team][stat.ordinal()][slot] / numSimulations;
+        }
+        return 0;
+    }
+
+    private int getTeamIndex(Team team) {
+        if (team == getHomeTeam())
+            return GameEngine.HOME;
+        else if (team == getAwayTeam())
+            return GameEngine.AWAY;
+        throw new IllegalArgumentException("Team " + team.getName() + " is not part of this matchup");
+    }
+
+    private double[] getMeanInterval(double sum, double squareSum) {
+        double mean = sum / numSimulations;
+        double variance = (numSimulations > 1) ?
+                Math.max(0, (squareSum - numSimulations * mean * mean) / (numSimulations - 1)) : 0;
+        double halfWidth = Z_95 * Math.sqrt(variance / numSimulations);
+        return new double[]{mean - halfWidth, mean + halfWidth};
+    }
+
+    private SortedMap<Integer, Double> toDistribution(int[] counts, int offset) {
+        SortedMap<Integer, Double> distribution = new TreeMap<>();
+        for (int i = 0; i < counts.length; i++)
+            if (counts[i] > 0)
+                distribution.put(i - offset, (double) counts[i] / numSimulations);
+        return Collections.unmodifiableSortedMap(distribution);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s %.1f%% (%.1f) vs %s %.1f%% (%.1f) over %d simulations", getHomeTeam().getName(),
+                getWinProbability(getHomeTeam()) * 100, getMeanScore(getHomeTeam()), getAwayTeam().getName(),
+                getWinProbability(getAwayTeam()) * 100, getMeanScore(getAwayTeam()), numSimulations);
+    }
+}
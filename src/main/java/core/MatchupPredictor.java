@@ -0,0 +1,185 @@
+package core;
+
+import attributes.PlayerStatTypes;
+import attributes.TeamStatTypes;
+
+import utilities.SimulationExecutor;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * CS-622
+ * MatchupPredictor.java
+ * <p>
+ * The MatchupPredictor class plays a matchup between two teams many times over and summarizes the results as a
+ * MatchupPrediction. Every simulation runs on its own GameEngine over snapshots of both teams that are taken once up
+ * front, so nothing is written to the teams, their players or the database.
+ * <p>
+ * The simulations are split into chunks that run in parallel on the SimulationExecutor of the league. Each chunk gets its own random generator split from a
+ * single root generator in chunk order. The number of chunks is fixed rather than derived from the number of threads,
+ * so the same seed always gives the same prediction on any machine and no matter how the chunks are scheduled.
+ *
+ * @author Andras Palfi apalfi@bu.edu
+ * @version 1.0
+ */
+public final class MatchupPredictor {
+
+    // Number of chunks to split the simulations into. Enough to keep every thread busy when the chunks are uneven
+    private static final int NUM_CHUNKS = 64;
+
+    private MatchupPredictor() {
+    }
+
+    /**
+     * Predicts the outcome of a matchup by simulating it a number of times
+     *
+     * @param home           Team: The home team
+     * @param away           Team: The away team
+     * @param numSimulations int: The amount of games to simulate
+     * @return MatchupPrediction
+     */
+    public static MatchupPrediction predict(Team home, Team away, int numSimulations) {
+        return predict(home, away, numSimulations, new SplittableRandom().nextLong());
+    }
+
+    /**
+     * Predicts the outcome of a matchup by simulating it a number of times. The same seed always gives the same
+     * prediction for teams that have not changed.
+     *
+     * @param home           Team: The home team
+     * @param away           Team: The away team
+     * @param numSimulations int: The amount of games to simulate
+     * @param seed           long: The seed of the random generator
+     * @return MatchupPrediction
+     */
+    public static MatchupPrediction predict(Team home, Team away, int numSimulations, long seed) {
+        if (numSimulations <= 0)
+            throw new IllegalArgumentException("The number of simulations must be positive: " + numSimulations);
+        TeamSnapshot[] teams = {new TeamSnapshot(home), new TeamSnapshot(away)};
+        int numChunks = Math.min(numSimulations, NUM_CHUNKS);
+        SplittableRandom root = new SplittableRandom(seed);
+        SplittableRandom[] randoms = new SplittableRandom[numChunks];
+        for (int chunk = 0; chunk < numChunks; chunk++)
+            randoms[chunk] = root.split();
+        List<Accumulator> chunks;
+        try {
+            chunks = SimulationExecutor.getInstance().runChunks(numChunks, chunk -> {
+                Accumulator acc = new Accumulator(teams);
+                int start = (int) ((long) numSimulations * chunk / numChunks);
+                int end = (int) ((long) numSimulations * (chunk + 1) / numChunks);
+                for (int i = start; i < end; i++) {
+                    GameEngine engine = new GameEngine(teams[GameEngine.HOME], teams[GameEngine.AWAY],
+                            randoms[chunk], false);
+                    engine.simulate();
+                    acc.add(engine);
+                }
+                return acc;
+            });
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+        Accumulator total = chunks.get(0);
+        for (Accumulator acc : chunks.subList(1, chunks.size()))
+            total = total.merge(acc);
+        return total.toPrediction();
+    }
+
+    /**
+     * Running totals of a set of simulated games. An Accumulator is only ever touched by one thread until it is merged.
+     */
+    private static final class Accumulator {
+        private final TeamSnapshot[] teams;
+        private int numSimulations = 0;
+        private int homeWins = 0;
+        private int[][] scoreCounts = new int[2][0];
+        // Margins are stored offset by marginOffset so that negative margins fit in the array
+        private int[] marginCounts = new int[0];
+        private int marginOffset = 0;
+        private final double[] scoreSums = new double[2];
+        private final double[] scoreSquareSums = new double[2];
+        private double marginSum = 0;
+        private double marginSquareSum = 0;
+        private final long[][] teamStatSums;
+        private final long[][][] playerStatSums;
+
+        Accumulator(TeamSnapshot[] teams) {
+            this.teams = teams;
+            this.teamStatSums = new long[2][TeamStatTypes.values().length];
+            this.playerStatSums = new long[2][PlayerStatTypes.values().length][];
+            for (int team = GameEngine.HOME; team <= GameEngine.AWAY; team++)
+                for (int stat = 0; stat < PlayerStatTypes.values().length; stat++)
+                    playerStatSums[team][stat] = new long[teams[team].getRosterSize()];
+        }
+
+        void add(GameEngine engine) {
+            numSimulations++;
+            if (engine.getWinner() == GameEngine.HOME)
+                homeWins++;
+            int[] scores = new int[2];
+            for (int team = GameEngine.HOME; team <= GameEngine.AWAY; team++) {
+                for (TeamStatTypes stat : TeamStatTypes.values())
+                    teamStatSums[team][stat.ordinal()] += engine.getTeamStat(team, stat);
+                for (PlayerStatTypes stat : PlayerStatTypes.values())
+                    for (int slot = 0; slot < teams[team].getRosterSize(); slot++)
+                        playerStatSums[team][stat.ordinal()][slot] += engine.getPlayerStat(team, slot, stat);
+                scores[team] = engine.getTeamStat(team, TeamStatTypes.TEAM_PTS);
+                scoreSums[team] += scores[team];
+                scoreSquareSums[team] += (double) scores[team] * scores[team];
+                scoreCounts[team] = ensureCapacity(scoreCounts[team], scores[team] + 1);
+                scoreCounts[team][scores[team]]++;
+            }
+            int margin = scores[GameEngine.HOME] - scores[GameEngine.AWAY];
+            marginSum += margin;
+            marginSquareSum += (double) margin * margin;
+            addMargin(margin, 1);
+        }
+
+        Accumulator merge(Accumulator other) {
+            numSimulations += other.numSimulations;
+            homeWins += other.homeWins;
+            for (int team = GameEngine.HOME; team <= GameEngine.AWAY; team++) {
+                scoreCounts[team] = ensureCapacity(scoreCounts[team], other.scoreCounts[team].length);
+                for (int points = 0; points < other.scoreCounts[team].length; points++)
+                    scoreCounts[team][points] += other.scoreCounts[team][points];
+                scoreSums[team] += other.scoreSums[team];
+                scoreSquareSums[team] += other.scoreSquareSums[team];
+                for (int stat = 0; stat < teamStatSums[team].length; stat++)
+                    teamStatSums[team][stat] += other.teamStatSums[team][stat];
+                for (int stat = 0; stat < playerStatSums[team].length; stat++)
+                    for (int slot = 0; slot < playerStatSums[team][stat].length; slot++)
+                        playerStatSums[team][stat][slot] += other.playerStatSums[team][stat][slot];
+            }
+            for (int i = 0; i < other.marginCounts.length; i++)
+                if (other.marginCounts[i] > 0)
+                    addMargin(i - other.marginOffset, other.marginCounts[i]);
+            marginSum += other.marginSum;
+            marginSquareSum += other.marginSquareSum;
+            return this;
+        }
+
+        private void addMargin(int margin, int count) {
+            if (margin + marginOffset < 0) {
+                // Grow the array to the left so that the new margin fits, keeping the existing counts in place
+                int shift = -(margin + marginOffset);
+                int[] grown = new int[marginCounts.length + shift];
+                System.arraycopy(marginCounts, 0, grown, shift, marginCounts.length);
+                marginCounts = grown;
+                marginOffset += shift;
+            }
+            marginCounts = ensureCapacity(marginCounts, margin + marginOffset + 1);
+            marginCounts[margin + marginOffset] += count;
+        }
+
+        private static int[] ensureCapacity(int[] counts, int length) {
+            return (counts.length >= length) ? counts : Arrays.copyOf(counts, length);
+        }
+
+        MatchupPrediction toPrediction() {
+            return new MatchupPrediction(teams, numSimulations, homeWins, scoreCounts, marginCounts, marginOffset,
+                    scoreSums, scoreSquareSums, marginSum, marginSquareSum, teamStatSums, playerStatSums);
+        }
+    }
+}
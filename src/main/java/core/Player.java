@@ -9,9 +9,11 @@ import utilities.Utils;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.SplittableRandom;
 
 /**
  * CS-622
@@ -28,6 +30,8 @@ public class Player extends AbstractEntity {
             PlayerAttributes.SALARY_AMOUNT, PlayerAttributes.SALARY_LENGTH, PlayerAttributes.TEAM_ID);
     // List of stats achieved by this player
     private List<PlayerStat> playerStats = new LinkedList<>();
+    // Season totals of the games played, kept up to date as games finish
+    private final StatTotals<PlayerStatTypes> statTotals = new StatTotals<>(PlayerStatTypes.class);
 
 
     public Player(int id, String name) throws SQLException {
@@ -40,6 +44,40 @@ public class Player extends AbstractEntity {
         }
     }
 
+    /**
+     * Creates a new player with random attributes in memory only. Its row has to be written with insertAll() before
+     * any of its attributes change.
+     *
+     * @param id     int
+     * @param name   String
+     * @param random SplittableRandom: The source of the attributes, must not be shared with another thread
+     */
+    Player(int id, String name, SplittableRandom random) {
+        super(createIDMap(EntityType.PLAYER, id), name, "players", generateAttributes(random));
+    }
+
+    /**
+     * Generates the random attributes of a new player: full energy, no salary or team, an age from 18 to 40 and
+     * ratings from 0.4 to 1
+     */
+    private static Map<String, Object> generateAttributes(SplittableRandom random) {
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        for (PlayerAttributes a : PlayerAttributes.values()) {
+            String attribute = a.toString();
+            if (attribute.equals("ENERGY"))
+                attributes.put(attribute, 1.0);
+            else if (attribute.equals("AGE"))
+                attributes.put(attribute, Utils.round(18 + 22 * random.nextDouble(), 2));
+            else if (attribute.contains("SALARY"))
+                attributes.put(attribute, 0);
+            else if (attribute.equals("TEAM_ID"))
+                attributes.put(attribute, null);
+            else
+                attributes.put(attribute, Utils.round(0.4 + 0.6 * random.nextDouble(), 2));
+        }
+        return attributes;
+    }
+
     /**
      * Returns the over rating of this players, which is the avg of all of its attributes
      */
@@ -67,7 +105,7 @@ public class Player extends AbstractEntity {
 
     public PlayerStat getPlayerStat(int gid) {
         for (PlayerStat stat : getPlayerStats())
-            if (stat.getID() == gid)
+            if (stat.getIDS().get("gid") == gid)
                 return stat;
         return null;
     }
@@ -77,32 +115,49 @@ public class Player extends AbstractEntity {
         playerStats.add(stat);
     }
 
+    StatTotals<PlayerStatTypes> getStatTotals() {
+        return statTotals;
+    }
+
+    /**
+     * Clears the stats of the finished season, which are kept by the SeasonArchive
+     */
+    void startNewSeason() {
+        playerStats.clear();
+        statTotals.reset(new int[PlayerStatTypes.values().length], 0);
+    }
+
+    /**
+     * Returns the average of a stat per game played this season, or 0 if the player has not played yet
+     */
     public double getAvgValueOfPlayerStat(PlayerStatTypes statType) {
-        return getSumOfPlayerStat(statType) / getPlayerStats().size();
+        return statTotals.getAverage(statType);
     }
 
     public int getSumOfPlayerStat(PlayerStatTypes statType) {
-        int sum = 0;
-        for (PlayerStat stat : getPlayerStats())
-            sum += (int) stat.getEntityAttribute(statType.toString());
-        return sum;
+        return statTotals.getTotal(statType);
+    }
+
+    public int getNumGamesPlayed() {
+        return statTotals.getGamesPlayed();
     }
 
     @Override
     public void initializeAttributes() {
-        for (String attribute : getAttributeNames()) {
-            if (attribute.equals("ENERGY"))
-                setEntityAttribute(attribute, 1.0);
-            else if (attribute.equals("AGE"))
-                setEntityAttribute(attribute, Utils.getRandomDouble(18, 40));
-            else if (attribute.contains("SALARY"))
-                setEntityAttribute(attribute, 0);
-            else if (attribute.equals("TEAM_ID"))
-                setEntityAttribute(attribute, null);
-            else
-                setEntityAttribute(attribute, Utils.getRandomDouble());
+        for (Map.Entry<String, Object> attribute : generateAttributes(new SplittableRandom()).entrySet())
+            setEntityAttribute(attribute.getKey(), attribute.getValue());
+    }
 
-        }
+    /**
+     * The TEAM_ID column is real like the other attributes, but the team of a player is its int id, or null for a
+     * free agent
+     */
+    @Override
+    Object readColumnValue(ResultSet resultSet, String attribute) throws SQLException {
+        if (!attribute.equals(PlayerAttributes.TEAM_ID.toString()))
+            return super.readColumnValue(resultSet, attribute);
+        int tid = resultSet.getInt(attribute);
+        return resultSet.wasNull() ? null : tid;
     }
 
     @Override
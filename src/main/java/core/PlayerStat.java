@@ -1,10 +1,12 @@
 package core;
 
+import attributes.PlayerStatTypes;
 import utilities.DatabaseConnection;
 
-import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * MET CS 622
@@ -18,22 +20,47 @@ import java.sql.SQLException;
 public class PlayerStat extends AbstractEntity {
 
     PlayerStat(int pid, int tid, int gid) throws SQLException {
-        super(createIDMap(EntityType.PLAYER_STAT, pid, tid, gid),
-                String.format("Player %d Stats playing for Team %d in Game %d", pid, tid, gid), "player_stats");
+        super(createIDMap(EntityType.PLAYER_STAT, pid, tid, gid), createName(pid, tid, gid), "player_stats");
 
     }
 
+    private PlayerStat(int pid, int tid, int gid, Map<String, Object> attributes) {
+        super(createIDMap(EntityType.PLAYER_STAT, pid, tid, gid), createName(pid, tid, gid), "player_stats",
+                attributes);
+    }
+
+    /**
+     * Creates a stat line with every stat at 0 in memory only, for a player who joined the roster of a team after
+     * its game was scheduled. Its row is inserted by the GameResult of the game.
+     *
+     * @param pid int
+     * @param tid int
+     * @param gid int
+     * @return PlayerStat
+     */
+    static PlayerStat createInMemory(int pid, int tid, int gid) {
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        for (PlayerStatTypes stat : PlayerStatTypes.values())
+            attributes.put(stat.toString(), 0);
+        return new PlayerStat(pid, tid, gid, attributes);
+    }
+
+    static String createName(int pid, int tid, int gid) {
+        return String.format("Player %d Stats playing for Team %d in Game %d", pid, tid, gid);
+    }
+
 
     @Override
     public void createEntityInDatabase() {
         String sql = "INSERT INTO " + tableName + "(pid,tid,gid,name) VALUES(?,?,?,?)";
-        PreparedStatement statement = DatabaseConnection.getInstance().getBlankPreparedStatement(sql);
         try {
-            statement.setInt(1, getIDS().get("pid"));
-            statement.setInt(2, getIDS().get("tid"));
-            statement.setInt(3, getIDS().get("gid"));
-            statement.setString(4, getName());
-            statement.execute();
+            DatabaseConnection.getInstance().executeStatement(sql, statement -> {
+                statement.setInt(1, getIDS().get("pid"));
+                statement.setInt(2, getIDS().get("tid"));
+                statement.setInt(3, getIDS().get("gid"));
+                statement.setString(4, getName());
+                statement.execute();
+            });
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -47,6 +74,14 @@ public class PlayerStat extends AbstractEntity {
                         + " AND gid=" + getIDS().get("gid") + " AND pid=" + getIDS().get("pid"));
     }
 
+    /**
+     * The stat columns are real, but the stats are counted as ints
+     */
+    @Override
+    Object readColumnValue(ResultSet resultSet, String attribute) throws SQLException {
+        return resultSet.getInt(attribute);
+    }
+
     @Override
     public void initializeAttributes() {
         for (String attribute : getAttributeNames())
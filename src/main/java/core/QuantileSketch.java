@@ -0,0 +1,185 @@
+package core;
+
+import java.util.Arrays;
+
+/**
+ * CS-622
+ * QuantileSketch.java
+ * <p>
+ * A QuantileSketch summarizes a stream of values in a bounded amount of memory, so the rank of a value and the value
+ * at a quantile are found without keeping every value. It is a KLL sketch: the values are kept in levels, a value in
+ * level h standing for 2^h values of the stream. When the sketch is full the lowest full level is sorted and every
+ * other value of it is moved up a level, and higher levels are allowed to hold fewer values than lower ones. Ranks are
+ * within about 1.65 / k of the true rank.
+ * <p>
+ * Compactions alternate between keeping the odd and the even values instead of choosing at random, so the same stream
+ * always gives the same sketch. A sketch is not thread safe.
+ *
+ * @author Andras Palfi apalfi@bu.edu
+ * @version 1.0
+ */
+final class QuantileSketch {
+
+    // How much smaller each level is allowed to be than the level below it
+    private static final double LEVEL_RATIO = 2.0 / 3.0;
+    private static final int MIN_LEVEL_CAPACITY = 2;
+
+    private final int k;
+    // Indexed by level, then by position. Only the first sizes[h] values of a level are used
+    private double[][] levels = new double[1][];
+    private int[] sizes = new int[1];
+    private long count = 0;
+    private boolean keepOdd = false;
+
+    /**
+     * @param k int: The capacity of the top level. Larger sketches are more accurate
+     */
+    QuantileSketch(int k) {
+        assert k >= MIN_LEVEL_CAPACITY;
+        this.k = k;
+        levels[0] = new double[k];
+    }
+
+    /**
+     * Adds a value to the stream
+     *
+     * @param value double
+     */
+    void update(double value) {
+        append(0, value);
+        count++;
+        compress();
+    }
+
+    /**
+     * Removes every value
+     */
+    void clear() {
+        levels = new double[1][];
+        levels[0] = new double[k];
+        sizes = new int[1];
+        count = 0;
+    }
+
+    /**
+     * @return long: The number of values in the stream
+     */
+    long getCount() {
+        return count;
+    }
+
+    /**
+     * Estimates how many values of the stream are below a value
+     *
+     * @param value     double
+     * @param inclusive boolean: Whether to count the values equal to it
+     * @return long
+     */
+    long getRank(double value, boolean inclusive) {
+        long rank = 0;
+        for (int h = 0; h < levels.length; h++) {
+            long weight = 1L << h;
+            for (int i = 0; i < sizes[h]; i++) {
+                double v = levels[h][i];
+                if (v < value || (inclusive && v == value))
+                    rank += weight;
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * Estimates the value at a quantile of the stream
+     *
+     * @param quantile double: From 0 to 1
+     * @return double, or 0 if the stream is empty
+     */
+    double getQuantile(double quantile) {
+        if (count == 0)
+            return 0.0;
+        int retained = 0;
+        for (int size : sizes)
+            retained += size;
+        // The values are sorted through their positions, so each keeps the weight of its level
+        double[] values = new double[retained];
+        long[] weights = new long[retained];
+        Integer[] order = new Integer[retained];
+        int n = 0;
+        for (int h = 0; h < levels.length; h++) {
+            for (int i = 0; i < sizes[h]; i++) {
+                values[n] = levels[h][i];
+                weights[n] = 1L << h;
+                order[n] = n;
+                n++;
+            }
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(values[a], values[b]));
+        long target = (long) Math.ceil(Math.max(0.0, Math.min(1.0, quantile)) * count);
+        long cumulative = 0;
+        for (int i : order) {
+            cumulative += weights[i];
+            if (cumulative >= target)
+                return values[i];
+        }
+        return values[order[retained - 1]];
+    }
+
+    private void append(int level, double value) {
+        while (levels.length <= level) {
+            levels = Arrays.copyOf(levels, levels.length + 1);
+            sizes = Arrays.copyOf(sizes, sizes.length + 1);
+            levels[levels.length - 1] = new double[capacity(levels.length - 1)];
+        }
+        if (sizes[level] == levels[level].length)
+            levels[level] = Arrays.copyOf(levels[level], Math.max(MIN_LEVEL_CAPACITY, sizes[level] * 2));
+        levels[level][sizes[level]++] = value;
+    }
+
+    /**
+     * The number of values a level may hold before it is compacted. The top level holds k, and each level below it
+     * holds LEVEL_RATIO times as many as the one above.
+     */
+    private int capacity(int level) {
+        int depth = levels.length - 1 - level;
+        return Math.max(MIN_LEVEL_CAPACITY, (int) Math.ceil(k * Math.pow(LEVEL_RATIO, depth)));
+    }
+
+    /**
+     * Compacts the lowest full level until the sketch holds no more values than all its levels allow
+     */
+    private void compress() {
+        while (true) {
+            int retained = 0;
+            int total = 0;
+            int full = -1;
+            for (int h = 0; h < levels.length; h++) {
+                retained += sizes[h];
+                total += capacity(h);
+                if (full < 0 && sizes[h] >= capacity(h))
+                    full = h;
+            }
+            if (retained <= total || full < 0)
+                return;
+            compact(full);
+        }
+    }
+
+    /**
+     * Sorts a level and moves every other value of it up a level, where each stands for twice as many values. With an
+     * odd number of values, the largest stays behind so no weight is lost.
+     */
+    private void compact(int level) {
+        double[] values = levels[level];
+        int size = sizes[level];
+        Arrays.sort(values, 0, size);
+        int pairs = size / 2;
+        int offset = keepOdd ? 1 : 0;
+        keepOdd = !keepOdd;
+        for (int i = 0; i < pairs; i++)
+            append(level + 1, values[2 * i + offset]);
+        // append() may have added a level and replaced the arrays, but not the values of this one
+        if (size % 2 == 1)
+            levels[level][0] = values[size - 1];
+        sizes[level] = size % 2;
+    }
+}
@@ -0,0 +1,176 @@
+package core;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * CS-622
+ * QueryCache.java
+ * <p>
+ * The QueryCache memoizes the read queries of LeagueFunctions, keyed by the query and its arguments. Every result is
+ * stored with the epoch it was computed at, and is used again until that epoch advances:
+ * <ul>
+ *     <li>The league epoch advances on every write: a game that is recorded or scheduled, a roster change, or a change
+ *     to an attribute of a player or team</li>
+ *     <li>The epoch of a team advances when one of its games is recorded or scheduled, so the schedule and record of
+ *     one team stay cached while the rest of the league plays</li>
+ * </ul>
+ * A result is stored with the epoch read before it was computed, so a write that happens while it is computed makes
+ * the next read compute it again. Cached results are shared between callers and must not be changed.
+ * <p>
+ * A stale result is dropped when it is read. Results that are never read again, such as the box scores of old games,
+ * are swept out when the cache has grown to twice the size it had after the last sweep.
+ *
+ * @author Andras Palfi apalfi@bu.edu
+ * @version 1.0
+ */
+public final class QueryCache {
+
+    private static final int MIN_SWEEP_SIZE = 1024;
+
+    private final int minSweepSize;
+    private final AtomicInteger sweepSize;
+    private final AtomicLong leagueEpoch = new AtomicLong();
+    private final Map<Integer, AtomicLong> teamEpochs = new ConcurrentHashMap<>();
+    private final Map<List<Object>, Entry> entries = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    QueryCache() {
+        this(MIN_SWEEP_SIZE);
+    }
+
+    /**
+     * @param minSweepSize int: The number of entries the cache holds before it is first swept
+     */
+    QueryCache(int minSweepSize) {
+        this.minSweepSize = minSweepSize;
+        this.sweepSize = new AtomicInteger(minSweepSize);
+    }
+
+    /**
+     * Advances the league epoch, after a write that changes what league wide queries return
+     */
+    void advance() {
+        leagueEpoch.incrementAndGet();
+    }
+
+    /**
+     * Advances the epoch of a team and the league epoch, after a write to the schedule or results of the team
+     *
+     * @param team Team
+     */
+    void advance(Team team) {
+        getTeamEpoch(team.getID()).incrementAndGet();
+        leagueEpoch.incrementAndGet();
+    }
+
+    /**
+     * Drops every cached result, for when the whole league changes at once such as at the start of a season
+     */
+    void invalidateAll() {
+        entries.clear();
+        for (AtomicLong epoch : teamEpochs.values())
+            epoch.incrementAndGet();
+        leagueEpoch.incrementAndGet();
+    }
+
+    private AtomicLong getTeamEpoch(int tid) {
+        return teamEpochs.computeIfAbsent(tid, id -> new AtomicLong());
+    }
+
+    /**
+     * Returns the result of a query that depends on the whole league
+     *
+     * @param compute Supplier: Computes the result when it is not cached
+     * @param query   String: The name of the query
+     * @param args    Object[]: The arguments of the query. Entities are passed by id
+     * @return T
+     */
+    <T> T get(Supplier<T> compute, String query, Object... args) {
+        return get(leagueEpoch, compute, query, args);
+    }
+
+    /**
+     * Returns the result of a query that only depends on the schedule and results of one team
+     *
+     * @param team    Team
+     * @param compute Supplier: Computes the result when it is not cached
+     * @param query   String: The name of the query
+     * @param args    Object[]: The other arguments of the query. Entities are passed by id
+     * @return T
+     */
+    <T> T getForTeam(Team team, Supplier<T> compute, String query, Object... args) {
+        Object[] keyArgs = Arrays.copyOf(args, args.length + 1);
+        keyArgs[args.length] = team.getID();
+        return get(getTeamEpoch(team.getID()), compute, query, keyArgs);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T get(AtomicLong epoch, Supplier<T> compute, String query, Object[] args) {
+        Object[] key = new Object[args.length + 1];
+        key[0] = query;
+        System.arraycopy(args, 0, key, 1, args.length);
+        List<Object> keyList = Arrays.asList(key);
+        long current = epoch.get();
+        Entry entry = entries.get(keyList);
+        if (entry != null) {
+            if (entry.epoch == current) {
+                hits.increment();
+                return (T) entry.value;
+            }
+            entries.remove(keyList, entry);
+        }
+        misses.increment();
+        T value = compute.get();
+        entries.put(keyList, new Entry(epoch, current, value));
+        if (entries.size() >= sweepSize.get())
+            sweep();
+        return value;
+    }
+
+    /**
+     * Drops every entry whose epoch has advanced, and sets the size of the next sweep to twice the entries left
+     */
+    private void sweep() {
+        entries.values().removeIf(Entry::isStale);
+        sweepSize.set(Math.max(minSweepSize, 2 * entries.size()));
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * A cached result, the epoch it was computed at and the counter of that epoch
+     */
+    private static final class Entry {
+        private final AtomicLong source;
+        private final long epoch;
+        private final Object value;
+
+        private Entry(AtomicLong source, long epoch, Object value) {
+            this.source = source;
+            this.epoch = epoch;
+            this.value = value;
+        }
+
+        private boolean isStale() {
+            return epoch != source.get();
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package core;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * CS-622
+ * ScheduleIndex.java
+ * <p>
+ * The ScheduleIndex indexes the games of the league: by id, by team in the order each team plays them, and by day,
+ * with a set of the games that have been played. Games are indexed once when they are scheduled and marked once when
+ * they are recorded, so finding the games of a team or a day, the next game of a team or every game left to play never
+ * goes through the whole schedule more than once.
+ * <p>
+ * The index is updated with the league state lock held, and can be read from any thread.
+ *
+ * @author Andras Palfi apalfi@bu.edu
+ * @version 1.0
+ */
+public final class ScheduleIndex {
+
+    // The games of a team are kept in the order they are played in
+    private static final Comparator<GameSimulation> SCHEDULE_ORDER = Comparator.comparingInt(GameSimulation::getDay)
+            .thenComparingInt(GameSimulation::getID);
+
+    // Every game in the order it was scheduled, and the position of each game id in it. Guarded by this
+    private final List<GameSimulation> games = new ArrayList<>();
+    private final Map<Integer, Integer> positions = new HashMap<>();
+    // Indexed by the position of a game
+    private final BitSet played = new BitSet();
+    private final Map<Integer, TeamSchedule> teamSchedules = new HashMap<>();
+    // Indexed by day
+    private final List<List<GameSimulation>> days = new ArrayList<>();
+
+    /**
+     * Indexes a newly scheduled game
+     *
+     * @param game GameSimulation
+     */
+    synchronized void addGame(GameSimulation game) {
+        int position = games.size();
+        games.add(game);
+        positions.put(game.getID(), position);
+        if (game.gameIsOver())
+            played.set(position);
+        getTeamSchedule(game.getHomeTeam()).add(game);
+        getTeamSchedule(game.getAwayTeam()).add(game);
+        while (days.size() <= game.getDay())
+            days.add(new ArrayList<>());
+        days.get(game.getDay()).add(game);
+    }
+
+    /**
+     * Marks a game as played. Called once per game, with the league state lock held.
+     *
+     * @param game GameSimulation
+     */
+    synchronized void markPlayed(GameSimulation game) {
+        Integer position = positions.get(game.getID());
+        assert position != null;
+        played.set(position);
+    }
+
+    /**
+     * Indexes the games of a league, for when a league is loaded
+     *
+     * @param scheduled List<GameSimulation>: Every game, in the order they were scheduled
+     */
+    synchronized void rebuild(List<GameSimulation> scheduled) {
+        games.clear();
+        positions.clear();
+        played.clear();
+        teamSchedules.clear();
+        days.clear();
+        for (GameSimulation game : scheduled)
+            addGame(game);
+    }
+
+    private TeamSchedule getTeamSchedule(Team team) {
+        return teamSchedules.computeIfAbsent(team.getID(), tid -> new TeamSchedule());
+    }
+
+    public synchronized GameSimulation getGame(int gid) {
+        Integer position = positions.get(gid);
+        return (position == null) ? null : games.get(position);
+    }
+
+    public synchronized boolean isPlayed(GameSimulation game) {
+        Integer position = positions.get(game.getID());
+        return position != null && played.get(position);
+    }
+
+    /**
+     * @return List<GameSimulation>: Every game that has been played, in the order they were scheduled
+     */
+    public synchronized List<GameSimulation> getPlayedGames() {
+        List<GameSimulation> playedGames = new ArrayList<>(played.cardinality());
+        for (int i = played.nextSetBit(0); i >= 0; i = played.nextSetBit(i + 1))
+            playedGames.add(games.get(i));
+        return playedGames;
+    }
+
+    /**
+     * @return List<GameSimulation>: Every game that has not been played yet, in the order they were scheduled
+     */
+    public synchronized List<GameSimulation> getUnplayedGames() {
+        List<GameSimulation> unplayedGames = new ArrayList<>(games.size() - played.cardinality());
+        for (int i = played.nextClearBit(0); i < games.size(); i = played.nextClearBit(i + 1))
+            unplayedGames.add(games.get(i));
+        return unplayedGames;
+    }
+
+    /**
+     * @param team Team
+     * @return List<GameSimulation>: Every game of a team, in the order they are played in
+     */
+    public synchronized List<GameSimulation> getGamesForTeam(Team team) {
+        TeamSchedule schedule = teamSchedules.get(team.getID());
+        return (schedule == null) ? Collections.emptyList()
+                : Collections.unmodifiableList(new ArrayList<>(schedule.games));
+    }
+
+    /**
+     * Returns the next game of a team that has not been played yet
+     *
+     * @param team Team
+     * @return GameSimulation, or null if every game of the team has been played
+     */
+    public synchronized GameSimulation getNextGame(Team team) {
+        TeamSchedule schedule = teamSchedules.get(team.getID());
+        if (schedule == null)
+            return null;
+        // Games are played in order, so every game before the pointer stays played
+        while (schedule.next < schedule.games.size() && isPlayed(schedule.games.get(schedule.next)))
+            schedule.next++;
+        return (schedule.next < schedule.games.size()) ? schedule.games.get(schedule.next) : null;
+    }
+
+    /**
+     * @param day int
+     * @return List<GameSimulation>: The games of a day, in the order they were scheduled
+     */
+    public synchronized List<GameSimulation> getGamesOnDay(int day) {
+        return (day < 0 || day >= days.size()) ? Collections.emptyList()
+                : Collections.unmodifiableList(new ArrayList<>(days.get(day)));
+    }
+
+    /**
+     * @return int: The number of days that have been scheduled. Days are numbered from 0
+     */
+    public synchronized int getNumDays() {
+        return days.size();
+    }
+
+    /**
+     * The games of one team and where its next unplayed game is
+     */
+    private static final class TeamSchedule {
+        private final List<GameSimulation> games = new ArrayList<>();
+        // The index of the first game that may not have been played yet
+        private int next = 0;
+
+        void add(GameSimulation game) {
+            games.add(game);
+            // Tournaments are scheduled after the days already scheduled, so this only sorts when games are added out
+            // of order
+            int last = games.size() - 1;
+            if (last > 0 && SCHEDULE_ORDER.compare(games.get(last - 1), game) > 0) {
+                games.sort(SCHEDULE_ORDER);
+                next = 0;
+            }
+        }
+    }
+}
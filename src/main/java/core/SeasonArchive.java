@@ -0,0 +1,491 @@
+package core;
+
+import attributes.GameAttributes;
+import attributes.PlayerStatTypes;
+import attributes.TeamStatTypes;
+import utilities.DatabaseConnection;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * CS-622
+ * SeasonArchive.java
+ * <p>
+ * The SeasonArchive holds the seasons a league has finished. When a season is archived, the per game rows of its played
+ * games are compacted into one row of season totals per player and team in player_seasons and team_seasons, and the
+ * box score and log of every game are compressed into one row of archived_games. The rows of the season are then
+ * removed from player_stats, team_stats and games, so loading a league only reads its current season.
+ * <p>
+ * Archived games are never loaded with the league, only read one at a time when they are asked for, or all at once
+ * the first time the history of the league is queried.
+ *
+ * @author Andras Palfi apalfi@bu.edu
+ * @version 1.0
+ */
+public final class SeasonArchive {
+
+    // Written first in every archived game, so the format can change without misreading older archives
+    private static final int FORMAT_VERSION = 1;
+
+    private SeasonArchive() {
+    }
+
+    /**
+     * Archives the games of the current season in one transaction. Games that were not played are removed without
+     * being archived.
+     *
+     * @param season int: The number of the season being archived
+     * @return boolean: Whether the season was archived. If not, the database is left as it was
+     */
+    static boolean archiveSeason(int season) {
+        DatabaseConnection db = DatabaseConnection.getInstance();
+        try {
+            db.executeInTransaction(() -> {
+                try {
+                    execute(db, createPlayerSeasonsSQL(season));
+                    execute(db, createTeamSeasonsSQL(season));
+                    archiveGames(db, season);
+                    execute(db, "DELETE FROM player_stats");
+                    execute(db, "DELETE FROM team_stats");
+                    execute(db, "DELETE FROM games");
+                } catch (SQLException | IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            return true;
+        } catch (IllegalStateException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Executes a statement, failing the transaction if it fails
+     */
+    private static void execute(DatabaseConnection db, String sql) throws SQLException {
+        db.executeStatement(sql, PreparedStatement::executeUpdate);
+    }
+
+    /**
+     * Only the games that were played count towards a season
+     */
+    private static String playedGamesJoin(String statsAlias) {
+        return " JOIN games g ON " + statsAlias + ".gid=g.gid WHERE g." + GameAttributes.GAME_CLOCK + ">="
+                + GameEngine.GAME_LENGTH_SECONDS;
+    }
+
+    private static String createPlayerSeasonsSQL(int season) {
+        StringBuilder columns = new StringBuilder("pid, season, tid, GAMES_PLAYED");
+        StringBuilder values = new StringBuilder("s.pid, " + season + ", s.tid, COUNT(*)");
+        for (PlayerStatTypes stat : PlayerStatTypes.values()) {
+            columns.append(", ").append(stat);
+            values.append(", SUM(s.").append(stat).append(")");
+        }
+        return "INSERT INTO player_seasons (" + columns + ") SELECT " + values + " FROM player_stats s"
+                + playedGamesJoin("s") + " GROUP BY s.pid, s.tid";
+    }
+
+    private static String createTeamSeasonsSQL(int season) {
+        // Like the Standings, the home team has to score more to win
+        String pts = TeamStatTypes.TEAM_PTS.toString();
+        String won = "(s." + pts + ">o." + pts + " OR (s." + pts + "=o." + pts + " AND s.tid=g."
+                + GameAttributes.AWAY_TEAM + "))";
+        StringBuilder columns = new StringBuilder("tid, season, GAMES_PLAYED, WINS, LOSSES");
+        StringBuilder values = new StringBuilder("s.tid, " + season + ", COUNT(*), SUM(CASE WHEN " + won
+                + " THEN 1 ELSE 0 END), SUM(CASE WHEN " + won + " THEN 0 ELSE 1 END)");
+        for (TeamStatTypes stat : TeamStatTypes.values()) {
+            columns.append(", ").append(stat);
+            values.append(", SUM(s.").append(stat).append(")");
+        }
+        return "INSERT INTO team_seasons (" + columns + ") SELECT " + values + " FROM team_stats s"
+                + " JOIN team_stats o ON s.gid=o.gid AND s.tid<>o.tid" + playedGamesJoin("s") + " GROUP BY s.tid";
+    }
+
+    /**
+     * Compresses the box score and log of every played game of the season into a row of archived_games
+     */
+    private static void archiveGames(DatabaseConnection db, int season) throws SQLException, IOException {
+        Map<Integer, GameRows> games = new LinkedHashMap<>();
+        ResultSet rs = db.executeQuery("SELECT gid, DAY, HOME_TEAM, AWAY_TEAM, GAME_CLOCK, GAME_LOG FROM games WHERE "
+                + GameAttributes.GAME_CLOCK + ">=" + GameEngine.GAME_LENGTH_SECONDS + " ORDER BY DAY, gid");
+        if (rs == null)
+            throw new SQLException("Could not read the games of the season");
+        while (rs.next())
+            games.put(rs.getInt("gid"), new GameRows(rs));
+        rs = db.executeQuery("SELECT s.* FROM team_stats s" + playedGamesJoin("s"));
+        if (rs == null)
+            throw new SQLException("Could not read the team stats of the season");
+        while (rs.next()) {
+            int[] stats = new int[TeamStatTypes.values().length];
+            for (TeamStatTypes stat : TeamStatTypes.values())
+                stats[stat.ordinal()] = rs.getInt(stat.toString());
+            games.get(rs.getInt("gid")).teamRows.put(rs.getInt("tid"), stats);
+        }
+        rs = db.executeQuery("SELECT s.* FROM player_stats s" + playedGamesJoin("s"));
+        if (rs == null)
+            throw new SQLException("Could not read the player stats of the season");
+        while (rs.next()) {
+            int[] stats = new int[PlayerStatTypes.values().length];
+            for (PlayerStatTypes stat : PlayerStatTypes.values())
+                stats[stat.ordinal()] = rs.getInt(stat.toString());
+            GameRows game = games.get(rs.getInt("gid"));
+            game.playerRows.put(rs.getInt("pid"), stats);
+            game.playerTeams.put(rs.getInt("pid"), rs.getInt("tid"));
+        }
+        Map<Integer, byte[]> archived = new LinkedHashMap<>();
+        for (Map.Entry<Integer, GameRows> game : games.entrySet())
+            archived.put(game.getKey(), game.getValue().compress());
+        db.executeStatement("INSERT INTO archived_games (gid, season, data) VALUES (?,?,?)", statement -> {
+            for (Map.Entry<Integer, byte[]> game : archived.entrySet()) {
+                statement.setInt(1, game.getKey());
+                statement.setInt(2, season);
+                statement.setBytes(3, game.getValue());
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        });
+    }
+
+    /**
+     * Reads an archived game
+     *
+     * @param gid int
+     * @return ArchivedGame, or null if the game is not in the archive
+     */
+    public static ArchivedGame getGame(int gid) {
+        ResultSet rs = DatabaseConnection.getInstance().executeQuery(
+                "SELECT season, data FROM archived_games WHERE gid=" + gid);
+        try {
+            if (rs == null || !rs.next())
+                return null;
+            return new ArchivedGame(gid, rs.getInt("season"), rs.getBytes("data"));
+        } catch (SQLException | IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    /**
+     * Appends the box scores of every archived game to the history tables, season by season in the order the games
+     * were played
+     *
+     * @param players StatTable: Of PlayerStatTypes
+     * @param teams   StatTable: Of TeamStatTypes
+     */
+    static void loadHistory(StatTable players, StatTable teams) {
+        ResultSet rs = DatabaseConnection.getInstance().executeQuery(
+                "SELECT gid, season, data FROM archived_games ORDER BY season, gid");
+        try {
+            while (rs != null && rs.next()) {
+                ArchivedGame game = new ArchivedGame(rs.getInt("gid"), rs.getInt("season"), rs.getBytes("data"));
+                for (Map.Entry<Integer, int[]> row : game.getTeamStats().entrySet())
+                    teams.append(-1, row.getKey(), game.getID(), game.getSeason(), game.getDay(), row.getValue());
+                for (Map.Entry<Integer, int[]> row : game.getPlayerStats().entrySet())
+                    players.append(row.getKey(), game.getPlayerTeamID(row.getKey()), game.getID(), game.getSeason(),
+                            game.getDay(), row.getValue());
+            }
+        } catch (SQLException | IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * @param season int
+     * @return List<Integer>: The ids of the archived games of a season, in the order they were played
+     */
+    public static List<Integer> getGameIDs(int season) {
+        List<Integer> gids = new ArrayList<>();
+        ResultSet rs = DatabaseConnection.getInstance().executeQuery(
+                "SELECT gid FROM archived_games WHERE season=" + season + " ORDER BY gid");
+        try {
+            while (rs != null && rs.next())
+                gids.add(rs.getInt("gid"));
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return gids;
+    }
+
+    /**
+     * @param pid int
+     * @return List<SeasonLine>: The totals of a player in every finished season, one per season and team
+     */
+    public static List<SeasonLine> getPlayerSeasons(int pid) {
+        return readSeasonLines(DatabaseConnection.getInstance().getSeasonEntriesForPlayer(pid),
+                PlayerStatTypes.values(), false);
+    }
+
+    /**
+     * @param tid int
+     * @return List<SeasonLine>: The totals and record of a team in every finished season
+     */
+    public static List<SeasonLine> getTeamSeasons(int tid) {
+        return readSeasonLines(DatabaseConnection.getInstance().getSeasonEntriesForTeam(tid),
+                TeamStatTypes.values(), true);
+    }
+
+    private static List<SeasonLine> readSeasonLines(ResultSet rs, Enum<?>[] stats, boolean hasRecord) {
+        List<SeasonLine> lines = new ArrayList<>();
+        try {
+            while (rs != null && rs.next()) {
+                int[] totals = new int[stats.length];
+                for (Enum<?> stat : stats)
+                    totals[stat.ordinal()] = rs.getInt(stat.toString());
+                lines.add(new SeasonLine(rs.getInt("season"), rs.getInt("tid"), rs.getInt("GAMES_PLAYED"),
+                        hasRecord ? rs.getInt("WINS") : 0, hasRecord ? rs.getInt("LOSSES") : 0, totals));
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return lines;
+    }
+
+    /**
+     * The rows of one game while its season is being archived
+     */
+    private static final class GameRows {
+        private final int day;
+        private final int homeTeam;
+        private final int awayTeam;
+        private final int gameClock;
+        private final byte[] gameLog;
+        private final Map<Integer, int[]> teamRows = new LinkedHashMap<>();
+        private final Map<Integer, int[]> playerRows = new LinkedHashMap<>();
+        private final Map<Integer, Integer> playerTeams = new LinkedHashMap<>();
+
+        private GameRows(ResultSet game) throws SQLException {
+            day = game.getInt("DAY");
+            homeTeam = game.getInt("HOME_TEAM");
+            awayTeam = game.getInt("AWAY_TEAM");
+            gameClock = game.getInt("GAME_CLOCK");
+            byte[] log = game.getBytes("GAME_LOG");
+            gameLog = (log == null) ? new byte[0] : log;
+        }
+
+        private byte[] compress() throws IOException {
+            ByteArrayOutputStream bos = new ByteArrayOutputStream();
+            try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(bos))) {
+                out.writeInt(FORMAT_VERSION);
+                out.writeInt(day);
+                out.writeInt(homeTeam);
+                out.writeInt(awayTeam);
+                out.writeInt(gameClock);
+                out.writeInt(gameLog.length);
+                out.write(gameLog);
+                out.writeInt(TeamStatTypes.values().length);
+                out.writeInt(teamRows.size());
+                for (Map.Entry<Integer, int[]> row : teamRows.entrySet()) {
+                    out.writeInt(row.getKey());
+                    for (int value : row.getValue())
+                        out.writeInt(value);
+                }
+                out.writeInt(PlayerStatTypes.values().length);
+                out.writeInt(playerRows.size());
+                for (Map.Entry<Integer, int[]> row : playerRows.entrySet()) {
+                    out.writeInt(row.getKey());
+                    out.writeInt(playerTeams.get(row.getKey()));
+                    for (int value : row.getValue())
+                        out.writeInt(value);
+                }
+            }
+            return bos.toByteArray();
+        }
+    }
+
+    /**
+     * The box score and log of a game of a finished season. Stats are indexed by the ordinal of their type.
+     */
+    public static final class ArchivedGame {
+        private final int gid;
+        private final int season;
+        private final int day;
+        private final int homeTeamID;
+        private final int awayTeamID;
+        private final int gameClock;
+        private final byte[] gameLog;
+        private final Map<Integer, int[]> teamStats = new LinkedHashMap<>();
+        private final Map<Integer, int[]> playerStats = new LinkedHashMap<>();
+        private final Map<Integer, Integer> playerTeams = new LinkedHashMap<>();
+
+        private ArchivedGame(int gid, int season, byte[] data) throws IOException {
+            this.gid = gid;
+            this.season = season;
+            try (DataInputStream in = new DataInputStream(new GZIPInputStream(new ByteArrayInputStream(data)))) {
+                int version = in.readInt();
+                if (version != FORMAT_VERSION)
+                    throw new IOException("Unknown archive format " + version);
+                day = in.readInt();
+                homeTeamID = in.readInt();
+                awayTeamID = in.readInt();
+                gameClock = in.readInt();
+                gameLog = new byte[in.readInt()];
+                in.readFully(gameLog);
+                int numTeamStats = in.readInt();
+                int numTeams = in.readInt();
+                for (int t = 0; t < numTeams; t++) {
+                    int tid = in.readInt();
+                    teamStats.put(tid, readStats(in, numTeamStats, TeamStatTypes.values().length));
+                }
+                int numPlayerStats = in.readInt();
+                int numPlayers = in.readInt();
+                for (int p = 0; p < numPlayers; p++) {
+                    int pid = in.readInt();
+                    playerTeams.put(pid, in.readInt());
+                    playerStats.put(pid, readStats(in, numPlayerStats, PlayerStatTypes.values().length));
+                }
+            }
+        }
+
+        /**
+         * Reads the stats of a row, dropping stats added to the end of a stat type since it was archived
+         */
+        private static int[] readStats(DataInputStream in, int numArchived, int numStats) throws IOException {
+            int[] stats = new int[numStats];
+            for (int s = 0; s < numArchived; s++) {
+                int value = in.readInt();
+                if (s < numStats)
+                    stats[s] = value;
+            }
+            return stats;
+        }
+
+        public int getID() {
+            return gid;
+        }
+
+        public int getSeason() {
+            return season;
+        }
+
+        public int getDay() {
+            return day;
+        }
+
+        public int getHomeTeamID() {
+            return homeTeamID;
+        }
+
+        public int getAwayTeamID() {
+            return awayTeamID;
+        }
+
+        public int getGameClock() {
+            return gameClock;
+        }
+
+        /**
+         * @return List<String>: The play by play of the game, or an empty list if it had none
+         */
+        @SuppressWarnings("unchecked")
+        public List<String> getGameLog() {
+            if (gameLog.length == 0)
+                return Collections.emptyList();
+            try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(gameLog))) {
+                return Collections.unmodifiableList((List<String>) in.readObject());
+            } catch (IOException | ClassNotFoundException e) {
+                e.printStackTrace();
+                return Collections.emptyList();
+            }
+        }
+
+        /**
+         * @return Map<Integer, int[]>: The stats of both teams by team id
+         */
+        public Map<Integer, int[]> getTeamStats() {
+            return Collections.unmodifiableMap(teamStats);
+        }
+
+        /**
+         * @return Map<Integer, int[]>: The stats of every player of both teams by player id
+         */
+        public Map<Integer, int[]> getPlayerStats() {
+            return Collections.unmodifiableMap(playerStats);
+        }
+
+        /**
+         * @param pid int
+         * @return Integer: The team the player played for in this game, or null if it did not play in it
+         */
+        public Integer getPlayerTeamID(int pid) {
+            return playerTeams.get(pid);
+        }
+    }
+
+    /**
+     * The totals of a player or team over one finished season. Stats are indexed by the ordinal of their type.
+     */
+    public static final class SeasonLine {
+        private final int season;
+        private final int tid;
+        private final int gamesPlayed;
+        private final int wins;
+        private final int losses;
+        private final int[] totals;
+
+        private SeasonLine(int season, int tid, int gamesPlayed, int wins, int losses, int[] totals) {
+            this.season = season;
+            this.tid = tid;
+            this.gamesPlayed = gamesPlayed;
+            this.wins = wins;
+            this.losses = losses;
+            this.totals = totals;
+        }
+
+        public int getSeason() {
+            return season;
+        }
+
+        public int getTeamID() {
+            return tid;
+        }
+
+        public int getGamesPlayed() {
+            return gamesPlayed;
+        }
+
+        /**
+         * @return int: The wins of a team, 0 for a player
+         */
+        public int getWins() {
+            return wins;
+        }
+
+        /**
+         * @return int: The losses of a team, 0 for a player
+         */
+        public int getLosses() {
+            return losses;
+        }
+
+        /**
+         * @param stat Enum: A PlayerStatTypes for a player or a TeamStatTypes for a team
+         * @return int
+         */
+        public int getTotal(Enum<?> stat) {
+            return totals[stat.ordinal()];
+        }
+
+        /**
+         * @param stat Enum: A PlayerStatTypes for a player or a TeamStatTypes for a team
+         * @return double: The average per game, or 0 if no game was played
+         */
+        public double getAverage(Enum<?> stat) {
+            return (gamesPlayed == 0) ? 0.0 : (double) totals[stat.ordinal()] / gamesPlayed;
+        }
+    }
+}
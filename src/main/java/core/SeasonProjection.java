@@ -0,0 +1,140 @@
+package core;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * CS-622
+ * SeasonProjection.java
+ * <p>
+ * The SeasonProjection class holds the outcome of a SeasonProjector run: the average amount of wins every team finishes
+ * the season with and how often each team finished in each place of the standings. A projection can be partial, in
+ * which case it covers only the seasons that were simulated so far.
+ * <p>
+ * Ranks are 1 based, so rank 1 is first place.
+ *
+ * @author Andras Palfi apalfi@bu.edu
+ * @version 1.0
+ */
+public final class SeasonProjection {
+
+    private final List<Team> teams;
+    private final int numSeasons;
+    private final int targetNumSeasons;
+    // The wins of each team before any games were simulated, indexed like teams
+    private final int[] currentWins;
+    // The sum of the final wins of each team over every simulated season
+    private final long[] winSums;
+    // Number of seasons each team finished in a place: [team][rank - 1]
+    private final int[][] rankCounts;
+
+    SeasonProjection(List<Team> teams, int numSeasons, int targetNumSeasons, int[] currentWins, long[] winSums,
+                     int[][] rankCounts) {
+        this.teams = Collections.unmodifiableList(teams);
+        this.numSeasons = numSeasons;
+        this.targetNumSeasons = targetNumSeasons;
+        this.currentWins = currentWins;
+        this.winSums = winSums;
+        this.rankCounts = rankCounts;
+    }
+
+    /**
+     * Returns the teams covered by this projection
+     *
+     * @return List<Team>
+     */
+    public List<Team> getTeams() {
+        return teams;
+    }
+
+    /**
+     * Returns the amount of seasons this projection is based off
+     *
+     * @return int
+     */
+    public int getNumSeasons() {
+        return numSeasons;
+    }
+
+    /**
+     * Returns the amount of seasons the projection was asked to simulate
+     *
+     * @return int
+     */
+    public int getTargetNumSeasons() {
+        return targetNumSeasons;
+    }
+
+    /**
+     * Returns true once every requested season has been simulated
+     *
+     * @return boolean
+     */
+    public boolean isComplete() {
+        return numSeasons == targetNumSeasons;
+    }
+
+    /**
+     * Returns the amount of wins a team had when the projection started
+     *
+     * @param team Team
+     * @return int
+     */
+    public int getCurrentWins(Team team) {
+        return currentWins[getTeamIndex(team)];
+    }
+
+    /**
+     * Returns the average amount of wins a team finishes the season with
+     *
+     * @param team Team
+     * @return double
+     */
+    public double getProjectedWins(Team team) {
+        int index = getTeamIndex(team);
+        return (numSeasons == 0) ? currentWins[index] : (double) winSums[index] / numSeasons;
+    }
+
+    /**
+     * Returns the probability that a team finishes the season in a particular place
+     *
+     * @param team Team
+     * @param rank int: 1 for first place
+     * @return double
+     */
+    public double getRankProbability(Team team, int rank) {
+        if (rank < 1 || rank > teams.size())
+            throw new IllegalArgumentException("No such rank: " + rank);
+        return (numSeasons == 0) ? 0 : (double) rankCounts[getTeamIndex(team)][rank - 1] / numSeasons;
+    }
+
+    /**
+     * Returns the probability of a team finishing in each place, where index 0 holds the probability of first place
+     *
+     * @param team Team
+     * @return double[]
+     */
+    public double[] getRankDistribution(Team team) {
+        double[] distribution = new double[teams.size()];
+        for (int rank = 1; rank <= teams.size(); rank++)
+            distribution[rank - 1] = getRankProbability(team, rank);
+        return distribution;
+    }
+
+    /**
+     * Returns the probability of a team finishing the season in first place
+     *
+     * @param team Team
+     * @return double
+     */
+    public double getFirstPlaceProbability(Team team) {
+        return getRankProbability(team, 1);
+    }
+
+    private int getTeamIndex(Team team) {
+        int index = teams.indexOf(team);
+        if (index < 0)
+            throw new IllegalArgumentException("Team " + team.getName() + " is not part of this projection");
+        return index;
+    }
+}
@@ -0,0 +1,188 @@
+package core;
+
+import utilities.CoreConfiguration;
+import utilities.SimulationExecutor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * CS-622
+ * SeasonProjector.java
+ * <p>
+ * The SeasonProjector class simulates the rest of the season many times over, starting from the current standings,
+ * to project how many games every team will win and where it will finish. Every game is played by a GameEngine on
+ * snapshots of the teams taken once up front, so the league, its entities and the database are never touched.
+ * <p>
+ * The seasons are simulated in rounds. Each round is split into chunks that run in parallel on the SimulationExecutor
+ * of the league, and once a round is done
+ * the projection so far is handed to a listener so that the odds can be shown while they converge. Each chunk gets its
+ * own random generator split from a single root generator in order. The number of chunks does not depend on the number
+ * of threads, so the same seed always gives the same projection on any machine.
+ *
+ * @author Andras Palfi apalfi@bu.edu
+ * @version 1.0
+ */
+public final class SeasonProjector {
+
+    // The amount of times the listener is updated over a full projection
+    private static final int NUM_UPDATES = CoreConfiguration.getInstance().getIntProperty("projection.num_updates");
+    // Number of chunks to split each round into
+    private static final int NUM_CHUNKS = 64;
+
+    private final List<Team> teams;
+    private final TeamSnapshot[] snapshots;
+    private final int[] currentWins;
+    // The home and away team index of every unplayed game, in schedule order
+    private final int[] homeTeams;
+    private final int[] awayTeams;
+    private final int numSeasons;
+    private final SplittableRandom root;
+    private final AtomicBoolean cancelled = new AtomicBoolean(false);
+
+    /**
+     * Captures the current standings and the unplayed games of the league. The league can keep changing afterwards
+     * without affecting this projector.
+     *
+     * @param numSeasons int: The amount of seasons to simulate
+     * @param seed       long: The seed of the random generator
+     */
+    public SeasonProjector(int numSeasons, long seed) {
+        if (numSeasons <= 0)
+            throw new IllegalArgumentException("The number of seasons must be positive: " + numSeasons);
+        this.numSeasons = numSeasons;
+        this.root = new SplittableRandom(seed);
+        this.teams = new ArrayList<>(League.getInstance().getTeams());
+        this.snapshots = new TeamSnapshot[teams.size()];
+        this.currentWins = new int[teams.size()];
+        for (int i = 0; i < teams.size(); i++) {
+            snapshots[i] = new TeamSnapshot(teams.get(i));
+            currentWins[i] = LeagueFunctions.getTeamRecord(teams.get(i))[0];
+        }
+        List<GameSimulation> unplayedGames = LeagueFunctions.getAllUnplayedGames();
+        this.homeTeams = new int[unplayedGames.size()];
+        this.awayTeams = new int[unplayedGames.size()];
+        int g = 0;
+        for (GameSimulation game : unplayedGames) {
+            homeTeams[g] = teams.indexOf(game.getHomeTeam());
+            awayTeams[g] = teams.indexOf(game.getAwayTeam());
+            g++;
+        }
+    }
+
+    public SeasonProjector(int numSeasons) {
+        this(numSeasons, new SplittableRandom().nextLong());
+    }
+
+    /**
+     * Simulate every season and return the final projection. The listener, if any, is called from the calling thread
+     * after every round with the projection so far, and a last time with the final projection.
+     *
+     * @param listener Consumer<SeasonProjection>: Receives partial projections, may be null
+     * @return SeasonProjection: The final projection, which only covers the seasons played before a cancel
+     */
+    public SeasonProjection run(Consumer<SeasonProjection> listener) {
+        int seasonsPerRound = Math.max(1, (numSeasons + NUM_UPDATES - 1) / NUM_UPDATES);
+        Accumulator total = new Accumulator(teams.size());
+        while (total.numSeasons < numSeasons && !cancelled.get()) {
+            int roundSeasons = Math.min(seasonsPerRound, numSeasons - total.numSeasons);
+            int numChunks = Math.min(roundSeasons, NUM_CHUNKS);
+            SplittableRandom[] randoms = new SplittableRandom[numChunks];
+            for (int chunk = 0; chunk < numChunks; chunk++)
+                randoms[chunk] = root.split();
+            List<Accumulator> round;
+            try {
+                round = SimulationExecutor.getInstance().runChunks(numChunks, chunk -> {
+                    Accumulator acc = new Accumulator(teams.size());
+                    int start = (int) ((long) roundSeasons * chunk / numChunks);
+                    int end = (int) ((long) roundSeasons * (chunk + 1) / numChunks);
+                    for (int i = start; i < end && !cancelled.get(); i++)
+                        simulateSeason(randoms[chunk], acc);
+                    return acc;
+                });
+            } catch (InterruptedException e) {
+                // An interrupt stops the projection like a cancel
+                Thread.currentThread().interrupt();
+                cancel();
+                break;
+            }
+            for (Accumulator acc : round)
+                total.merge(acc);
+            if (listener != null && total.numSeasons < numSeasons && !cancelled.get())
+                listener.accept(total.toProjection());
+        }
+        SeasonProjection projection = total.toProjection();
+        if (listener != null)
+            listener.accept(projection);
+        return projection;
+    }
+
+    /**
+     * Stop the projection after the seasons that are currently being simulated. Safe to call from any thread.
+     */
+    public void cancel() {
+        cancelled.set(true);
+    }
+
+    /**
+     * Play every unplayed game once and record the final wins and place of every team. Teams that finish with the same
+     * amount of wins are put in a random order.
+     */
+    private void simulateSeason(SplittableRandom random, Accumulator acc) {
+        int[] wins = currentWins.clone();
+        for (int g = 0; g < homeTeams.length; g++) {
+            GameEngine engine = new GameEngine(snapshots[homeTeams[g]], snapshots[awayTeams[g]], random, false);
+            engine.simulate();
+            wins[(engine.getWinner() == GameEngine.HOME) ? homeTeams[g] : awayTeams[g]]++;
+        }
+        double[] tieBreakers = new double[wins.length];
+        for (int t = 0; t < wins.length; t++)
+            tieBreakers[t] = random.nextDouble();
+        Integer[] standings = new Integer[wins.length];
+        Arrays.setAll(standings, t -> t);
+        Arrays.sort(standings, Comparator.comparingInt((Integer t) -> wins[t])
+                .thenComparingDouble(t -> tieBreakers[t]).reversed());
+        for (int rank = 0; rank < standings.length; rank++)
+            acc.rankCounts[standings[rank]][rank]++;
+        for (int t = 0; t < wins.length; t++)
+            acc.winSums[t] += wins[t];
+        acc.numSeasons++;
+    }
+
+    /**
+     * Running totals of a set of simulated seasons. An Accumulator is only touched by one thread until it is merged.
+     */
+    private final class Accumulator {
+        private int numSeasons = 0;
+        private final long[] winSums;
+        private final int[][] rankCounts;
+
+        Accumulator(int numTeams) {
+            winSums = new long[numTeams];
+            rankCounts = new int[numTeams][numTeams];
+        }
+
+        Accumulator merge(Accumulator other) {
+            numSeasons += other.numSeasons;
+            for (int t = 0; t < winSums.length; t++) {
+                winSums[t] += other.winSums[t];
+                for (int rank = 0; rank < rankCounts[t].length; rank++)
+                    rankCounts[t][rank] += other.rankCounts[t][rank];
+            }
+            return this;
+        }
+
+        SeasonProjection toProjection() {
+            int[][] counts = new int[rankCounts.length][];
+            for (int t = 0; t < rankCounts.length; t++)
+                counts[t] = rankCounts[t].clone();
+            return new SeasonProjection(teams, numSeasons, SeasonProjector.this.numSeasons, currentWins.clone(),
+                    winSums.clone(), counts);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package core;
+
+import utilities.SimulationExecutor;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+
+/**
+ * CS-622
+ * SeasonScheduler.java
+ * <p>
+ * The SeasonScheduler simulates games one day of the schedule at a time. The games of a day run in parallel, and the
+ * next day only starts once every game of the current day has recorded its result, so a game always sees the season to
+ * date stats of every earlier day and none of its own day. No team is ever in more than one running game. The games of
+ * a round are spread over the threads by a SimulationExecutor.
+ * <p>
+ * Each game is played with a random generator seeded from the league seed and its id, and a team only plays once per
+ * round, so the results of a season are the same for a given seed no matter how many threads run it.
+ *
+ * @author Andras Palfi apalfi@bu.edu
+ * @version 1.0
+ */
+public final class SeasonScheduler {
+
+    private final SimulationExecutor executor;
+
+    public SeasonScheduler() {
+        this(SimulationExecutor.getInstance());
+    }
+
+    public SeasonScheduler(SimulationExecutor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Splits games into rounds that can run at the same time. Rounds follow the days of the schedule, and a day is
+     * split into more than one round only if a team is scheduled more than once that day, such as in leagues saved
+     * before games had days.
+     *
+     * @param games Collection<GameSimulation>
+     * @return List<List<GameSimulation>>: The rounds in the order they must run
+     */
+    public static List<List<GameSimulation>> getRounds(Collection<GameSimulation> games) {
+        Map<Integer, List<GameSimulation>> days = new TreeMap<>();
+        for (GameSimulation g : games)
+            days.computeIfAbsent(g.getDay(), day -> new LinkedList<>()).add(g);
+        List<List<GameSimulation>> rounds = new LinkedList<>();
+        for (List<GameSimulation> pending : days.values()) {
+            pending.sort(Comparator.comparingInt(GameSimulation::getID));
+            while (!pending.isEmpty()) {
+                List<GameSimulation> round = new ArrayList<>();
+                Set<Team> busy = new HashSet<>();
+                pending.removeIf(g -> {
+                    if (busy.contains(g.getHomeTeam()) || busy.contains(g.getAwayTeam()))
+                        return false;
+                    busy.add(g.getHomeTeam());
+                    busy.add(g.getAwayTeam());
+                    return round.add(g);
+                });
+                rounds.add(round);
+            }
+        }
+        return rounds;
+    }
+
+    /**
+     * Simulate every unplayed game in the league. Blocks until the last day is done.
+     *
+     * @throws InterruptedException if the calling thread is interrupted while waiting for a round
+     */
+    public void simulateUnplayedGames() throws InterruptedException {
+        simulateGames(LeagueFunctions.getAllUnplayedGames(), null);
+    }
+
+    /**
+     * Simulate a set of games round by round, waiting for every game of a round before the next round starts. A game
+     * that fails stops the season after its round. Blocks until the last round is done and its results are written to
+     * the database.
+     *
+     * @param games          Collection<GameSimulation>: The games to simulate
+     * @param onGameFinished BiConsumer: Called with each game and the thread that ran it and how long it took in ms,
+     *                       as soon as it is recorded. Called from the simulation threads, may be null
+     * @throws InterruptedException if the calling thread is interrupted while waiting for a round
+     * @throws RuntimeException     if a game failed
+     */
+    public void simulateGames(Collection<GameSimulation> games,
+                              BiConsumer<GameSimulation, Map.Entry<Thread, Double>> onGameFinished)
+            throws InterruptedException {
+        createSession(games).run(onGameFinished, null);
+    }
+
+    /**
+     * Creates a session that simulates a set of games on the executor of this scheduler, and can be paused or cancelled
+     * while it runs
+     *
+     * @param games Collection<GameSimulation>: The games to simulate
+     * @return SimulationSession
+     */
+    public SimulationSession createSession(Collection<GameSimulation> games) {
+        return new SimulationSession(executor, games);
+    }
+}
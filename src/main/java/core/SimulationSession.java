@@ -0,0 +1,222 @@
+package core;
+
+import utilities.PersistenceWriter;
+import utilities.SimulationExecutor;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.IntConsumer;
+
+/**
+ * CS-622
+ * SimulationSession.java
+ * <p>
+ * A SimulationSession is one run of a bulk simulation, such as simulating every game left in the season. It plays its
+ * games round by round like the SeasonScheduler, and can be paused, resumed and cancelled from another thread while it
+ * runs. It also reports how many of its games are done and estimates how long the rest will take.
+ * <p>
+ * A game is always either fully recorded or not played at all: pausing and cancelling only stop games from starting,
+ * and games that are already running finish and record their result. After the last game of each day the session
+ * waits until every result is written to the database and reports the day as a checkpoint, so every day up to the
+ * last checkpoint is complete on disk. A session that is cancelled or stopped by a failed game can leave the day it
+ * was on partly played: the games of that day that finished are written, and the rest stay unplayed for a later
+ * session. A new LeagueSnapshot and new AdvancedMetrics are published at every checkpoint.
+ *
+ * @author Andras Palfi apalfi@bu.edu
+ * @version 1.0
+ */
+public final class SimulationSession {
+
+    private final SimulationExecutor executor;
+    private final List<GameSimulation> games;
+    private final LongAdder completed = new LongAdder();
+    private volatile boolean cancelled = false;
+    private volatile boolean done = false;
+    private volatile int lastCheckpointDay = -1;
+    private volatile long startNanos = 0;
+
+    // Guarded by pauseLock
+    private final Object pauseLock = new Object();
+    private boolean paused = false;
+    private long pauseStartNanos = 0;
+    private long pausedNanos = 0;
+
+    public SimulationSession(Collection<GameSimulation> games) {
+        this(SimulationExecutor.getInstance(), games);
+    }
+
+    public SimulationSession(SimulationExecutor executor, Collection<GameSimulation> games) {
+        this.executor = executor;
+        this.games = new ArrayList<>(games);
+    }
+
+    /**
+     * Simulates the games of this session and blocks until they are done or the session is cancelled
+     *
+     * @param onGameFinished BiConsumer: Called with each game and the thread that ran it and how long it took in ms,
+     *                       as soon as it is recorded. Called from the simulation threads, may be null
+     * @param onCheckpoint   IntConsumer: Called with the day once every game of a day is written to the database.
+     *                       Called from the thread running the session, may be null
+     * @throws InterruptedException if the calling thread is interrupted while waiting for a round
+     * @throws RuntimeException     if a game failed or its results could not be written. The session stops after the
+     *                              round of that game
+     */
+    public void run(BiConsumer<GameSimulation, Map.Entry<Thread, Double>> onGameFinished, IntConsumer onCheckpoint)
+            throws InterruptedException {
+        startNanos = System.nanoTime();
+        RuntimeException failure = null;
+        try {
+            List<List<GameSimulation>> rounds = SeasonScheduler.getRounds(games);
+            for (int r = 0; r < rounds.size() && !cancelled; r++) {
+                // Every game of a round has to be recorded before the next round reads any stats, which run() waits for
+                try {
+                    executor.run(rounds.get(r), this::simulateGame, (game, result) -> {
+                        if (result != null && onGameFinished != null)
+                            onGameFinished.accept(game, result);
+                    });
+                } catch (RuntimeException e) {
+                    failure = e;
+                    cancel();
+                    break;
+                }
+                int day = rounds.get(r).get(0).getDay();
+                if (r == rounds.size() - 1 || rounds.get(r + 1).get(0).getDay() != day)
+                    checkpoint(day, onCheckpoint);
+            }
+            // A cancelled day is not a checkpoint, but what it did play still has to reach the database and the views
+            PersistenceWriter.getInstance().flush();
+            League.getInstance().publishSnapshot();
+            League.getInstance().publishAdvancedMetrics();
+        } finally {
+            done = true;
+        }
+        if (failure != null)
+            throw failure;
+    }
+
+    /**
+     * Waits for the results of a day to be written, publishes them to the views, then reports the day
+     */
+    private void checkpoint(int day, IntConsumer onCheckpoint) throws InterruptedException {
+        PersistenceWriter.getInstance().flush();
+        if (cancelled)
+            return;
+        League.getInstance().publishSnapshot();
+        League.getInstance().publishAdvancedMetrics();
+        lastCheckpointDay = day;
+        if (onCheckpoint != null)
+            onCheckpoint.accept(day);
+    }
+
+    /**
+     * Simulates one game unless the session is cancelled, and returns the thread that ran it and how long it took in ms
+     *
+     * @return Map.Entry, or null if the game was not played
+     */
+    private Map.Entry<Thread, Double> simulateGame(GameSimulation game) {
+        try {
+            awaitResume();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        if (cancelled)
+            return null;
+        long gameStart = System.nanoTime();
+        game.simulateGame();
+        completed.increment();
+        return new AbstractMap.SimpleEntry<>(Thread.currentThread(), (System.nanoTime() - gameStart) / 1e6);
+    }
+
+    private void awaitResume() throws InterruptedException {
+        synchronized (pauseLock) {
+            while (paused && !cancelled)
+                pauseLock.wait();
+        }
+    }
+
+    /**
+     * Stops games from starting until resume() is called. Games that are already running finish.
+     */
+    public void pause() {
+        synchronized (pauseLock) {
+            if (!paused) {
+                paused = true;
+                pauseStartNanos = System.nanoTime();
+            }
+        }
+    }
+
+    public void resume() {
+        synchronized (pauseLock) {
+            if (paused) {
+                paused = false;
+                pausedNanos += System.nanoTime() - pauseStartNanos;
+                pauseLock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Stops the session. Games that are already running finish and are recorded, the rest stay unplayed. run() returns
+     * once the running games are written to the database.
+     */
+    public void cancel() {
+        cancelled = true;
+        synchronized (pauseLock) {
+            pauseLock.notifyAll();
+        }
+    }
+
+    public boolean isPaused() {
+        synchronized (pauseLock) {
+            return paused;
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public boolean isDone() {
+        return done;
+    }
+
+    public int getTotal() {
+        return games.size();
+    }
+
+    public long getCompleted() {
+        return completed.sum();
+    }
+
+    /**
+     * @return int: The last day whose games are all in the database, or -1 if no day is finished yet
+     */
+    public int getLastCheckpointDay() {
+        return lastCheckpointDay;
+    }
+
+    /**
+     * Estimates the time left from the throughput so far. Time spent paused does not count towards the throughput.
+     *
+     * @return long: The estimated time left in ms, or -1 if no game has finished yet
+     */
+    public long getEstimatedMillisLeft() {
+        long finished = getCompleted();
+        if (finished == 0 || startNanos == 0)
+            return -1;
+        long activeNanos;
+        synchronized (pauseLock) {
+            activeNanos = System.nanoTime() - startNanos - pausedNanos;
+            if (paused)
+                activeNanos -= System.nanoTime() - pauseStartNanos;
+        }
+        return (long) ((double) activeNanos / finished * (getTotal() - finished) / 1e6);
+    }
+}
@@ -0,0 +1,126 @@
+package core;
+
+import attributes.TeamStatTypes;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * CS-622
+ * Standings.java
+ * <p>
+ * The Standings keep the record of every team: wins, losses, points for and against and the current streak. A record
+ * is updated once, when a game of the team is recorded, so the record and the games played of a team are read without
+ * going through the games of the league. The schedules of the teams are kept by the ScheduleIndex.
+ * <p>
+ * The standings are updated with the league state lock held, and can be read from any thread.
+ *
+ * @author Andras Palfi apalfi@bu.edu
+ * @version 1.0
+ */
+public final class Standings {
+
+    // Streaks follow the order games are played in
+    private static final Comparator<GameSimulation> SCHEDULE_ORDER = Comparator.comparingInt(GameSimulation::getDay)
+            .thenComparingInt(GameSimulation::getID);
+
+    // Guarded by this
+    private final Map<Integer, TeamStanding> standings = new HashMap<>();
+
+    /**
+     * Adds the result of a finished game to the records of both its teams. Called once per game, with the league state
+     * lock held.
+     *
+     * @param home       Team
+     * @param away       Team
+     * @param homePoints int
+     * @param awayPoints int
+     */
+    synchronized void recordGame(Team home, Team away, int homePoints, int awayPoints) {
+        // Like GameSimulation.getWinner(), the home team has to score more to win
+        boolean homeWon = homePoints > awayPoints;
+        getStanding(home).record(homeWon, homePoints, awayPoints);
+        getStanding(away).record(!homeWon, awayPoints, homePoints);
+    }
+
+    /**
+     * Builds the standings from the games of a league, for when a league is loaded
+     *
+     * @param games List<GameSimulation>
+     */
+    synchronized void rebuild(List<GameSimulation> games) {
+        standings.clear();
+        List<GameSimulation> ordered = new ArrayList<>(games);
+        ordered.sort(SCHEDULE_ORDER);
+        for (GameSimulation game : ordered)
+            if (game.gameIsOver())
+                recordGame(game.getHomeTeam(), game.getAwayTeam(), game.getHomeTeamStat(TeamStatTypes.TEAM_PTS),
+                        game.getAwayTeamStat(TeamStatTypes.TEAM_PTS));
+    }
+
+    private TeamStanding getStanding(Team team) {
+        return standings.computeIfAbsent(team.getID(), tid -> new TeamStanding());
+    }
+
+    private TeamStanding findStanding(Team team) {
+        TeamStanding standing = standings.get(team.getID());
+        return (standing != null) ? standing : new TeamStanding();
+    }
+
+    public synchronized int getWins(Team team) {
+        return findStanding(team).wins;
+    }
+
+    public synchronized int getLosses(Team team) {
+        return findStanding(team).losses;
+    }
+
+    public synchronized int getNumGamesPlayed(Team team) {
+        TeamStanding standing = findStanding(team);
+        return standing.wins + standing.losses;
+    }
+
+    public synchronized int getPointsFor(Team team) {
+        return findStanding(team).pointsFor;
+    }
+
+    public synchronized int getPointsAgainst(Team team) {
+        return findStanding(team).pointsAgainst;
+    }
+
+    /**
+     * Returns the current streak of a team
+     *
+     * @param team Team
+     * @return int: The number of games won in a row if positive, or lost in a row if negative
+     */
+    public synchronized int getStreak(Team team) {
+        return findStanding(team).streak;
+    }
+
+    /**
+     * The record of one team
+     */
+    private static final class TeamStanding {
+        private int wins = 0;
+        private int losses = 0;
+        private int pointsFor = 0;
+        private int pointsAgainst = 0;
+        private int streak = 0;
+
+        void record(boolean won, int points, int opponentPoints) {
+            pointsFor += points;
+            pointsAgainst += opponentPoints;
+            if (won) {
+                wins++;
+                streak = (streak > 0) ? streak + 1 : 1;
+            } else {
+                losses++;
+                streak = (streak < 0) ? streak - 1 : -1;
+            }
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package core;
+
+import attributes.PlayerStatTypes;
+import utilities.CoreConfiguration;
+
+import java.util.List;
+
+/**
+ * CS-622
+ * StatDistributions.java
+ * <p>
+ * StatDistributions keeps a QuantileSketch of every player stat, so where a stat line ranks in the league is found
+ * without going through the games that were played. There are two distributions of each stat:
+ * <ul>
+ *     <li>The game distribution holds every stat line of a player in one game, and is added to as games finish</li>
+ *     <li>The season distribution holds the average per game of every player that has played, and is rebuilt from the
+ *     season totals whenever the advanced metrics are published</li>
+ * </ul>
+ * A game is added while the league state lock is held, together with the rest of its result, so it is always counted
+ * in the season it was played in. Adding it costs one sketch update per stat line, which is small next to simulating it.
+ *
+ * @author Andras Palfi apalfi@bu.edu
+ * @version 1.0
+ */
+public final class StatDistributions {
+
+    private static final int SKETCH_SIZE = CoreConfiguration.getInstance().getIntProperty("stats.sketch_size");
+    private static final int NUM_STATS = PlayerStatTypes.values().length;
+
+    // Guarded by this
+    private final QuantileSketch[] gameSketches = newSketches();
+    // Replaced as a whole, never changed after it is published
+    private volatile QuantileSketch[] seasonSketches = newSketches();
+
+    private static QuantileSketch[] newSketches() {
+        QuantileSketch[] sketches = new QuantileSketch[NUM_STATS];
+        for (int s = 0; s < NUM_STATS; s++)
+            sketches[s] = new QuantileSketch(SKETCH_SIZE);
+        return sketches;
+    }
+
+    /**
+     * Adds the stat lines of every player of a finished game to the game distribution. Must be called while holding
+     * the league state lock.
+     *
+     * @param engine GameEngine: A game that has been simulated
+     */
+    synchronized void recordGame(GameEngine engine) {
+        for (int team = GameEngine.HOME; team <= GameEngine.AWAY; team++)
+            for (int slot = 0; slot < engine.getTeam(team).getRosterSize(); slot++)
+                for (PlayerStatTypes stat : PlayerStatTypes.values())
+                    gameSketches[stat.ordinal()].update(engine.getPlayerStat(team, slot, stat));
+    }
+
+    /**
+     * Rebuilds both distributions, for when a league is loaded
+     *
+     * @param statTable StatTable: The stat lines of every player in every game that was played
+     * @param players   List<Player>
+     */
+    synchronized void rebuild(StatTable statTable, List<Player> players) {
+        for (PlayerStatTypes stat : PlayerStatTypes.values()) {
+            QuantileSketch sketch = gameSketches[stat.ordinal()];
+            sketch.clear();
+            for (int value : statTable.copyStatColumn(stat))
+                sketch.update(value);
+        }
+        rebuildSeason(players);
+    }
+
+    /**
+     * Rebuilds the season distribution from the season totals of the players. Must be called while holding the league
+     * state lock.
+     *
+     * @param players List<Player>
+     */
+    void rebuildSeason(List<Player> players) {
+        QuantileSketch[] sketches = newSketches();
+        for (Player p : players) {
+            StatTotals<PlayerStatTypes> totals = p.getStatTotals();
+            if (totals.getGamesPlayed() == 0)
+                continue;
+            for (PlayerStatTypes stat : PlayerStatTypes.values())
+                sketches[stat.ordinal()].update(totals.getAverage(stat));
+        }
+        seasonSketches = sketches;
+    }
+
+    /**
+     * The percentile of a value, counting half of the values equal to it so that a common value such as 0 is not put
+     * at the top of its range
+     */
+    private static double getPercentile(QuantileSketch sketch, double value) {
+        if (sketch.getCount() == 0)
+            return 0.0;
+        long below = sketch.getRank(value, false);
+        long atOrBelow = sketch.getRank(value, true);
+        return 100.0 * (below + atOrBelow) / 2 / sketch.getCount();
+    }
+
+    /**
+     * Returns where a stat line of one game ranks among every stat line of the season
+     *
+     * @param stat  PlayerStatTypes
+     * @param value double
+     * @return double: The percentile from 0 to 100, or 0 before the first game
+     */
+    public synchronized double getGamePercentile(PlayerStatTypes stat, double value) {
+        return getPercentile(gameSketches[stat.ordinal()], value);
+    }
+
+    /**
+     * Returns the value of a stat in one game at a percentile of every stat line of the season
+     *
+     * @param stat       PlayerStatTypes
+     * @param percentile double: From 0 to 100
+     * @return double, or 0 before the first game
+     */
+    public synchronized double getGameValueAt(PlayerStatTypes stat, double percentile) {
+        return gameSketches[stat.ordinal()].getQuantile(percentile / 100);
+    }
+
+    /**
+     * @return long: The number of stat lines in the game distribution
+     */
+    public synchronized long getNumGameLines() {
+        return gameSketches[PlayerStatTypes.PTS.ordinal()].getCount();
+    }
+
+    /**
+     * Returns where an average per game ranks among the averages of every player, as of the last published metrics
+     *
+     * @param stat  PlayerStatTypes
+     * @param value double
+     * @return double: The percentile from 0 to 100, or 0 before the first game
+     */
+    public double getSeasonPercentile(PlayerStatTypes stat, double value) {
+        return getPercentile(seasonSketches[stat.ordinal()], value);
+    }
+
+    /**
+     * Returns where the average per game of a player ranks among the averages of every player
+     *
+     * @param p    Player
+     * @param stat PlayerStatTypes
+     * @return double: The percentile from 0 to 100, or 0 before the first game
+     */
+    public double getSeasonPercentile(Player p, PlayerStatTypes stat) {
+        return getSeasonPercentile(stat, p.getStatTotals().getAverage(stat));
+    }
+
+    /**
+     * Returns the average per game at a percentile of the averages of every player
+     *
+     * @param stat       PlayerStatTypes
+     * @param percentile double: From 0 to 100
+     * @return double, or 0 before the first game
+     */
+    public double getSeasonValueAt(PlayerStatTypes stat, double percentile) {
+        return seasonSketches[stat.ordinal()].getQuantile(percentile / 100);
+    }
+}
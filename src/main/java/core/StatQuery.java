@@ -0,0 +1,219 @@
+package core;
+
+import utilities.SimulationExecutor;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * CS-622
+ * StatQuery.java
+ * <p>
+ * A StatQuery filters the rows of a StatTable by player, team, game, season or day, groups them by one of those keys
+ * and aggregates the stats of every group. For example, the points per game of every team over the last 10 days:
+ * <pre>
+ *     League.getInstance().getTeamStatTable().query()
+ *             .whereBetween(StatTable.Key.DAY, lastDay - 9, lastDay)
+ *             .groupBy(StatTable.Key.TID)
+ *             .aggregate(StatQuery.Aggregation.AVG, TeamStatTypes.TEAM_PTS);
+ * </pre>
+ * The stat tables of the league only hold the current season. Queries over several seasons, such as the points per
+ * game of a team in every season, run on the history tables, which also hold the archived seasons.
+ * <p>
+ * Large tables are split into chunks that are scanned in parallel on the SimulationExecutor of the league, each into
+ * its own partial aggregates, which are merged at the end. A query only sees the rows that were in the table when it
+ * was started.
+ *
+ * @author Andras Palfi apalfi@bu.edu
+ * @version 1.0
+ */
+public final class StatQuery {
+
+    public enum Aggregation {SUM, AVG, MAX, COUNT}
+
+    // Tables smaller than a chunk are scanned by the calling thread
+    private static final int CHUNK_SIZE = 1 << 16;
+    // The group of every row of a query that is not grouped
+    public static final int ALL = 0;
+
+    private final int[][] columns;
+    private final int size;
+    private final int numStats;
+    // The smallest and largest value of each key a row must have to be aggregated
+    private final int[] min = new int[StatTable.NUM_KEYS];
+    private final int[] max = new int[StatTable.NUM_KEYS];
+    private StatTable.Key groupBy = null;
+
+    StatQuery(int[][] columns, int size, int numStats) {
+        this.columns = columns;
+        this.size = size;
+        this.numStats = numStats;
+        Arrays.fill(min, Integer.MIN_VALUE);
+        Arrays.fill(max, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Only aggregates rows with a particular value of a key, such as the games of one team
+     *
+     * @param key   StatTable.Key
+     * @param value int
+     * @return StatQuery: This query
+     */
+    public StatQuery where(StatTable.Key key, int value) {
+        return whereBetween(key, value, value);
+    }
+
+    /**
+     * Only aggregates rows with a key in a range, such as the games of a range of days
+     *
+     * @param key   StatTable.Key
+     * @param first int: The smallest value, inclusive
+     * @param last  int: The largest value, inclusive
+     * @return StatQuery: This query
+     */
+    public StatQuery whereBetween(StatTable.Key key, int first, int last) {
+        min[key.ordinal()] = Math.max(min[key.ordinal()], first);
+        max[key.ordinal()] = Math.min(max[key.ordinal()], last);
+        return this;
+    }
+
+    /**
+     * Aggregates the rows of each value of a key separately. Without a group, every row is in the group ALL.
+     *
+     * @param key StatTable.Key
+     * @return StatQuery: This query
+     */
+    public StatQuery groupBy(StatTable.Key key) {
+        groupBy = key;
+        return this;
+    }
+
+    /**
+     * Aggregates one stat over the rows of every group. AVG is the average per row, which is per game for the rows of
+     * one player or one team.
+     *
+     * @param aggregation Aggregation
+     * @param stat        Enum: A PlayerStatTypes or TeamStatTypes of the table. Ignored for COUNT, and may be null
+     * @return Map<Integer, Double>: The value of each group, only for groups with at least one row
+     */
+    public Map<Integer, Double> aggregate(Aggregation aggregation, Enum<?> stat) {
+        Map<Integer, Double> values = new HashMap<>();
+        for (Map.Entry<Integer, Partial> group : run().entrySet())
+            values.put(group.getKey(), group.getValue().get(aggregation, (stat == null) ? 0 : stat.ordinal()));
+        return values;
+    }
+
+    /**
+     * Aggregates every stat over the rows of every group
+     *
+     * @param aggregation Aggregation
+     * @return Map<Integer, double[]>: The values of each group indexed by the ordinal of the stat, only for groups with
+     * at least one row
+     */
+    public Map<Integer, double[]> aggregateAll(Aggregation aggregation) {
+        Map<Integer, double[]> values = new HashMap<>();
+        for (Map.Entry<Integer, Partial> group : run().entrySet()) {
+            double[] stats = new double[numStats];
+            for (int s = 0; s < numStats; s++)
+                stats[s] = group.getValue().get(aggregation, s);
+            values.put(group.getKey(), stats);
+        }
+        return values;
+    }
+
+    /**
+     * Scans every chunk of rows, in parallel if there is more than one, and merges their partial aggregates
+     */
+    private Map<Integer, Partial> run() {
+        int numChunks = (size + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        if (numChunks <= 1)
+            return scan(0, size);
+        List<Map<Integer, Partial>> chunks;
+        try {
+            chunks = SimulationExecutor.getInstance().runChunks(numChunks,
+                    chunk -> scan(chunk * CHUNK_SIZE, Math.min(size, (chunk + 1) * CHUNK_SIZE)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+        Map<Integer, Partial> groups = chunks.get(0);
+        for (Map<Integer, Partial> chunk : chunks.subList(1, chunks.size()))
+            groups = merge(groups, chunk);
+        return groups;
+    }
+
+    private Map<Integer, Partial> scan(int from, int to) {
+        Map<Integer, Partial> groups = new HashMap<>();
+        int[] groupColumn = (groupBy == null) ? null : columns[groupBy.ordinal()];
+        rows:
+        for (int row = from; row < to; row++) {
+            for (int k = 0; k < StatTable.NUM_KEYS; k++) {
+                int value = columns[k][row];
+                if (value < min[k] || value > max[k])
+                    continue rows;
+            }
+            int group = (groupColumn == null) ? ALL : groupColumn[row];
+            Partial partial = groups.get(group);
+            if (partial == null) {
+                partial = new Partial(numStats);
+                groups.put(group, partial);
+            }
+            partial.add(columns, row);
+        }
+        return groups;
+    }
+
+    private static Map<Integer, Partial> merge(Map<Integer, Partial> a, Map<Integer, Partial> b) {
+        for (Map.Entry<Integer, Partial> group : b.entrySet())
+            a.merge(group.getKey(), group.getValue(), Partial::merge);
+        return a;
+    }
+
+    /**
+     * The running aggregates of one group over part of the rows
+     */
+    private static final class Partial {
+        private long count = 0;
+        private final long[] sums;
+        private final int[] maxes;
+
+        Partial(int numStats) {
+            sums = new long[numStats];
+            maxes = new int[numStats];
+            Arrays.fill(maxes, Integer.MIN_VALUE);
+        }
+
+        void add(int[][] columns, int row) {
+            count++;
+            for (int s = 0; s < sums.length; s++) {
+                int value = columns[StatTable.NUM_KEYS + s][row];
+                sums[s] += value;
+                maxes[s] = Math.max(maxes[s], value);
+            }
+        }
+
+        Partial merge(Partial other) {
+            count += other.count;
+            for (int s = 0; s < sums.length; s++) {
+                sums[s] += other.sums[s];
+                maxes[s] = Math.max(maxes[s], other.maxes[s]);
+            }
+            return this;
+        }
+
+        double get(Aggregation aggregation, int stat) {
+            switch (aggregation) {
+                case SUM:
+                    return sums[stat];
+                case AVG:
+                    return (double) sums[stat] / count;
+                case MAX:
+                    return maxes[stat];
+                default:
+                    return count;
+            }
+        }
+    }
+}
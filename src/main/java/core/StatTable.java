@@ -0,0 +1,135 @@
+package core;
+
+import java.util.Arrays;
+
+/**
+ * CS-622
+ * StatTable.java
+ * <p>
+ * A StatTable holds the box scores of every game played, one row per player or team per game, as primitive columns:
+ * the player, team, game, season and day of the row, then one column per stat. Rows are only ever appended, once per
+ * game when the game is recorded, so queries read the rows that were there when they started without locking the
+ * table while they run. Queries are made with a StatQuery.
+ *
+ * @author Andras Palfi apalfi@bu.edu
+ * @version 1.0
+ */
+public final class StatTable {
+
+    /**
+     * The columns every row is keyed by. A row of team stats has no player, and its PID is -1. Days are numbered from
+     * 0 in every season.
+     */
+    public enum Key {PID, TID, GID, SEASON, DAY}
+
+    private static final int INITIAL_CAPACITY = 1024;
+    static final int NUM_KEYS = Key.values().length;
+
+    private final int numStats;
+    // Indexed by column, the keys first and then the ordinals of the stats, then by row. Guarded by this
+    private int[][] columns;
+    private int size = 0;
+    private int lastDay = -1;
+
+    /**
+     * @param statTypes Class: PlayerStatTypes or TeamStatTypes
+     */
+    StatTable(Class<? extends Enum<?>> statTypes) {
+        this.numStats = statTypes.getEnumConstants().length;
+        this.columns = new int[NUM_KEYS + numStats][INITIAL_CAPACITY];
+    }
+
+    /**
+     * Appends the stats of a player or team in one game
+     *
+     * @param pid    int: The player, or -1 for a row of team stats
+     * @param tid    int
+     * @param gid    int
+     * @param season int
+     * @param day    int
+     * @param stats  int[]: The value of every stat, indexed by the ordinal of the stat
+     */
+    synchronized void append(int pid, int tid, int gid, int season, int day, int[] stats) {
+        assert stats.length == numStats;
+        if (size == columns[0].length) {
+            // Columns are copied when they grow, so queries that already hold the old ones keep reading them
+            int[][] grown = new int[columns.length][];
+            for (int c = 0; c < columns.length; c++)
+                grown[c] = Arrays.copyOf(columns[c], size * 2);
+            columns = grown;
+        }
+        columns[Key.PID.ordinal()][size] = pid;
+        columns[Key.TID.ordinal()][size] = tid;
+        columns[Key.GID.ordinal()][size] = gid;
+        columns[Key.SEASON.ordinal()][size] = season;
+        columns[Key.DAY.ordinal()][size] = day;
+        for (int s = 0; s < numStats; s++)
+            columns[NUM_KEYS + s][size] = stats[s];
+        size++;
+        lastDay = Math.max(lastDay, day);
+    }
+
+    /**
+     * Appends every row of another table of the same stat type
+     *
+     * @param other StatTable
+     */
+    void appendAll(StatTable other) {
+        assert other.numStats == numStats && other != this;
+        int[][] otherColumns;
+        int otherSize;
+        synchronized (other) {
+            otherColumns = other.columns;
+            otherSize = other.size;
+        }
+        // Rows below the size of the other table are never written again, so they are read without its lock
+        int[] stats = new int[numStats];
+        for (int row = 0; row < otherSize; row++) {
+            for (int s = 0; s < numStats; s++)
+                stats[s] = otherColumns[NUM_KEYS + s][row];
+            append(otherColumns[Key.PID.ordinal()][row], otherColumns[Key.TID.ordinal()][row],
+                    otherColumns[Key.GID.ordinal()][row], otherColumns[Key.SEASON.ordinal()][row],
+                    otherColumns[Key.DAY.ordinal()][row], stats);
+        }
+    }
+
+    /**
+     * Removes every row, for when the stats are loaded again
+     */
+    synchronized void clear() {
+        columns = new int[NUM_KEYS + numStats][INITIAL_CAPACITY];
+        size = 0;
+        lastDay = -1;
+    }
+
+    /**
+     * Copies the values of one stat in every row
+     *
+     * @param stat Enum: A PlayerStatTypes or TeamStatTypes of the table
+     * @return int[]
+     */
+    synchronized int[] copyStatColumn(Enum<?> stat) {
+        return Arrays.copyOf(columns[NUM_KEYS + stat.ordinal()], size);
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * @return int: The last day with a row, or -1 if the table is empty. Only meaningful for a table of one season
+     */
+    public synchronized int getLastDay() {
+        return lastDay;
+    }
+
+    /**
+     * Starts a query over the rows of the table as they are now
+     *
+     * @return StatQuery
+     */
+    public synchronized StatQuery query() {
+        // Rows below size are never written again, so the query can read them without holding the lock
+        return new StatQuery(columns, size, numStats);
+    }
+}
@@ -0,0 +1,84 @@
+package core;
+
+/**
+ * CS-622
+ * StatTotals.java
+ * <p>
+ * StatTotals keeps the running season totals of every stat of a player or a team, and how many games it has played.
+ * The totals are added to once per finished game, so totals and averages are read without going through the stat
+ * entity of every game. They can be rebuilt from the stat tables when a league is loaded.
+ *
+ * @param <S> The stat types, PlayerStatTypes or TeamStatTypes
+ * @author Andras Palfi apalfi@bu.edu
+ * @version 1.0
+ */
+final class StatTotals<S extends Enum<S>> {
+
+    // Indexed by the ordinal of the stat
+    private final int[] totals;
+    private int gamesPlayed = 0;
+
+    StatTotals(Class<S> statTypes) {
+        totals = new int[statTypes.getEnumConstants().length];
+    }
+
+    /**
+     * Adds the stats of a finished game
+     *
+     * @param stats int[]: The value of every stat in the game, indexed by the ordinal of the stat
+     */
+    synchronized void addGame(int[] stats) {
+        assert stats.length == totals.length;
+        for (int i = 0; i < totals.length; i++)
+            totals[i] += stats[i];
+        gamesPlayed++;
+    }
+
+    /**
+     * Replaces the totals with ones read from the stat tables
+     *
+     * @param stats       int[]: The total of every stat, indexed by the ordinal of the stat
+     * @param gamesPlayed int
+     */
+    synchronized void reset(int[] stats, int gamesPlayed) {
+        assert stats.length == totals.length;
+        System.arraycopy(stats, 0, totals, 0, totals.length);
+        this.gamesPlayed = gamesPlayed;
+    }
+
+    synchronized int getTotal(S stat) {
+        return totals[stat.ordinal()];
+    }
+
+    /**
+     * @param ordinal int: The ordinal of the stat
+     * @return int: The total of the stat
+     */
+    synchronized int getTotal(int ordinal) {
+        return totals[ordinal];
+    }
+
+    /**
+     * Copies every total into a column of stat arrays
+     *
+     * @param columns int[][]: Indexed by the ordinal of the stat, then by row
+     * @param row     int: The row to copy the totals to
+     * @return int: The games played
+     */
+    synchronized int copyTo(int[][] columns, int row) {
+        for (int i = 0; i < totals.length; i++)
+            columns[i][row] = totals[i];
+        return gamesPlayed;
+    }
+
+    synchronized int getGamesPlayed() {
+        return gamesPlayed;
+    }
+
+    /**
+     * @return double: The average of a stat per game played, or 0 before the first game
+     */
+    synchronized double getAverage(S stat) {
+        return (gamesPlayed == 0) ? 0.0 : (double) totals[stat.ordinal()] / gamesPlayed;
+    }
+}
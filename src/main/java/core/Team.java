@@ -11,9 +11,7 @@ import javafx.collections.ObservableList;
 import utilities.DatabaseConnection;
 
 import java.io.IOException;
-import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
-import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.AbstractMap;
@@ -38,6 +36,10 @@ public class Team extends AbstractEntity {
 
     public static final List<TeamAttributes> NON_GAME_RELATED_ATTRS = Arrays.asList(TeamAttributes.ROSTER);
     private List<TeamStat> teamStats = new LinkedList<>();
+    // Season totals of the games played, kept up to date as games finish
+    private final StatTotals<TeamStatTypes> statTotals = new StatTotals<>(TeamStatTypes.class);
+    // Season totals of the opponents of this team in the games it played
+    private final StatTotals<TeamStatTypes> opponentStatTotals = new StatTotals<>(TeamStatTypes.class);
 
     public Team(int id, String name) throws SQLException {
         super(createIDMap(EntityType.TEAM, id), name, "teams");
@@ -46,14 +48,52 @@ public class Team extends AbstractEntity {
             teamStats.add(new TeamStat(statEntries.getInt("tid"), statEntries.getInt("gid")));
     }
 
+    private Team(int id, String name, Map<String, Object> attributes) {
+        super(createIDMap(EntityType.TEAM, id), name, "teams", attributes);
+    }
+
+    /**
+     * Creates a new team with an empty roster in memory only. Its row has to be written with insertAll() before any
+     * player is added to it.
+     *
+     * @param id   int
+     * @param name String
+     * @return Team
+     */
+    static Team createInMemory(int id, String name) {
+        Team team = new Team(id, name, new LinkedHashMap<>());
+        team.initializeAttributesInMemory();
+        return team;
+    }
+
     @Override
     public void initializeAttributes() {
         // First initialize the Team roster attribute
         ObservableList<Player>
                 roster = FXCollections.observableArrayList();
-        // The roster attribute stores an observable list. Whenever a player
-        // is added to this team, the Team Attributes are re calculated with the
-        // new players individual attributes taken into consideration
+        watchRoster(roster);
+        setEntityAttribute(TeamAttributes.ROSTER.toString(), roster);
+        // Now initialize all other attributes, which are basically averages of player attributes for this team
+        for (String attribute : getAttributeNames()) {
+            if (!NON_GAME_RELATED_ATTRS.contains(TeamAttributes.valueOf(attribute))) {
+                PlayerAttributes a = PlayerAttributes.valueOf(attribute);
+                double avg = 0.0;
+                if (getRosterSize() > 0) {
+                    for (Player p : getRoster())
+                        avg += (Double) p.getEntityAttribute(attribute);
+                    setEntityAttribute(attribute, avg / getRoster().size());
+                } else {
+                    setEntityAttribute(attribute, avg);
+                }
+            }
+        }
+    }
+
+    /**
+     * The roster attribute stores an observable list. Whenever a player is added to this team, the Team Attributes
+     * are re calculated with the new players individual attributes taken into consideration
+     */
+    private void watchRoster(ObservableList<Player> roster) {
         roster.addListener((ListChangeListener<Player>) change -> {
             while (change.next()) {
                 if (change.wasAdded())
@@ -78,23 +118,30 @@ public class Team extends AbstractEntity {
                 setEntityAttribute(TeamAttributes.ROSTER.toString(), roster);
             }
         });
-        setEntityAttribute(TeamAttributes.ROSTER.toString(), roster);
-        // Now initialize all other attributes, which are basically averages of player attributes for this team
-        for (String attribute : getAttributeNames()) {
-            if (!NON_GAME_RELATED_ATTRS.contains(TeamAttributes.valueOf(attribute))) {
-                PlayerAttributes a = PlayerAttributes.valueOf(attribute);
-                double avg = 0.0;
-                if (getRosterSize() > 0) {
-                    for (Player p : getRoster())
-                        avg += (Double) p.getEntityAttribute(attribute);
-                    setEntityAttribute(attribute, avg / getRoster().size());
-                } else {
-                    setEntityAttribute(attribute, avg);
-                }
-            }
+    }
+
+    @Override
+    Object getColumnValue(String attribute) {
+        if (!NON_GAME_RELATED_ATTRS.contains(TeamAttributes.valueOf(attribute)))
+            return super.getColumnValue(attribute);
+        try {
+            return serializeRoster(getEntityAttribute(attribute));
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
         }
     }
 
+    /**
+     * Serializes a roster the way it is stored in the ROSTER column
+     */
+    private static byte[] serializeRoster(Object roster) throws IOException {
+        ByteOutputStream bos = new ByteOutputStream();
+        ObjectOutputStream oos = new ObjectOutputStream(bos);
+        oos.writeObject(new LinkedList<Player>((ObservableList<Player>) roster));
+        return bos.getBytes();
+    }
+
     @Override
     public void updateEntityAttribute(String attribute, Object value) {
         if (!NON_GAME_RELATED_ATTRS.contains(TeamAttributes.valueOf(attribute)))
@@ -102,16 +149,14 @@ public class Team extends AbstractEntity {
         else {
             assert attribute.equals("ROSTER");
             try {
-                ByteOutputStream bos = new ByteOutputStream();
-                ObjectOutputStream oos = new ObjectOutputStream(bos);
-                oos.writeObject(new LinkedList<Player>((ObservableList<Player>) value));
-                byte[] byteArray = bos.getBytes();
+                byte[] byteArray = serializeRoster(value);
                 String sql = "UPDATE teams set ROSTER=? where tid=?";
-                PreparedStatement statement = DatabaseConnection.getInstance().getBlankPreparedStatement(sql);
                 try {
-                    statement.setBytes(1, byteArray);
-                    statement.setInt(2, getID());
-                    statement.execute();
+                    DatabaseConnection.getInstance().executeStatement(sql, statement -> {
+                        statement.setBytes(1, byteArray);
+                        statement.setInt(2, getID());
+                        statement.execute();
+                    });
                 } catch (SQLException e) {
                     e.printStackTrace();
                 }
@@ -121,27 +166,30 @@ public class Team extends AbstractEntity {
         }
     }
 
+    /**
+     * The roster is left empty until restoreRoster() is called with the loaded players, since the players stored in
+     * the ROSTER column are copies rather than the players of the league
+     */
     @Override
-    public void reloadEntityAttributes() {
-        Map<String, Object> attributes = new LinkedHashMap<>();
-        for (String attr : getAttributeNames()) {
-            ResultSet resultSet = DatabaseConnection.getInstance().executeQuery("SELECT " +
-                    attr + " from " + tableName + " WHERE " + createEntityIDString());
-            try {
-                if (!Team.NON_GAME_RELATED_ATTRS.contains(TeamAttributes.valueOf(attr))) {
-                    attributes.put(attr, resultSet.getObject(attr));
-                } else {
-                    ObjectInputStream ois = new ObjectInputStream(resultSet.getBinaryStream(1));
-                    ObservableList<Player> roster = FXCollections.observableArrayList((List<Player>) ois.readObject());
-                    attributes.put(attr, roster);
-                }
-            } catch (SQLException | IOException | ClassNotFoundException e) {
-                e.printStackTrace();
-            }
-
-        }
+    Object readColumnValue(ResultSet resultSet, String attribute) throws SQLException {
+        if (!NON_GAME_RELATED_ATTRS.contains(TeamAttributes.valueOf(attribute)))
+            return super.readColumnValue(resultSet, attribute);
+        return FXCollections.observableArrayList();
     }
 
+    /**
+     * Restores the roster of a loaded team from the players whose TEAM_ID is this team, without writing anything
+     *
+     * @param players List<Player>: Every player of the league
+     */
+    void restoreRoster(List<Player> players) {
+        ObservableList<Player> roster = FXCollections.observableArrayList();
+        for (Player p : players)
+            if (Integer.valueOf(getID()).equals(p.getEntityAttribute("TEAM_ID")))
+                roster.add(p);
+        watchRoster(roster);
+        setEntityAttributeInMemory(TeamAttributes.ROSTER.toString(), roster);
+    }
 
     public ObservableList<Player> getRoster() {
         return (ObservableList<Player>) getEntityAttribute(TeamAttributes.ROSTER.toString());
@@ -196,11 +244,15 @@ public class Team extends AbstractEntity {
     public void addPlayerToRoster(Player p) {
         assert !getRoster().contains(p);
         getRoster().add(p);
+        League.getInstance().getFreeAgentPool().remove(p);
+        League.getInstance().getQueryCache().advance();
     }
 
     public void removePlayerFromRoster(Player p) {
         assert getRoster().contains(p);
         getRoster().remove(p);
+        League.getInstance().getFreeAgentPool().add(p);
+        League.getInstance().getQueryCache().advance();
     }
 
     public int getRosterSize() {
@@ -240,14 +292,31 @@ public class Team extends AbstractEntity {
         teamStats.add(stat);
     }
 
+    StatTotals<TeamStatTypes> getStatTotals() {
+        return statTotals;
+    }
+
+    StatTotals<TeamStatTypes> getOpponentStatTotals() {
+        return opponentStatTotals;
+    }
+
+    /**
+     * Clears the stats of the finished season of this team, which are kept by the SeasonArchive
+     */
+    void startNewSeason() {
+        teamStats.clear();
+        statTotals.reset(new int[TeamStatTypes.values().length], 0);
+        opponentStatTotals.reset(new int[TeamStatTypes.values().length], 0);
+    }
+
+    /**
+     * Returns the average of a stat per game played this season, or 0 if the team has not played yet
+     */
     public double getAvgValueOfTeamStat(TeamStatTypes statType) {
-        return getSumOfTeamStat(statType) / getTeamStats().size();
+        return statTotals.getAverage(statType);
     }
 
     public int getSumOfTeamStat(TeamStatTypes statType) {
-        int sum = 0;
-        for (TeamStat stat : getTeamStats())
-            sum += (int) stat.getEntityAttribute(statType.toString());
-        return sum;
+        return statTotals.getTotal(statType);
     }
 }
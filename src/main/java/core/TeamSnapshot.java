@@ -0,0 +1,119 @@
+package core;
+
+import attributes.PlayerAttributes;
+
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+/**
+ * CS-622
+ * TeamSnapshot.java
+ * <p>
+ * The TeamSnapshot class is an immutable copy of everything a GameEngine needs to know about a team: its roster ranked
+ * by overall rating, the game related attributes of each player and the tendencies of the team. Players are referred
+ * to by their slot in the ranked roster.
+ * <p>
+ * Since a snapshot never changes once it is taken, one snapshot can be shared by any number of games running at the
+ * same time without touching the Team, its players or the database.
+ *
+ * @author Andras Palfi apalfi@bu.edu
+ * @version 1.0
+ */
+final class TeamSnapshot {
+
+    private final Team team;
+    // The teams roster ordered by overall rating
+    private final Player[] rankedRoster;
+    // The value of each game related attribute for every roster slot: [attribute ordinal][slot]
+    private final double[][] attributes;
+    // The roster slots ordered by each game related attribute, best player first
+    private final Map<PlayerAttributes, int[]> slotsByAttribute = new EnumMap<>(PlayerAttributes.class);
+    private final TeamTendencies tendencies;
+
+    TeamSnapshot(Team team) {
+        this(team, team.getRankedRoster().toArray(new Player[0]));
+    }
+
+    private TeamSnapshot(Team team, Player[] rankedRoster) {
+        this(team, rankedRoster, new TeamTendencies(team, rankedRoster, GameEngine.GAME_LENGTH_MIN));
+    }
+
+    /**
+     * Takes a snapshot of a roster with given tendencies instead of the ones of its team, which is how the engines
+     * are tested without a league
+     *
+     * @param team         Team
+     * @param rankedRoster Player[]: The roster in the order that games index its players
+     * @param tendencies   TeamTendencies
+     */
+    TeamSnapshot(Team team, Player[] rankedRoster, TeamTendencies tendencies) {
+        this.team = team;
+        this.rankedRoster = rankedRoster;
+        this.attributes = new double[PlayerAttributes.values().length][];
+        for (PlayerAttributes attr : PlayerAttributes.values()) {
+            if (Player.NON_GAME_RELATED_ATTRS.contains(attr))
+                continue;
+            double[] values = new double[rankedRoster.length];
+            for (int slot = 0; slot < rankedRoster.length; slot++)
+                values[slot] = (Double) rankedRoster[slot].getEntityAttribute(attr.toString());
+            attributes[attr.ordinal()] = values;
+            slotsByAttribute.put(attr, IntStream.range(0, rankedRoster.length).boxed()
+                    .sorted(Comparator.comparingDouble((Integer slot) -> values[slot]).reversed())
+                    .mapToInt(Integer::intValue).toArray());
+        }
+        this.tendencies = tendencies;
+    }
+
+    Team getTeam() {
+        return team;
+    }
+
+    int getRosterSize() {
+        return rankedRoster.length;
+    }
+
+    Player getPlayer(int slot) {
+        return rankedRoster[slot];
+    }
+
+    /**
+     * Returns the roster slot of a player, or -1 if the player was not on the roster when this snapshot was taken
+     *
+     * @param player Player
+     * @return int
+     */
+    int getSlot(Player player) {
+        for (int slot = 0; slot < rankedRoster.length; slot++)
+            if (rankedRoster[slot] == player)
+                return slot;
+        return -1;
+    }
+
+    /**
+     * Returns the value of a game related attribute for the player in a roster slot
+     *
+     * @param attr PlayerAttributes
+     * @param slot int
+     * @return double
+     */
+    double getAttribute(PlayerAttributes attr, int slot) {
+        return attributes[attr.ordinal()][slot];
+    }
+
+    /**
+     * Returns the roster slots sorted based off which player has the highest value for a game related attribute
+     *
+     * @param attr PlayerAttributes
+     * @return int[]
+     */
+    int[] getSlotsSortedByAttribute(PlayerAttributes attr) {
+        assert !Player.NON_GAME_RELATED_ATTRS.contains(attr);
+        return slotsByAttribute.get(attr);
+    }
+
+    TeamTendencies getTendencies() {
+        return tendencies;
+    }
+}
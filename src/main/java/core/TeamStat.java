@@ -2,7 +2,6 @@ package core;
 
 import utilities.DatabaseConnection;
 
-import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 
@@ -26,12 +25,13 @@ public class TeamStat extends AbstractEntity {
     @Override
     public void createEntityInDatabase() {
         String sql = "INSERT INTO " + tableName + "(tid,gid,name) VALUES(?,?,?)";
-        PreparedStatement statement = DatabaseConnection.getInstance().getBlankPreparedStatement(sql);
         try {
-            statement.setInt(1, getIDS().get("tid"));
-            statement.setInt(2, getIDS().get("gid"));
-            statement.setString(3, getName());
-            statement.execute();
+            DatabaseConnection.getInstance().executeStatement(sql, statement -> {
+                statement.setInt(1, getIDS().get("tid"));
+                statement.setInt(2, getIDS().get("gid"));
+                statement.setString(3, getName());
+                statement.execute();
+            });
         } catch (SQLException e) {
             e.printStackTrace();
         }
@@ -48,6 +48,14 @@ public class TeamStat extends AbstractEntity {
      * Initialize all attributes (in this case they are PlayerStats) with zeroes. These will be changed
      * once the game is played.
      */
+    /**
+     * The stat columns are real, but the stats are counted as ints
+     */
+    @Override
+    Object readColumnValue(ResultSet resultSet, String attribute) throws SQLException {
+        return resultSet.getInt(attribute);
+    }
+
     @Override
     public void initializeAttributes() {
         for (String attribute : getAttributeNames())
@@ -0,0 +1,87 @@
+package core;
+
+import attributes.PlayerStatTypes;
+import attributes.TeamStatTypes;
+
+/**
+ * CS-622
+ * TeamTendencies.java
+ * <p>
+ * The TeamTendencies class is a snapshot of the season-to-date tendencies of a team and its players that the
+ * GameEngine uses to make decisions during a game. It is captured once at tip-off, so the full stat history of a
+ * team only has to be summed once per game instead of on every possession.
+ *
+ * @author Andras Palfi apalfi@bu.edu
+ * @version 1.0
+ */
+final class TeamTendencies {
+
+    // The chance of a turnover on any possession based off the teams average turnovers per game. 0 if unknown
+    private final double turnoverProbability;
+    // The three point cutoff point of each player, indexed by their slot in the ranked roster
+    private final double[] threePointCutoffPoints;
+
+    /**
+     * Captures the tendencies of a team.
+     *
+     * @param team          Team: The team to capture
+     * @param rankedRoster  Player[]: The roster of the team in the order that the game indexes its players
+     * @param gameLengthMin int: The length of a game in minutes
+     */
+    TeamTendencies(Team team, Player[] rankedRoster, int gameLengthMin) {
+        turnoverProbability = team.getAvgValueOfTeamStat(TeamStatTypes.TEAM_TOV) / gameLengthMin;
+        int teamThreePointMade = team.getSumOfTeamStat(TeamStatTypes.TEAM_THREE_POINT_MADE);
+        int teamThreePointAttempts = team.getSumOfTeamStat(TeamStatTypes.TEAM_THREE_POINT_ATTEMPTS);
+        threePointCutoffPoints = new double[rankedRoster.length];
+        for (int slot = 0; slot < rankedRoster.length; slot++)
+            threePointCutoffPoints[slot] = computeThreePointCutoffPoint(
+                    rankedRoster[slot].getSumOfPlayerStat(PlayerStatTypes.THREE_POINT_MADE),
+                    rankedRoster[slot].getSumOfPlayerStat(PlayerStatTypes.THREE_POINT_ATTEMPTS),
+                    teamThreePointMade, teamThreePointAttempts);
+    }
+
+    /**
+     * Creates tendencies from known values, such as a team that is tested without a league
+     *
+     * @param turnoverProbability    double: The chance of a turnover on any possession, 0 if unknown
+     * @param threePointCutoffPoints double[]: The cutoff point of each player, indexed by roster slot
+     */
+    TeamTendencies(double turnoverProbability, double[] threePointCutoffPoints) {
+        this.turnoverProbability = turnoverProbability;
+        this.threePointCutoffPoints = threePointCutoffPoints.clone();
+    }
+
+    /**
+     * The three point cutoff point is a mix of the players and teams three point percentage. If either of them have
+     * not made a three pointer yet, there is no cutoff point.
+     *
+     * @return double
+     */
+    static double computeThreePointCutoffPoint(int playerMade, int playerAttempts, int teamMade, int teamAttempts) {
+        if (playerAttempts == 0 || teamAttempts == 0)
+            return 0;
+        double playerThreePtPercent = (double) playerMade / playerAttempts;
+        double teamThreePtPercent = (double) teamMade / teamAttempts;
+        return (playerThreePtPercent == 0 || teamThreePtPercent == 0) ?
+                0 : ((playerThreePtPercent + teamThreePtPercent) / 0.2) * 0.3;
+    }
+
+    /**
+     * Returns the chance of a turnover on a possession, or 0 if the team has no history of turnovers
+     *
+     * @return double
+     */
+    double getTurnoverProbability() {
+        return turnoverProbability;
+    }
+
+    /**
+     * Returns the three point cutoff point of the player in a roster slot
+     *
+     * @param slot int
+     * @return double
+     */
+    double getThreePointCutoffPoint(int slot) {
+        return threePointCutoffPoints[slot];
+    }
+}
@@ -5,6 +5,7 @@ import attributes.PlayerAttributes;
 import attributes.PlayerStatTypes;
 import attributes.TeamAttributes;
 import attributes.TeamStatTypes;
+import core.LeagueContext;
 import core.Team;
 
 import java.sql.Connection;
@@ -12,6 +13,8 @@ import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.sql.Statement;
 import java.util.Arrays;
 import java.util.List;
 
@@ -43,25 +46,63 @@ public class DatabaseConnection {
         }
     }
 
+    /**
+     * Wraps a connection that is already open and whose tables are already set up, such as one used by a test
+     *
+     * @param connection Connection
+     */
+    DatabaseConnection(Connection connection) {
+        this.connection = connection;
+    }
+
+    /**
+     * Returns the connection of the league context bound to the calling thread, or the program wide connection if
+     * there is none
+     *
+     * @return DatabaseConnection
+     */
     public static DatabaseConnection getInstance() {
+        LeagueContext context = LeagueContext.current();
+        if (context != null)
+            return context.getDatabase();
         assert databaseConnection != null;
         return databaseConnection;
     }
 
     public static DatabaseConnection getInstance(String saveFilePath, boolean deleteIfNotNew) {
         assert databaseConnection == null;
-        databaseConnection = new DatabaseConnection(saveFilePath);
-        if (deleteIfNotNew)
-            clearDB();
+        databaseConnection = open(saveFilePath, deleteIfNotNew);
         return databaseConnection;
     }
 
-    private static void clearDB() {
-        DatabaseConnection.getInstance().clearTables();
+    /**
+     * Opens a connection that is not the program wide one, for a LeagueContext. The caller closes it.
+     *
+     * @param saveFilePath   String
+     * @param deleteIfNotNew boolean: Clears every table of the save file
+     * @return DatabaseConnection
+     */
+    public static DatabaseConnection open(String saveFilePath, boolean deleteIfNotNew) {
+        DatabaseConnection db = new DatabaseConnection(saveFilePath);
+        if (deleteIfNotNew)
+            db.clearTables();
+        return db;
+    }
+
+    /**
+     * Closes the connection
+     */
+    public synchronized void close() {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
     }
 
     private void clearTables() {
-        List<String> tables = Arrays.asList("teams", "players", "team_stats", "player_stats", "games", "league");
+        List<String> tables = Arrays.asList("teams", "players", "team_stats", "player_stats", "games", "league",
+                "player_seasons", "team_seasons", "archived_games");
         for (String table : tables) {
             String sql = "DELETE FROM " + table;
             try {
@@ -75,18 +116,60 @@ public class DatabaseConnection {
     /**
      * Executes a sql query
      */
-    public void executeSQL(String sql) {
-        try {
-            connection.createStatement().execute(sql);
+    public synchronized void executeSQL(String sql) {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
         } catch (SQLException e) {
             e.printStackTrace();
         }
     }
 
+    /**
+     * Runs a unit of work in a single transaction. Every statement the work executes on this connection is committed
+     * together, or rolled back if the commit fails. Other threads cannot use the connection until the work is done.
+     *
+     * @throws IllegalStateException if the transaction could not be committed or rolled back, so the caller knows
+     *                               the work was not saved
+     */
+    public synchronized void executeInTransaction(Runnable work) {
+        try {
+            connection.setAutoCommit(false);
+            try {
+                work.run();
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Runs part of a transaction under a savepoint. If the work throws, everything it executed is rolled back and the
+     * rest of the transaction goes on. Must be called from inside executeInTransaction.
+     *
+     * @param work SavepointWork
+     * @throws SQLException if the work or the savepoint failed
+     */
+    public synchronized void executeInSavepoint(SavepointWork work) throws SQLException {
+        Savepoint savepoint = connection.setSavepoint();
+        try {
+            work.execute();
+        } catch (SQLException | RuntimeException e) {
+            connection.rollback(savepoint);
+            throw e;
+        }
+        connection.releaseSavepoint(savepoint);
+    }
+
     /**
      * Executes a query and return a ResultSet
      */
-    public ResultSet executeQuery(String sql) {
+    public synchronized ResultSet executeQuery(String sql) {
         try {
             return connection.createStatement().executeQuery(sql);
         } catch (SQLException e) {
@@ -105,6 +188,8 @@ public class DatabaseConnection {
         createTeamStatsTable();
         createLeagueTable();
         createGamesTable();
+        createSeasonTables();
+        upgradeTables();
     }
 
     /**
@@ -175,10 +260,59 @@ public class DatabaseConnection {
      */
     private void createGamesTable() {
         String sql = "CREATE TABLE IF NOT EXISTS games (gid integer PRIMARY_KEY, name text NOT NULL, GAME_CLOCK integer," +
-                " HOME_TEAM integer, AWAY_TEAM integer, GAME_LOG BLOB)";
+                " HOME_TEAM integer, AWAY_TEAM integer, GAME_LOG BLOB, DAY integer)";
         executeSQL(sql);
     }
 
+    /**
+     * Creates the tables of finished seasons: the season totals of every player and team, and the compressed box
+     * scores and logs of the games, which are only read when they are asked for
+     */
+    private void createSeasonTables() {
+        StringBuilder sql = new StringBuilder("CREATE TABLE IF NOT EXISTS player_seasons ");
+        sql.append("( pid integer NOT NULL, season integer NOT NULL, tid integer NOT NULL, GAMES_PLAYED integer, ");
+        for (PlayerStatTypes stat : PlayerStatTypes.values())
+            sql.append(stat.toString()).append(" integer,");
+        sql.append(" PRIMARY KEY (pid, season, tid));");
+        executeSQL(sql.toString());
+        sql = new StringBuilder("CREATE TABLE IF NOT EXISTS team_seasons ");
+        sql.append("( tid integer NOT NULL, season integer NOT NULL, GAMES_PLAYED integer, WINS integer, ")
+                .append("LOSSES integer, ");
+        for (TeamStatTypes stat : TeamStatTypes.values())
+            sql.append(stat.toString()).append(" integer,");
+        sql.append(" PRIMARY KEY (tid, season));");
+        executeSQL(sql.toString());
+        executeSQL("CREATE TABLE IF NOT EXISTS archived_games (gid integer PRIMARY KEY, season integer NOT NULL, " +
+                "data BLOB)");
+        executeSQL("CREATE INDEX IF NOT EXISTS archived_games_season ON archived_games (season)");
+    }
+
+    /**
+     * Brings the tables of a league saved by an older version up to date by adding any columns it is missing
+     */
+    private void upgradeTables() {
+        addColumnIfMissing("games", "DAY", "integer");
+        addColumnIfMissing("league", LeagueAttributes.SEED.toString(), "integer");
+        addColumnIfMissing("league", LeagueAttributes.NEXT_ID.toString(), "integer");
+        addColumnIfMissing("league", LeagueAttributes.SEASON.toString(), "integer");
+    }
+
+    /**
+     * Adds a column to a table unless the table already has it
+     */
+    private void addColumnIfMissing(String table, String column, String type) {
+        try (Statement statement = connection.createStatement();
+             ResultSet columns = statement.executeQuery("PRAGMA table_info(" + table + ")")) {
+            while (columns.next())
+                if (columns.getString("name").equalsIgnoreCase(column))
+                    return;
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return;
+        }
+        executeSQL("ALTER TABLE " + table + " ADD COLUMN " + column + " " + type);
+    }
+
 
     /**
      * Returns the data stored in the league table.
@@ -218,12 +352,43 @@ public class DatabaseConnection {
         return executeQuery(sql);
     }
 
-    public PreparedStatement getBlankPreparedStatement(String sql) {
-        try {
-            return connection.prepareStatement(sql);
-        } catch (SQLException e) {
-            e.printStackTrace();
-            return null;
+    public ResultSet getSeasonEntriesForPlayer(int pid) {
+        String sql = "SELECT * from player_seasons WHERE pid=" + pid + " ORDER BY season";
+        return executeQuery(sql);
+    }
+
+    public ResultSet getSeasonEntriesForTeam(int tid) {
+        String sql = "SELECT * from team_seasons WHERE tid=" + tid + " ORDER BY season";
+        return executeQuery(sql);
+    }
+
+    /**
+     * Binds the parameters of a prepared statement and executes it
+     */
+    public interface StatementWork {
+        void execute(PreparedStatement statement) throws SQLException;
+    }
+
+    /**
+     * Executes statements on this connection under a savepoint
+     */
+    public interface SavepointWork {
+        void execute() throws SQLException;
+    }
+
+    /**
+     * Prepares a statement, has it bound and executed, then closes it, all while holding this connection. A statement
+     * from another thread therefore never runs in the middle of executeInTransaction, where it would be committed or
+     * rolled back with work that is not its own. Called from inside executeInTransaction, it is part of that
+     * transaction.
+     *
+     * @param sql  String
+     * @param work StatementWork
+     * @throws SQLException if the statement could not be prepared or executed
+     */
+    public synchronized void executeStatement(String sql, StatementWork work) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            work.execute(statement);
         }
     }
 
@@ -0,0 +1,130 @@
+package utilities;
+
+import attributes.LeagueAttributes;
+import core.LeagueContext;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * CS-622
+ * IdAllocator.java
+ * <p>
+ * The IdAllocator hands out the unique ids of every entity in the league. Ids are reserved from the database in blocks
+ * (hi/lo): the high-water mark, the first id that has never been handed out, is kept in the league table and moved up
+ * a whole block at a time before any id of the block is used. Each thread then hands out the ids of its own block
+ * without touching any shared state, so entities can be created in parallel without contention.
+ * <p>
+ * Because the high-water mark is saved before a block is used, a reloaded league never hands out an id that is already
+ * taken. Ids of a block that is not used up before the program exits are skipped. Leagues saved before the mark existed
+ * start above the largest id already in their tables, including the games of seasons that were archived. The block
+ * size is set by the league.id_block_size property.
+ *
+ * @author Andras Palfi apalfi@bu.edu
+ * @version 1.0
+ */
+public final class IdAllocator {
+
+    // Allocator singleton for the program wide connection
+    private static IdAllocator instance = null;
+
+    private final DatabaseConnection db;
+    private final int blockSize;
+    // Guarded by this
+    private int highWaterMark;
+    // The next id and the end of the block of the calling thread
+    private final ThreadLocal<int[]> block = ThreadLocal.withInitial(() -> new int[]{0, 0});
+
+    private IdAllocator(DatabaseConnection db, int blockSize) {
+        assert blockSize > 0;
+        this.db = db;
+        this.blockSize = blockSize;
+        this.highWaterMark = loadHighWaterMark(db);
+    }
+
+    /**
+     * Returns the allocator of the league context bound to the calling thread, or the one of the program wide
+     * connection if there is none
+     *
+     * @return IdAllocator
+     */
+    public static IdAllocator getInstance() {
+        LeagueContext context = LeagueContext.current();
+        if (context != null)
+            return context.getIdAllocator();
+        synchronized (IdAllocator.class) {
+            if (instance == null)
+                instance = create(DatabaseConnection.getInstance());
+            return instance;
+        }
+    }
+
+    /**
+     * Creates an allocator for the league saved in a connection, configured from config.properties
+     *
+     * @param db DatabaseConnection
+     * @return IdAllocator
+     */
+    public static IdAllocator create(DatabaseConnection db) {
+        return new IdAllocator(db, CoreConfiguration.getInstance().getIntProperty("league.id_block_size"));
+    }
+
+    /**
+     * Returns a new unique id
+     *
+     * @return int
+     */
+    public int nextId() {
+        int[] b = block.get();
+        if (b[0] == b[1]) {
+            b[0] = reserveBlock();
+            b[1] = b[0] + blockSize;
+        }
+        return b[0]++;
+    }
+
+    /**
+     * Returns the first id that has not been reserved yet, to be saved with a league that is created
+     *
+     * @return int
+     */
+    public synchronized int getHighWaterMark() {
+        return highWaterMark;
+    }
+
+    /**
+     * Moves the high-water mark up by a block and saves it, then returns the first id of the block
+     */
+    private synchronized int reserveBlock() {
+        int start = highWaterMark;
+        highWaterMark += blockSize;
+        db.executeSQL("UPDATE league SET " + LeagueAttributes.NEXT_ID + "=" + highWaterMark);
+        return start;
+    }
+
+    /**
+     * Reads the saved high-water mark. Leagues saved before it existed, or whose league row was written before the
+     * first block was reserved, use the largest id in their tables instead. The games of past seasons only remain in
+     * archived_games, so their ids are counted from there.
+     */
+    private static int loadHighWaterMark(DatabaseConnection db) {
+        int mark = queryInt(db, "SELECT MAX(" + LeagueAttributes.NEXT_ID + ") FROM league");
+        mark = Math.max(mark, queryInt(db, "SELECT MAX(lid) FROM league") + 1);
+        mark = Math.max(mark, queryInt(db, "SELECT MAX(pid) FROM players") + 1);
+        mark = Math.max(mark, queryInt(db, "SELECT MAX(tid) FROM teams") + 1);
+        mark = Math.max(mark, queryInt(db, "SELECT MAX(gid) FROM games") + 1);
+        mark = Math.max(mark, queryInt(db, "SELECT MAX(gid) FROM archived_games") + 1);
+        // Id 0 is never handed out, like the ids of leagues saved before the allocator
+        return Math.max(mark, 1);
+    }
+
+    private static int queryInt(DatabaseConnection db, String sql) {
+        try {
+            ResultSet rs = db.executeQuery(sql);
+            return (rs == null) ? 0 : rs.getInt(1);
+        } catch (SQLException e) {
+            e.printStackTrace();
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package utilities;
+
+import core.LeagueContext;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * CS-622
+ * PersistenceWriter.java
+ * <p>
+ * The PersistenceWriter is the single thread that writes simulation results to the database. Simulation threads
+ * publish immutable records to a bounded queue and go on with their next game, and the writer drains the queue and
+ * writes everything it finds in one transaction, so many small writes from many threads become a few large sequential
+ * ones. When the writer falls behind and the queue is full, submitting blocks until there is room again, so the
+ * simulation can never get arbitrarily far ahead of the database.
+ * <p>
+ * A record that cannot be written does not stop the rest of its batch, but it is never counted as written: the next
+ * flush() throws instead of returning, so whoever waits for the results finds out that some of them are not saved.
+ * Each record is written under its own savepoint, so a record that fails partway leaves none of its rows behind.
+ * <p>
+ * The size of the queue and of a transaction are set by the persistence.queue_capacity and
+ * persistence.max_batch_size properties.
+ *
+ * @author Andras Palfi apalfi@bu.edu
+ * @version 1.0
+ */
+public final class PersistenceWriter {
+
+    /**
+     * A result that can write itself to the database. Records must not change once they are submitted.
+     */
+    public interface Record {
+        void write(DatabaseConnection db) throws SQLException;
+    }
+
+    // Writer singleton for the program wide connection, configured from config.properties
+    private static PersistenceWriter instance = null;
+
+    private final DatabaseConnection db;
+    private final BlockingQueue<Record> queue;
+    private final int maxBatchSize;
+    private final AtomicLong submitted = new AtomicLong();
+    // Guarded by this, the writer notifies waiting flushes after every batch. Records that failed count as done
+    private long written = 0;
+    private long failed = 0;
+    private long reportedFailures = 0;
+    private Exception lastFailure = null;
+
+    private final Thread writerThread;
+    private final Thread shutdownHook;
+
+    PersistenceWriter(DatabaseConnection db, int capacity, int maxBatchSize) {
+        assert capacity > 0 && maxBatchSize > 0;
+        this.db = db;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.maxBatchSize = maxBatchSize;
+        writerThread = new Thread(this::writeRecords, "persistence-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        // Whatever is still queued when the program exits gets written first
+        shutdownHook = new Thread(() -> {
+            try {
+                flush();
+            } catch (InterruptedException | IllegalStateException e) {
+                e.printStackTrace();
+            }
+        }, "persistence-writer-flush");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    /**
+     * Returns the writer of the league context bound to the calling thread, or the one of the program wide connection
+     * if there is none
+     *
+     * @return PersistenceWriter
+     */
+    public static PersistenceWriter getInstance() {
+        LeagueContext context = LeagueContext.current();
+        if (context != null)
+            return context.getPersistenceWriter();
+        synchronized (PersistenceWriter.class) {
+            if (instance == null)
+                instance = create(DatabaseConnection.getInstance());
+            return instance;
+        }
+    }
+
+    /**
+     * Creates a writer with its own thread for a connection, configured from config.properties. The caller closes it.
+     *
+     * @param db DatabaseConnection
+     * @return PersistenceWriter
+     */
+    public static PersistenceWriter create(DatabaseConnection db) {
+        return new PersistenceWriter(db, CoreConfiguration.getInstance().getIntProperty("persistence.queue_capacity"),
+                CoreConfiguration.getInstance().getIntProperty("persistence.max_batch_size"));
+    }
+
+    /**
+     * Writes everything submitted so far, then stops the writer thread
+     *
+     * @throws InterruptedException  if the calling thread is interrupted while waiting for the last records
+     * @throws IllegalStateException if a record could not be written. The writer is stopped all the same
+     */
+    public void close() throws InterruptedException {
+        try {
+            flush();
+        } finally {
+            writerThread.interrupt();
+            try {
+                Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            } catch (IllegalStateException e) {
+                // The program is already exiting, and the hook is flushing
+            }
+        }
+    }
+
+    /**
+     * Queues a record to be written. Blocks while the queue is full. If the calling thread is interrupted while
+     * waiting, the record is written on the calling thread instead, so it is never lost, and the interrupt is kept.
+     *
+     * @param record Record
+     */
+    public void submit(Record record) {
+        submitted.incrementAndGet();
+        try {
+            queue.put(record);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            writeBatch(Collections.singletonList(record));
+        }
+    }
+
+    /**
+     * Blocks until every record submitted before this call has been written
+     *
+     * @throws InterruptedException  if the calling thread is interrupted while waiting
+     * @throws IllegalStateException if any record failed to write since the last flush that reported a failure
+     */
+    public void flush() throws InterruptedException {
+        long target = submitted.get();
+        synchronized (this) {
+            while (written < target)
+                wait();
+            if (failed > reportedFailures) {
+                long newFailures = failed - reportedFailures;
+                reportedFailures = failed;
+                throw new IllegalStateException(newFailures + " results could not be written to the database",
+                        lastFailure);
+            }
+        }
+    }
+
+    /**
+     * @return long: The number of records that could not be written
+     */
+    public synchronized long getFailedCount() {
+        return failed;
+    }
+
+    /**
+     * The loop of the writer thread: waits for a record, then writes it together with everything queued behind it
+     */
+    private void writeRecords() {
+        List<Record> batch = new ArrayList<>(maxBatchSize);
+        while (true) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.drainTo(batch, maxBatchSize - 1);
+            writeBatch(batch);
+            batch.clear();
+        }
+    }
+
+    /**
+     * Writes records in one transaction. A record that fails is rolled back to its savepoint and counted, and does not
+     * stop the rest of the batch. If the transaction itself fails, every record of the batch is counted.
+     */
+    private void writeBatch(List<Record> batch) {
+        int batchFailures = 0;
+        Exception batchFailure = null;
+        try {
+            int[] recordFailures = new int[1];
+            Exception[] recordFailure = new Exception[1];
+            db.executeInTransaction(() -> {
+                for (Record record : batch) {
+                    try {
+                        db.executeInSavepoint(() -> record.write(db));
+                    } catch (SQLException | RuntimeException e) {
+                        e.printStackTrace();
+                        recordFailures[0]++;
+                        recordFailure[0] = e;
+                    }
+                }
+            });
+            batchFailures = recordFailures[0];
+            batchFailure = recordFailure[0];
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            batchFailures = batch.size();
+            batchFailure = e;
+        }
+        synchronized (this) {
+            written += batch.size();
+            if (batchFailures > 0) {
+                failed += batchFailures;
+                lastFailure = batchFailure;
+            }
+            notifyAll();
+        }
+    }
+}
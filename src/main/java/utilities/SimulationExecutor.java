@@ -0,0 +1,333 @@
+package utilities;
+
+import core.League;
+import core.LeagueContext;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * CS-622
+ * SimulationExecutor.java
+ * <p>
+ * The SimulationExecutor runs a batch of simulation tasks, such as the games of a day, across several threads. How the
+ * work is spread over the threads is decided by a Strategy, which is picked with the simulation.executor property so
+ * that each deployment can use whichever one is fastest on its hardware:
+ * <p>
+ * fixed: a fixed pool of platform threads, one task per item
+ * workstealing: a work-stealing ForkJoinPool, one task per item
+ * chunked: a fixed pool where each thread takes one contiguous range of the items
+ * virtual: one virtual thread per item. Needs a JDK with virtual threads, and falls back to fixed otherwise
+ * <p>
+ * Every strategy reports its results the same way: the completion callback is called as soon as an item is done, on
+ * the thread that ran it, and run() returns every result in item order once the whole batch is done. The threads of an
+ * executor are reused from one batch to the next.
+ *
+ * @author Andras Palfi apalfi@bu.edu
+ * @version 1.0
+ */
+public abstract class SimulationExecutor {
+
+    public enum Strategy {
+        FIXED,
+        WORK_STEALING,
+        CHUNKED,
+        VIRTUAL;
+
+        /**
+         * Returns the strategy with a name as written in config.properties, for example "workstealing"
+         *
+         * @param name String
+         * @return Strategy
+         */
+        public static Strategy fromString(String name) {
+            for (Strategy strategy : values())
+                if (strategy.toString().replace("_", "").equalsIgnoreCase(name.trim().replace("_", "")))
+                    return strategy;
+            throw new IllegalArgumentException("Unknown simulation executor " + name + ", expected one of " +
+                    Arrays.toString(values()));
+        }
+    }
+
+    // Executor singleton, configured from config.properties
+    private static SimulationExecutor instance = null;
+
+    private final Strategy strategy;
+    private final int numThreads;
+
+    private SimulationExecutor(Strategy strategy, int numThreads) {
+        this.strategy = strategy;
+        this.numThreads = numThreads;
+    }
+
+    /**
+     * Returns the executor of the league context bound to the calling thread. If there is none, returns the program
+     * wide executor configured by the simulation.executor property, using League.getMaxNumThreads() threads
+     *
+     * @return SimulationExecutor
+     */
+    public static SimulationExecutor getInstance() {
+        LeagueContext context = LeagueContext.current();
+        if (context != null)
+            return context.getExecutor();
+        synchronized (SimulationExecutor.class) {
+            if (instance == null)
+                instance = createConfigured();
+            return instance;
+        }
+    }
+
+    /**
+     * Creates a new executor configured by the simulation.executor property, using League.getMaxNumThreads() threads.
+     * The caller owns it and should shut it down once it is no longer needed.
+     *
+     * @return SimulationExecutor
+     */
+    public static SimulationExecutor createConfigured() {
+        return create(Strategy.fromString(CoreConfiguration.getInstance().getStringProperty("simulation.executor")),
+                League.getMaxNumThreads());
+    }
+
+    /**
+     * Creates a new executor. The caller owns it and should shut it down once it is no longer needed.
+     *
+     * @param strategy   Strategy
+     * @param numThreads int: The number of threads to use. Ignored by the virtual strategy
+     * @return SimulationExecutor
+     */
+    public static SimulationExecutor create(Strategy strategy, int numThreads) {
+        assert numThreads > 0;
+        switch (strategy) {
+            case FIXED:
+                return new TaskPerItemExecutor(strategy, numThreads,
+                        Executors.newFixedThreadPool(numThreads, new SimulationThreadFactory()));
+            case WORK_STEALING:
+                return new TaskPerItemExecutor(strategy, numThreads, Executors.newWorkStealingPool(numThreads));
+            case CHUNKED:
+                return new ChunkedExecutor(numThreads);
+            case VIRTUAL:
+                ExecutorService virtualThreads = newVirtualThreadPerTaskExecutor();
+                if (virtualThreads != null)
+                    return new TaskPerItemExecutor(strategy, numThreads, virtualThreads);
+                System.err.println("Virtual threads are not available on this JDK, using a fixed pool instead");
+                return create(Strategy.FIXED, numThreads);
+            default:
+                throw new IllegalArgumentException("Unknown simulation executor " + strategy);
+        }
+    }
+
+    /**
+     * Looks up Executors.newVirtualThreadPerTaskExecutor, which only exists on JDK 21 and later
+     *
+     * @return ExecutorService, or null if virtual threads are not available
+     */
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    public Strategy getStrategy() {
+        return strategy;
+    }
+
+    public int getNumThreads() {
+        return numThreads;
+    }
+
+    /**
+     * Runs a task for every item and blocks until all of them are done. Should the task of an item throw, the rest of
+     * the batch still runs and the first failure is thrown once it is done, with any others added to it as suppressed.
+     * The tasks run in the league context of the calling thread, so one executor can be shared by several leagues.
+     *
+     * @param items      List<T>: The items to run the task for
+     * @param task       Function: The work to do for one item
+     * @param onComplete BiConsumer: Called with each item and its result as soon as it is done, may be null. It can be
+     *                   called from several threads at once
+     * @return List<R>: The result of every item, in the same order as the items
+     * @throws InterruptedException if the calling thread is interrupted while waiting. Items that have not started yet
+     *                              are cancelled
+     * @throws RuntimeException     if the task of an item threw, once every other item is done
+     */
+    public abstract <T, R> List<R> run(List<T> items, Function<? super T, ? extends R> task,
+                                       BiConsumer<? super T, ? super R> onComplete) throws InterruptedException;
+
+    /**
+     * Runs a task for every chunk of a parallel computation, numbered from 0 to numChunks - 1, and blocks until all of
+     * them are done. Unlike a parallel stream, whose common pool threads have no league context, the chunks run in the
+     * league context of the calling thread. Must not be called from a task of this executor.
+     *
+     * @param numChunks int
+     * @param task      IntFunction: The work to do for one chunk
+     * @return List<R>: The result of every chunk, in chunk order
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public <R> List<R> runChunks(int numChunks, IntFunction<? extends R> task) throws InterruptedException {
+        List<Integer> chunks = new ArrayList<>(numChunks);
+        for (int chunk = 0; chunk < numChunks; chunk++)
+            chunks.add(chunk);
+        return run(chunks, task::apply, null);
+    }
+
+    /**
+     * Stops the threads of this executor once the work in progress is done
+     */
+    public abstract void shutdown();
+
+    /**
+     * Runs the task for one item in a league context and calls the completion callback
+     */
+    private static <T, R> R runItem(LeagueContext context, T item, Function<? super T, ? extends R> task,
+                                    BiConsumer<? super T, ? super R> onComplete) {
+        LeagueContext previous = LeagueContext.bind(context);
+        try {
+            R result = task.apply(item);
+            if (onComplete != null)
+                onComplete.accept(item, result);
+            return result;
+        } finally {
+            LeagueContext.bind(previous);
+        }
+    }
+
+    /**
+     * Waits for every future in order and collects their results. Once all of them are done, throws the first failure
+     * with the others suppressed by it.
+     */
+    private static <R> List<R> awaitAll(List<Future<R>> futures) throws InterruptedException {
+        List<R> results = new ArrayList<>(futures.size());
+        Throwable failure = null;
+        try {
+            for (Future<R> future : futures) {
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException e) {
+                    results.add(null);
+                    failure = addFailure(failure, e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            for (Future<R> future : futures)
+                future.cancel(false);
+            throw e;
+        }
+        if (failure instanceof RuntimeException)
+            throw (RuntimeException) failure;
+        if (failure instanceof Error)
+            throw (Error) failure;
+        return results;
+    }
+
+    /**
+     * Keeps the first failure of a batch and adds the later ones to it
+     */
+    private static Throwable addFailure(Throwable first, Throwable next) {
+        if (first == null)
+            return next;
+        if (first != next)
+            first.addSuppressed(next);
+        return first;
+    }
+
+    /**
+     * Submits one task per item to an ExecutorService. Used for the fixed, work-stealing and virtual strategies
+     */
+    private static final class TaskPerItemExecutor extends SimulationExecutor {
+        private final ExecutorService service;
+
+        TaskPerItemExecutor(Strategy strategy, int numThreads, ExecutorService service) {
+            super(strategy, numThreads);
+            this.service = service;
+        }
+
+        @Override
+        public <T, R> List<R> run(List<T> items, Function<? super T, ? extends R> task,
+                                  BiConsumer<? super T, ? super R> onComplete) throws InterruptedException {
+            LeagueContext context = LeagueContext.current();
+            List<Future<R>> futures = new ArrayList<>(items.size());
+            for (T item : items)
+                futures.add(service.submit(() -> runItem(context, item, task, onComplete)));
+            return awaitAll(futures);
+        }
+
+        @Override
+        public void shutdown() {
+            service.shutdown();
+        }
+    }
+
+    /**
+     * Splits the items into one contiguous range per thread, so each thread takes a single task per batch
+     */
+    private static final class ChunkedExecutor extends SimulationExecutor {
+        private final ExecutorService service;
+
+        ChunkedExecutor(int numThreads) {
+            super(Strategy.CHUNKED, numThreads);
+            this.service = Executors.newFixedThreadPool(numThreads, new SimulationThreadFactory());
+        }
+
+        @Override
+        public <T, R> List<R> run(List<T> items, Function<? super T, ? extends R> task,
+                                  BiConsumer<? super T, ? super R> onComplete) throws InterruptedException {
+            LeagueContext context = LeagueContext.current();
+            List<T> itemList = new ArrayList<>(items);
+            int numChunks = Math.min(getNumThreads(), itemList.size());
+            List<Future<List<R>>> futures = new ArrayList<>(numChunks);
+            for (int chunk = 0; chunk < numChunks; chunk++) {
+                int start = (int) ((long) itemList.size() * chunk / numChunks);
+                int end = (int) ((long) itemList.size() * (chunk + 1) / numChunks);
+                futures.add(service.submit(() -> {
+                    List<R> chunkResults = new ArrayList<>(end - start);
+                    // A failed item does not stop the rest of its chunk
+                    RuntimeException failure = null;
+                    for (int i = start; i < end; i++) {
+                        try {
+                            chunkResults.add(runItem(context, itemList.get(i), task, onComplete));
+                        } catch (RuntimeException e) {
+                            failure = (RuntimeException) addFailure(failure, e);
+                        }
+                    }
+                    if (failure != null)
+                        throw failure;
+                    return chunkResults;
+                }));
+            }
+            List<R> results = new ArrayList<>(itemList.size());
+            for (List<R> chunkResults : awaitAll(futures))
+                results.addAll(chunkResults);
+            return results;
+        }
+
+        @Override
+        public void shutdown() {
+            service.shutdown();
+        }
+    }
+
+    /**
+     * Creates named daemon threads, so that a pool left running never keeps the program from exiting
+     */
+    private static final class SimulationThreadFactory implements ThreadFactory {
+        private static final AtomicInteger threadCount = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "simulation-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
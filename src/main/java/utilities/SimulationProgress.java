@@ -0,0 +1,181 @@
+package utilities;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * CS-622
+ * SimulationProgress.java
+ * <p>
+ * The SimulationProgress collects the progress of a bulk simulation. The simulation threads record every finished item
+ * directly, without locks and without going through the JavaFX thread, and a view samples the totals at its own pace.
+ * Every worker thread keeps its own counters and a latency histogram, so threads never write to the same counters.
+ * Only the most recent events are kept, so the memory used does not grow with the number of items.
+ *
+ * @author Andras Palfi apalfi@bu.edu
+ * @version 1.0
+ */
+public final class SimulationProgress {
+
+    // Latencies are counted in power of two buckets of microseconds, the last bucket holds everything above
+    private static final int NUM_BUCKETS = 32;
+    private static final int DEFAULT_MAX_EVENTS = 200;
+
+    private final int total;
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final ConcurrentLinkedQueue<Worker> workers = new ConcurrentLinkedQueue<>();
+    private final ThreadLocal<Worker> worker = ThreadLocal.withInitial(this::registerWorker);
+    // Ring of the most recent events, eventCount is the number of events ever recorded
+    private final AtomicReferenceArray<String> events;
+    private final AtomicLong eventCount = new AtomicLong();
+
+    public SimulationProgress(int total) {
+        this(total, DEFAULT_MAX_EVENTS);
+    }
+
+    /**
+     * @param total     int: The number of items that will be recorded
+     * @param maxEvents int: How many of the most recent events to keep
+     */
+    public SimulationProgress(int total, int maxEvents) {
+        assert total >= 0 && maxEvents > 0;
+        this.total = total;
+        this.events = new AtomicReferenceArray<>(maxEvents);
+    }
+
+    private Worker registerWorker() {
+        Worker w = new Worker(Thread.currentThread().getName());
+        workers.add(w);
+        return w;
+    }
+
+    /**
+     * Records a finished item for the calling thread
+     *
+     * @param event  String: A description of the item, shown in the list of recent events. May be null
+     * @param millis double: How long the item took in ms
+     */
+    public void record(String event, double millis) {
+        long nanos = (long) (millis * 1e6);
+        worker.get().record(nanos);
+        totalNanos.add(nanos);
+        completed.increment();
+        if (event != null) {
+            long index = eventCount.getAndIncrement();
+            events.set((int) (index % events.length()), event);
+        }
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public long getCompleted() {
+        return completed.sum();
+    }
+
+    public boolean isDone() {
+        return getCompleted() >= total;
+    }
+
+    /**
+     * @return double: The average time of an item across all threads in ms, or 0 if nothing is recorded yet
+     */
+    public double getAverageMillis() {
+        long count = completed.sum();
+        return (count == 0) ? 0 : totalNanos.sum() / 1e6 / count;
+    }
+
+    /**
+     * @return List<Worker>: Every thread that recorded an item, in the order they first recorded one
+     */
+    public List<Worker> getWorkers() {
+        return new ArrayList<>(workers);
+    }
+
+    /**
+     * @return List<String>: The most recent events, oldest first
+     */
+    public List<String> getRecentEvents() {
+        long end = eventCount.get();
+        long start = Math.max(0, end - events.length());
+        List<String> recent = new ArrayList<>((int) (end - start));
+        for (long i = start; i < end; i++) {
+            String event = events.get((int) (i % events.length()));
+            // A slot claimed by a thread that has not written it yet is skipped until the next sample
+            if (event != null)
+                recent.add(event);
+        }
+        return recent;
+    }
+
+    /**
+     * The counters of one worker thread. Only its own thread writes them, any thread may read them.
+     */
+    public static final class Worker {
+        private final String name;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+        private final AtomicLongArray histogram = new AtomicLongArray(NUM_BUCKETS);
+
+        private Worker(String name) {
+            this.name = name;
+        }
+
+        private void record(long itemNanos) {
+            count.increment();
+            nanos.add(itemNanos);
+            long micros = Math.max(1, itemNanos / 1000);
+            histogram.incrementAndGet(Math.min(NUM_BUCKETS - 1, 63 - Long.numberOfLeadingZeros(micros)));
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        /**
+         * @return double: The average time of an item on this thread in ms, or 0 if nothing is recorded yet
+         */
+        public double getAverageMillis() {
+            long n = count.sum();
+            return (n == 0) ? 0 : nanos.sum() / 1e6 / n;
+        }
+
+        /**
+         * Estimates a percentile of the item times on this thread from its histogram. The estimate is the upper bound
+         * of the bucket the percentile falls in, so it is at most twice the real value.
+         *
+         * @param percentile double: Between 0 and 1
+         * @return double: The time in ms, or 0 if nothing is recorded yet
+         */
+        public double getPercentileMillis(double percentile) {
+            assert percentile >= 0 && percentile <= 1;
+            long[] buckets = new long[NUM_BUCKETS];
+            long n = 0;
+            for (int b = 0; b < NUM_BUCKETS; b++) {
+                buckets[b] = histogram.get(b);
+                n += buckets[b];
+            }
+            if (n == 0)
+                return 0;
+            long rank = Math.max(1, (long) Math.ceil(percentile * n));
+            long seen = 0;
+            for (int b = 0; b < NUM_BUCKETS; b++) {
+                seen += buckets[b];
+                if (seen >= rank)
+                    return (1L << (b + 1)) / 1000.0;
+            }
+            return (1L << NUM_BUCKETS) / 1000.0;
+        }
+    }
+}
@@ -1,14 +1,19 @@
 package utilities;
 
 import attributes.PlayerAttributes;
+import attributes.PlayerMetricTypes;
 import attributes.PlayerStatTypes;
 import attributes.TeamAttributes;
 import attributes.TeamStatTypes;
+import core.AdvancedMetrics;
 import core.Entity;
 import core.EntityType;
 import core.GameSimulation;
+import core.Leaderboards;
 import core.LeagueFunctions;
+import core.LeagueSnapshot;
 import core.Player;
+import core.StatDistributions;
 import core.Team;
 import javafx.beans.property.ReadOnlyObjectWrapper;
 import javafx.scene.control.Label;
@@ -20,8 +25,8 @@ import javafx.scene.text.FontWeight;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
@@ -39,6 +44,7 @@ import java.util.Random;
 public class Utils {
 
     private static Random random = new Random(System.currentTimeMillis());
+    private static final int DRAFT_PAGE_SIZE = CoreConfiguration.getInstance().getIntProperty("draft.page_size");
 
     public static double round(double value, int places) {
         if (places < 0) throw new IllegalArgumentException();
@@ -70,21 +76,25 @@ public class Utils {
         return entityTableView;
     }
 
-    public static TableView<GameSimulation> createScheduleTable(Team team) {
-        TableView<GameSimulation> scheduleTable = new TableView<>();
+    public static TableView<LeagueSnapshot.GameEntry> createScheduleTable(LeagueSnapshot snapshot, Team team) {
+        TableView<LeagueSnapshot.GameEntry> scheduleTable = new TableView<>();
         scheduleTable.setEditable(false);
         scheduleTable.setPrefHeight(600);
-        TableColumn<GameSimulation, Integer> idCol = new TableColumn<>("ID");
-        idCol.prefWidthProperty().bind(scheduleTable.widthProperty().multiply(0.2));
+        TableColumn<LeagueSnapshot.GameEntry, Integer> idCol = new TableColumn<>("ID");
+        idCol.prefWidthProperty().bind(scheduleTable.widthProperty().multiply(0.15));
         idCol.setCellValueFactory(e -> new ReadOnlyObjectWrapper<>(e.getValue().getID()));
-        TableColumn<GameSimulation, String> homeTeamCol = new TableColumn<>("Home Team");
-        homeTeamCol.setCellValueFactory(e -> new ReadOnlyObjectWrapper<>(e.getValue().getHomeTeam().getName()));
-        homeTeamCol.prefWidthProperty().bind(scheduleTable.widthProperty().multiply(0.4));
-        TableColumn<GameSimulation, String> awayTeamCol = new TableColumn<>("Away Team");
-        awayTeamCol.setCellValueFactory(e -> new ReadOnlyObjectWrapper<>(e.getValue().getAwayTeam().getName()));
-        awayTeamCol.prefWidthProperty().bind(scheduleTable.widthProperty().multiply(0.4));
-        scheduleTable.getColumns().addAll(idCol, homeTeamCol, awayTeamCol);
-        scheduleTable.getItems().addAll(LeagueFunctions.getGamesForTeam(team));
+        TableColumn<LeagueSnapshot.GameEntry, String> homeTeamCol = new TableColumn<>("Home Team");
+        homeTeamCol.setCellValueFactory(e -> new ReadOnlyObjectWrapper<>(e.getValue().getHomeTeamName()));
+        homeTeamCol.prefWidthProperty().bind(scheduleTable.widthProperty().multiply(0.35));
+        TableColumn<LeagueSnapshot.GameEntry, String> awayTeamCol = new TableColumn<>("Away Team");
+        awayTeamCol.setCellValueFactory(e -> new ReadOnlyObjectWrapper<>(e.getValue().getAwayTeamName()));
+        awayTeamCol.prefWidthProperty().bind(scheduleTable.widthProperty().multiply(0.35));
+        TableColumn<LeagueSnapshot.GameEntry, String> resultCol = new TableColumn<>("Result");
+        resultCol.setCellValueFactory(e -> new ReadOnlyObjectWrapper<>(e.getValue().isPlayed() ?
+                String.format("%d - %d", e.getValue().getHomePoints(), e.getValue().getAwayPoints()) : ""));
+        resultCol.prefWidthProperty().bind(scheduleTable.widthProperty().multiply(0.15));
+        scheduleTable.getColumns().addAll(idCol, homeTeamCol, awayTeamCol, resultCol);
+        scheduleTable.getItems().addAll(snapshot.getGamesForTeam(team.getID()));
         return scheduleTable;
     }
 
@@ -112,9 +122,13 @@ public class Utils {
         return col;
     }
 
-    private static TableColumn<Entity, Integer> createEntityGameStatTableColumn(Object stat, GameSimulation gs) {
+    private static TableColumn<Entity, Integer> createEntityGameStatTableColumn(Enum<?> stat,
+                                                                                Map<Integer, double[]> boxScores) {
         TableColumn<Entity, Integer> col = new TableColumn<>(stat.toString());
-        col.setCellValueFactory(e -> new ReadOnlyObjectWrapper<>(gs.getGameStat(e.getValue(), stat)));
+        col.setCellValueFactory(e -> {
+            double[] boxScore = boxScores.get(e.getValue().getID());
+            return new ReadOnlyObjectWrapper<>((boxScore == null) ? 0 : (int) boxScore[stat.ordinal()]);
+        });
         return col;
     }
 
@@ -161,18 +175,84 @@ public class Utils {
         return createEntityAvgStatsTable(entities);
     }
 
+    /**
+     * Creates a table of the advanced metrics of some players, as of one computation of the metrics
+     *
+     * @param metrics AdvancedMetrics
+     * @param players List<Entity>
+     * @return TableView<Entity>
+     */
+    public static TableView<Entity> createPlayerMetricsTable(AdvancedMetrics metrics, List<Entity> players) {
+        TableView<Entity> metricsTable = createEntityTable();
+        for (PlayerMetricTypes metric : PlayerMetricTypes.values()) {
+            TableColumn<Entity, Double> col = new TableColumn<>(metric.toString());
+            col.setCellValueFactory(e -> new ReadOnlyObjectWrapper<>(
+                    round(metrics.getPlayerMetric(e.getValue().getID(), metric), 2)));
+            metricsTable.getColumns().add(col);
+        }
+        metricsTable.getItems().addAll(players);
+        return metricsTable;
+    }
+
+    /**
+     * Creates a table of where the average per game of each stat of a player ranks among every player of the league
+     *
+     * @param distributions StatDistributions
+     * @param player        Player
+     * @return TableView<Entity>
+     */
+    public static TableView<Entity> createPlayerPercentileTable(StatDistributions distributions, Player player) {
+        TableView<Entity> percentileTable = createEntityTable();
+        for (PlayerStatTypes stat : PlayerStatTypes.values()) {
+            TableColumn<Entity, Double> col = new TableColumn<>(stat.toString());
+            col.setCellValueFactory(e -> new ReadOnlyObjectWrapper<>(
+                    round(distributions.getSeasonPercentile((Player) e.getValue(), stat), 0)));
+            percentileTable.getColumns().add(col);
+        }
+        percentileTable.getItems().add(player);
+        return percentileTable;
+    }
+
+    /**
+     * Creates a table of league leaders, best first, with the value they are ranked by and their games played
+     *
+     * @param leaders   List<Leaderboards.Leader>
+     * @param valueName String: The title of the value column
+     * @return TableView<Entity>
+     */
+    public static TableView<Entity> createLeadersTable(List<? extends Leaderboards.Leader<?>> leaders,
+                                                       String valueName) {
+        TableView<Entity> leadersTable = createEntityTable();
+        Map<Integer, Leaderboards.Leader<?>> leadersById = new HashMap<>();
+        for (Leaderboards.Leader<?> leader : leaders)
+            leadersById.put(leader.getEntity().getID(), leader);
+        TableColumn<Entity, Double> value = new TableColumn<>(valueName);
+        value.setCellValueFactory(e -> new ReadOnlyObjectWrapper<>(
+                round(leadersById.get(e.getValue().getID()).getValue(), 2)));
+        leadersTable.getColumns().add(value);
+        TableColumn<Entity, Integer> gamesPlayed = new TableColumn<>("GP");
+        gamesPlayed.setCellValueFactory(e -> new ReadOnlyObjectWrapper<>(
+                leadersById.get(e.getValue().getID()).getGamesPlayed()));
+        leadersTable.getColumns().add(gamesPlayed);
+        for (Leaderboards.Leader<?> leader : leaders)
+            leadersTable.getItems().add(leader.getEntity());
+        return leadersTable;
+    }
+
     public static TableView<Entity> createGameSimulationTeamStatTable(GameSimulation gs) {
         TableView<Entity> teamStats = createEntityTable();
+        Map<Integer, double[]> boxScores = LeagueFunctions.getTeamBoxScores(gs);
         for (TeamStatTypes stat : TeamStatTypes.values())
-            teamStats.getColumns().add(createEntityGameStatTableColumn(stat, gs));
+            teamStats.getColumns().add(createEntityGameStatTableColumn(stat, boxScores));
         teamStats.getItems().addAll(gs.getHomeTeam(), gs.getAwayTeam());
         return teamStats;
     }
 
     public static TableView<Entity> createGameSimulationPlayerStatTable(GameSimulation gs, List<Player> players) {
         TableView<Entity> playerStats = createEntityTable();
+        Map<Integer, double[]> boxScores = LeagueFunctions.getPlayerBoxScores(gs);
         for (PlayerStatTypes stat : PlayerStatTypes.values())
-            playerStats.getColumns().add(createEntityGameStatTableColumn(stat, gs));
+            playerStats.getColumns().add(createEntityGameStatTableColumn(stat, boxScores));
         playerStats.getItems().addAll(players);
         return playerStats;
     }
@@ -189,15 +269,36 @@ public class Utils {
         return rosterTable;
     }
 
+    /**
+     * Creates a table with the first page of free agents, from the best overall rating to the worst. The table keeps
+     * the last free agent it was given as its user data, so addDraftTablePage() continues from it even after the table
+     * has been sorted by another column
+     */
     public static TableView<Entity> createDraftTable() {
-        List<Entity> freeAgents = new LinkedList<>(LeagueFunctions.getFreeAgents());
-        TableView<Entity> playersTable = createEntityAttributeTable(freeAgents, EntityType.PLAYER);
+        List<Player> page = LeagueFunctions.getFreeAgentPage(null, DRAFT_PAGE_SIZE);
+        TableView<Entity> playersTable = createEntityAttributeTable(new ArrayList<>(page), EntityType.PLAYER);
         TableColumn<Entity, Integer> ovr = new TableColumn<>("Overall Rating");
         ovr.setCellValueFactory(e -> new ReadOnlyObjectWrapper<>(((Player) e.getValue()).getOverallPlayerRating()));
         playersTable.getColumns().add(2, ovr);
+        playersTable.setUserData(page.get(page.size() - 1));
         return playersTable;
     }
 
+    /**
+     * Adds the next page of free agents to a table made by createDraftTable()
+     *
+     * @param draftTable TableView<Entity>
+     * @return boolean: False once every free agent is in the table
+     */
+    public static boolean addDraftTablePage(TableView<Entity> draftTable) {
+        List<Player> page = LeagueFunctions.getFreeAgentPage((Player) draftTable.getUserData(), DRAFT_PAGE_SIZE);
+        if (page.isEmpty())
+            return false;
+        draftTable.getItems().addAll(page);
+        draftTable.setUserData(page.get(page.size() - 1));
+        return page.size() == DRAFT_PAGE_SIZE;
+    }
+
     public static Label getTitleLabel(String label) {
         Label l = getLabel(label);
         l.setFont(Font.font("Arial", FontWeight.BOLD, 24));
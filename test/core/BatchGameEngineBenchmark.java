@@ -0,0 +1,98 @@
+package core;
+
+import utilities.DatabaseConnection;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * CS622
+ * BatchGameEngineBenchmark.java
+ * <p>
+ * Compares how many games per second the BatchGameEngine plays against running a GameEngine once per game. A throwaway
+ * league is generated and drafted in a temporary database, then the first two teams play the same matchup a number of
+ * times with both engines. Each measurement is repeated after a warm up so that the JIT has compiled both engines.
+ * <p>
+ * Usage: BatchGameEngineBenchmark [games per batch] [repetitions]
+ *
+ * @author Andras Palfi apalfi@bu.edu
+ * @version 1.0
+ */
+public class BatchGameEngineBenchmark {
+
+    private static final int DEFAULT_NUM_GAMES = 10000;
+    private static final int DEFAULT_REPETITIONS = 5;
+
+    public static void main(String[] args) throws IOException, SQLException {
+        int numGames = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_NUM_GAMES;
+        int repetitions = (args.length > 1) ? Integer.parseInt(args[1]) : DEFAULT_REPETITIONS;
+        setupLeague();
+        List<Team> teams = League.getInstance().getTeams();
+        TeamSnapshot home = new TeamSnapshot(teams.get(0));
+        TeamSnapshot away = new TeamSnapshot(teams.get(1));
+        System.out.printf("%s vs %s, %d games per run%n", teams.get(0).getName(), teams.get(1).getName(), numGames);
+
+        // Warm up both engines before measuring
+        runGameEngines(home, away, numGames, new SplittableRandom(0));
+        runBatchGameEngine(home, away, numGames, new SplittableRandom(0));
+
+        for (int i = 0; i < repetitions; i++) {
+            long start = System.nanoTime();
+            int homeWins = runGameEngines(home, away, numGames, new SplittableRandom(i));
+            double singleSeconds = (System.nanoTime() - start) / 1e9;
+            start = System.nanoTime();
+            int batchHomeWins = runBatchGameEngine(home, away, numGames, new SplittableRandom(i));
+            double batchSeconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("Run %d: GameEngine %.0f games/sec (home won %.1f%%), BatchGameEngine %.0f games/sec " +
+                            "(home won %.1f%%), speedup %.2fx%n", i + 1, numGames / singleSeconds,
+                    100.0 * homeWins / numGames, numGames / batchSeconds, 100.0 * batchHomeWins / numGames,
+                    singleSeconds / batchSeconds);
+        }
+    }
+
+    /**
+     * Generates and drafts a throwaway league in a temporary database, for benchmarks that need real teams
+     */
+    static void setupLeague() throws IOException, SQLException {
+        File saveFile = File.createTempFile("benchmark", ".db");
+        saveFile.deleteOnExit();
+        DatabaseConnection.getInstance(saveFile.getAbsolutePath(), true);
+        League.getInstance(League.getNextUniqueKey(), "benchmark");
+        new Draft().automatedDraft();
+    }
+
+    /**
+     * Plays every game on its own GameEngine and returns the amount of home wins
+     */
+    private static int runGameEngines(TeamSnapshot home, TeamSnapshot away, int numGames, SplittableRandom random) {
+        int homeWins = 0;
+        for (int g = 0; g < numGames; g++) {
+            if (new GameEngine(home, away, random, false).simulate() == GameEngine.HOME)
+                homeWins++;
+        }
+        return homeWins;
+    }
+
+    /**
+     * Plays every game in one BatchGameEngine and returns the amount of home wins
+     */
+    private static int runBatchGameEngine(TeamSnapshot home, TeamSnapshot away, int numGames,
+                                          SplittableRandom random) {
+        TeamSnapshot[] homes = new TeamSnapshot[numGames];
+        TeamSnapshot[] aways = new TeamSnapshot[numGames];
+        Arrays.fill(homes, home);
+        Arrays.fill(aways, away);
+        BatchGameEngine batch = new BatchGameEngine(homes, aways, random);
+        batch.simulate();
+        int homeWins = 0;
+        for (int g = 0; g < numGames; g++) {
+            if (batch.getWinner(g) == GameEngine.HOME)
+                homeWins++;
+        }
+        return homeWins;
+    }
+}
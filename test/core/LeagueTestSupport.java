@@ -0,0 +1,68 @@
+package core;
+
+import org.junit.After;
+import org.junit.Before;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CS-622
+ * LeagueTestSupport.java
+ * <p>
+ * Base class of the tests that need a whole league. Before each test a drafted league with one round robin schedule
+ * is created in a temporary save file and bound to the test thread, and it is closed after the test.
+ *
+ * @author Andras Palfi apalfi@bu.edu
+ * @version 1.0
+ */
+abstract class LeagueTestSupport {
+
+    private File saveFile;
+    private LeagueContext context;
+    private LeagueContext previous;
+
+    @Before
+    public void createLeague() throws IOException, SQLException {
+        saveFile = File.createTempFile(getClass().getSimpleName(), ".db");
+        saveFile.deleteOnExit();
+        context = LeagueContext.create(saveFile.getAbsolutePath(), getClass().getSimpleName());
+        previous = LeagueContext.bind(context);
+        new Draft().automatedDraft();
+        League.getInstance().setupRoundRobinTournament();
+    }
+
+    @After
+    public void closeLeague() throws InterruptedException {
+        LeagueContext.bind(previous);
+        context.close();
+    }
+
+    /**
+     * Closes the league, then loads it back from its save file in its place, so a test can check what was saved
+     *
+     * @return League: The league as it was loaded
+     */
+    League reload() throws InterruptedException, SQLException {
+        context.close();
+        context = LeagueContext.load(saveFile.getAbsolutePath(), null);
+        LeagueContext.bind(context);
+        return League.getInstance();
+    }
+
+    /**
+     * Simulates every unplayed game up to and including a day, and waits until the results are written
+     *
+     * @param lastDay int
+     */
+    void simulateThroughDay(int lastDay) throws InterruptedException {
+        List<GameSimulation> games = new ArrayList<>();
+        for (GameSimulation game : LeagueFunctions.getAllUnplayedGames())
+            if (game.getDay() <= lastDay)
+                games.add(game);
+        new SimulationSession(games).run(null, null);
+    }
+}
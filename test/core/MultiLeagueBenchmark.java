@@ -0,0 +1,75 @@
+package core;
+
+import utilities.SimulationExecutor;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CS-622
+ * MultiLeagueBenchmark.java
+ * <p>
+ * Simulates several independent leagues at the same time in one program, each in its own LeagueContext and temporary
+ * database, to measure how many games per second a warm JVM gets through when it hosts many leagues. Every league is
+ * drafted and given a few round robin tournaments, then all of them simulate their seasons at once on one shared
+ * SimulationExecutor.
+ * <p>
+ * Usage: MultiLeagueBenchmark [number of leagues] [round robin tournaments per league]
+ *
+ * @author Andras Palfi apalfi@bu.edu
+ * @version 1.0
+ */
+public class MultiLeagueBenchmark {
+
+    private static final int DEFAULT_NUM_LEAGUES = 24;
+    private static final int DEFAULT_NUM_TOURNAMENTS = 4;
+
+    public static void main(String[] args) throws IOException, SQLException, InterruptedException {
+        int numLeagues = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_NUM_LEAGUES;
+        int numTournaments = (args.length > 1) ? Integer.parseInt(args[1]) : DEFAULT_NUM_TOURNAMENTS;
+        SimulationExecutor executor = SimulationExecutor.createConfigured();
+        List<LeagueContext> contexts = new ArrayList<>(numLeagues);
+        int numGames = 0;
+        long start = System.nanoTime();
+        for (int l = 0; l < numLeagues; l++) {
+            File saveFile = File.createTempFile("league" + l, ".db");
+            saveFile.deleteOnExit();
+            LeagueContext context = LeagueContext.create(saveFile.getAbsolutePath(), "league" + l, executor);
+            context.run(() -> {
+                new Draft().automatedDraft();
+                for (int t = 0; t < numTournaments; t++)
+                    League.getInstance().setupRoundRobinTournament();
+            });
+            numGames += context.call(() -> LeagueFunctions.getAllUnplayedGames().size());
+            contexts.add(context);
+        }
+        System.out.printf("Created %d leagues with %d games in %.2f seconds%n", numLeagues, numGames,
+                (System.nanoTime() - start) / 1e9);
+
+        // Every league runs its own season on its own thread, and all of them share the executor
+        start = System.nanoTime();
+        List<Thread> seasons = new ArrayList<>(numLeagues);
+        for (LeagueContext context : contexts) {
+            Thread season = new Thread(() -> context.run(() -> {
+                try {
+                    new SeasonScheduler().simulateUnplayedGames();
+                } catch (InterruptedException e) {
+                    e.printStackTrace();
+                }
+            }), "season-" + context.getLeague().getName());
+            seasons.add(season);
+            season.start();
+        }
+        for (Thread season : seasons)
+            season.join();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Simulated %d games across %d leagues in %.2f seconds, %.0f games/sec%n", numGames,
+                numLeagues, seconds, numGames / seconds);
+        for (LeagueContext context : contexts)
+            context.close();
+        executor.shutdown();
+    }
+}
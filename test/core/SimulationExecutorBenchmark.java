@@ -0,0 +1,76 @@
+package core;
+
+import utilities.SimulationExecutor;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.Function;
+
+/**
+ * CS622
+ * SimulationExecutorBenchmark.java
+ * <p>
+ * Compares the games per second of every SimulationExecutor strategy, to pick the simulation.executor setting for a
+ * machine. A throwaway league is generated and drafted in a temporary database, and random matchups between its teams
+ * are played on GameEngines so that only the spreading of work over threads is measured. Each strategy is measured on
+ * two workloads:
+ * <p>
+ * bulk: all games submitted as one batch, like a Monte Carlo run
+ * daily: the games submitted in batches of one day of the schedule, waiting for each day like the SeasonScheduler
+ * <p>
+ * Usage: SimulationExecutorBenchmark [number of games] [repetitions] [number of threads]
+ *
+ * @author Andras Palfi apalfi@bu.edu
+ * @version 1.0
+ */
+public class SimulationExecutorBenchmark {
+
+    private static final int DEFAULT_NUM_GAMES = 20000;
+    private static final int DEFAULT_REPETITIONS = 5;
+
+    public static void main(String[] args) throws IOException, SQLException, InterruptedException {
+        int numGames = (args.length > 0) ? Integer.parseInt(args[0]) : DEFAULT_NUM_GAMES;
+        int repetitions = (args.length > 1) ? Integer.parseInt(args[1]) : DEFAULT_REPETITIONS;
+        int numThreads = (args.length > 2) ? Integer.parseInt(args[2]) : League.getMaxNumThreads();
+        BatchGameEngineBenchmark.setupLeague();
+        List<Team> teams = League.getInstance().getTeams();
+        TeamSnapshot[] snapshots = new TeamSnapshot[teams.size()];
+        for (int t = 0; t < teams.size(); t++)
+            snapshots[t] = new TeamSnapshot(teams.get(t));
+        // Pick the matchups up front so that every strategy plays the exact same games
+        SplittableRandom random = new SplittableRandom(0);
+        List<int[]> matchups = new ArrayList<>(numGames);
+        for (int g = 0; g < numGames; g++) {
+            int home = random.nextInt(snapshots.length);
+            int away = (home + 1 + random.nextInt(snapshots.length - 1)) % snapshots.length;
+            matchups.add(new int[]{home, away, g});
+        }
+        Function<int[], Integer> playGame = matchup -> new GameEngine(snapshots[matchup[0]], snapshots[matchup[1]],
+                new SplittableRandom(matchup[2]), false).simulate();
+        int gamesPerDay = Math.max(1, snapshots.length / 2);
+        System.out.printf("%d games, %d threads, %d games per day%n", numGames, numThreads, gamesPerDay);
+
+        for (SimulationExecutor.Strategy strategy : SimulationExecutor.Strategy.values()) {
+            SimulationExecutor executor = SimulationExecutor.create(strategy, numThreads);
+            // Warm up before measuring
+            executor.run(matchups, playGame, null);
+            double bulk = 0;
+            double daily = 0;
+            for (int i = 0; i < repetitions; i++) {
+                long start = System.nanoTime();
+                executor.run(matchups, playGame, null);
+                bulk += (System.nanoTime() - start) / 1e9;
+                start = System.nanoTime();
+                for (int day = 0; day < numGames; day += gamesPerDay)
+                    executor.run(matchups.subList(day, Math.min(numGames, day + gamesPerDay)), playGame, null);
+                daily += (System.nanoTime() - start) / 1e9;
+            }
+            executor.shutdown();
+            System.out.printf("%-13s (ran as %-13s) bulk: %10.0f games/sec   daily: %10.0f games/sec%n",
+                    strategy, executor.getStrategy(), numGames * repetitions / bulk, numGames * repetitions / daily);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package core;
+
+import attributes.PlayerStatTypes;
+import attributes.TeamStatTypes;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import utilities.CoreConfiguration;
+
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.assertEquals;
+
+public class TestBatchGameEngine {
+
+    private static final int NUM_TEAMS = 6;
+    private static final int NUM_GAMES = 300;
+    private static final int ROSTER_SIZE = CoreConfiguration.getInstance().getIntProperty("league.players_per_team");
+    private static TeamSnapshot[] snapshots;
+
+    /**
+     * Builds in memory teams with random players. Half of the teams have no turnover history and every team has players
+     * with and without a three point cutoff point, so both engines go through every branch of their rules.
+     */
+    @BeforeClass
+    public static void setupTeams() {
+        SplittableRandom random = new SplittableRandom(7);
+        snapshots = new TeamSnapshot[NUM_TEAMS];
+        int pid = 0;
+        for (int t = 0; t < NUM_TEAMS; t++) {
+            Team team = Team.createInMemory(t, "Team " + t);
+            Player[] roster = new Player[ROSTER_SIZE];
+            double[] cutoffs = new double[roster.length];
+            for (int slot = 0; slot < roster.length; slot++) {
+                roster[slot] = new Player(pid, "Player " + pid, random);
+                pid++;
+                cutoffs[slot] = (slot % 3 == 0) ? 0 : random.nextDouble() * 1.5;
+            }
+            double turnoverProbability = (t % 2 == 0) ? 0 : 0.05 + 0.1 * random.nextDouble();
+            snapshots[t] = new TeamSnapshot(team, roster, new TeamTendencies(turnoverProbability, cutoffs));
+        }
+    }
+
+    @Test
+    public void sameSeedGivesSameBoxScores() {
+        TeamSnapshot[] home = new TeamSnapshot[NUM_GAMES];
+        TeamSnapshot[] away = new TeamSnapshot[NUM_GAMES];
+        for (int g = 0; g < NUM_GAMES; g++) {
+            home[g] = snapshots[g % NUM_TEAMS];
+            away[g] = snapshots[(g + 1 + g / NUM_TEAMS % (NUM_TEAMS - 1)) % NUM_TEAMS];
+        }
+        BatchGameEngine batch = new BatchGameEngine(home, away, new SplittableRandom(2024));
+        batch.simulate();
+
+        // The batch seeds the state of each game with the next long of its generator, in game order
+        SplittableRandom seeds = new SplittableRandom(2024);
+        for (int g = 0; g < NUM_GAMES; g++) {
+            GameEngine engine = new GameEngine(home[g], away[g], new SplittableRandom(seeds.nextLong()), false);
+            int winner = engine.simulate();
+            assertEquals("Winner of game " + g, winner, batch.getWinner(g));
+            assertEquals("Length of game " + g, engine.getGameTime(), batch.getGameTime(g));
+            for (int team = GameEngine.HOME; team <= GameEngine.AWAY; team++) {
+                for (TeamStatTypes stat : TeamStatTypes.values())
+                    assertEquals(stat + " of game " + g, engine.getTeamStat(team, stat),
+                            batch.getTeamStat(g, team, stat));
+                for (int slot = 0; slot < engine.getTeam(team).getRosterSize(); slot++)
+                    for (PlayerStatTypes stat : PlayerStatTypes.values())
+                        assertEquals(stat + " of slot " + slot + " in game " + g,
+                                engine.getPlayerStat(team, slot, stat), batch.getPlayerStat(g, team, slot, stat));
+            }
+        }
+    }
+
+    @Test
+    public void sameSeedGivesSameBatch() {
+        TeamSnapshot[] home = {snapshots[0], snapshots[2], snapshots[4]};
+        TeamSnapshot[] away = {snapshots[1], snapshots[3], snapshots[5]};
+        BatchGameEngine first = new BatchGameEngine(home, away, new SplittableRandom(99));
+        BatchGameEngine second = new BatchGameEngine(home, away, new SplittableRandom(99));
+        first.simulate();
+        second.simulate();
+        for (int g = 0; g < home.length; g++)
+            for (int team = GameEngine.HOME; team <= GameEngine.AWAY; team++)
+                assertEquals(first.getTeamStat(g, team, TeamStatTypes.TEAM_PTS),
+                        second.getTeamStat(g, team, TeamStatTypes.TEAM_PTS));
+    }
+}
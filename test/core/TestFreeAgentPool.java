@@ -0,0 +1,77 @@
+package core;
+
+import attributes.PlayerAttributes;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TestFreeAgentPool extends LeagueTestSupport {
+
+    private static final int PAGE_SIZE = 7;
+
+    /**
+     * The free agents found by sorting every player without a team, best first and ties to the lower id
+     */
+    private static List<Player> recomputeFreeAgents() {
+        List<Player> players = new ArrayList<>();
+        for (Player p : League.getInstance().getPlayers())
+            if (p.getEntityAttribute(PlayerAttributes.TEAM_ID.toString()) == null)
+                players.add(p);
+        players.sort(Comparator.comparingInt((Player p) -> -p.getOverallPlayerRating()).thenComparingInt(Player::getID));
+        return players;
+    }
+
+    private static List<Integer> getIDs(List<Player> players) {
+        List<Integer> ids = new ArrayList<>(players.size());
+        for (Player p : players)
+            ids.add(p.getID());
+        return ids;
+    }
+
+    private static void assertPoolMatchesRecompute() {
+        List<Integer> expected = getIDs(recomputeFreeAgents());
+        FreeAgentPool pool = League.getInstance().getFreeAgentPool();
+        assertEquals(expected.size(), pool.size());
+        assertEquals(expected, getIDs(LeagueFunctions.getFreeAgents()));
+        if (!expected.isEmpty())
+            assertEquals((int) expected.get(0), LeagueFunctions.getBestAvailableFreeAgent().getID());
+        // Walking the pages gives the same order
+        List<Player> paged = new ArrayList<>();
+        List<Player> page = LeagueFunctions.getFreeAgentPage(null, PAGE_SIZE);
+        while (!page.isEmpty()) {
+            assertTrue(page.size() <= PAGE_SIZE);
+            paged.addAll(page);
+            page = LeagueFunctions.getFreeAgentPage(page.get(page.size() - 1), PAGE_SIZE);
+        }
+        assertEquals(expected, getIDs(paged));
+    }
+
+    @Test
+    public void poolMatchesASortOfThePlayersWithoutATeam() {
+        assertPoolMatchesRecompute();
+        Team team = League.getInstance().getTeams().get(0);
+        Player released = team.getRoster().get(0);
+        team.removePlayerFromRoster(released);
+        assertTrue(League.getInstance().getFreeAgentPool().contains(released));
+        assertPoolMatchesRecompute();
+        Player signed = LeagueFunctions.getBestAvailableFreeAgent();
+        team.addPlayerToRoster(signed);
+        assertFalse(League.getInstance().getFreeAgentPool().contains(signed));
+        assertPoolMatchesRecompute();
+    }
+
+    @Test
+    public void poolIsRebuiltWhenALeagueIsLoaded() throws Exception {
+        simulateThroughDay(2);
+        Team team = League.getInstance().getTeams().get(1);
+        team.removePlayerFromRoster(team.getRoster().get(0));
+        reload();
+        assertPoolMatchesRecompute();
+    }
+}
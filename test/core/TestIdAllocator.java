@@ -0,0 +1,100 @@
+package core;
+
+import attributes.LeagueAttributes;
+import org.junit.Test;
+import utilities.DatabaseConnection;
+import utilities.IdAllocator;
+import utilities.PersistenceWriter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TestIdAllocator extends LeagueTestSupport {
+
+    private static final int NUM_THREADS = 4;
+    // Not a multiple of the block size, so every thread leaves part of its last block unused
+    private static final int IDS_PER_THREAD = 101;
+
+    /**
+     * The ids of the league and every player, team and game in it
+     */
+    private static Set<Integer> getEntityIDs() {
+        League league = League.getInstance();
+        Set<Integer> ids = new HashSet<>();
+        ids.add(league.getID());
+        for (Player p : league.getPlayers())
+            assertTrue("Duplicate id " + p.getID(), ids.add(p.getID()));
+        for (Team t : league.getTeams())
+            assertTrue("Duplicate id " + t.getID(), ids.add(t.getID()));
+        for (GameSimulation g : league.getGames())
+            assertTrue("Duplicate id " + g.getID(), ids.add(g.getID()));
+        return ids;
+    }
+
+    /**
+     * Takes ids on several threads bound to the league of the calling thread, and checks none is handed out twice
+     */
+    private static void allocateOnThreads(Set<Integer> taken) throws InterruptedException {
+        LeagueContext context = LeagueContext.current();
+        AtomicInteger duplicates = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < NUM_THREADS; t++) {
+            threads.add(new Thread(() -> context.run(() -> {
+                for (int i = 0; i < IDS_PER_THREAD; i++)
+                    if (!taken.add(League.getNextUniqueKey()))
+                        duplicates.incrementAndGet();
+            })));
+        }
+        for (Thread thread : threads)
+            thread.start();
+        for (Thread thread : threads)
+            thread.join();
+        assertEquals(0, duplicates.get());
+    }
+
+    @Test
+    public void idsStayUniqueAcrossAReload() throws Exception {
+        simulateThroughDay(1);
+        Set<Integer> taken = ConcurrentHashMap.newKeySet();
+        taken.addAll(getEntityIDs());
+        int numTaken = taken.size();
+        allocateOnThreads(taken);
+        assertEquals(numTaken + NUM_THREADS * IDS_PER_THREAD, taken.size());
+
+        reload();
+        // The loaded league still has every entity it was saved with, and new ids skip all of them
+        assertTrue(taken.containsAll(getEntityIDs()));
+        allocateOnThreads(taken);
+        int numGames = League.getInstance().getGames().size();
+        League.getInstance().setupRoundRobinTournament();
+        List<GameSimulation> games = League.getInstance().getGames();
+        for (GameSimulation g : games.subList(numGames, games.size()))
+            assertTrue("Game id " + g.getID() + " was handed out twice", taken.add(g.getID()));
+    }
+
+    @Test
+    public void idsSkipTheArchivedGamesOfALeagueWithoutAMark() throws Exception {
+        simulateThroughDay(1);
+        int season = League.getInstance().getSeason();
+        assertTrue(League.getInstance().startNextSeason());
+        List<Integer> archived = SeasonArchive.getGameIDs(season);
+        assertFalse(archived.isEmpty());
+
+        // A save without the mark, whose largest ids are those of its archived games
+        PersistenceWriter.getInstance().flush();
+        DatabaseConnection db = LeagueContext.current().getDatabase();
+        db.executeSQL("UPDATE league SET " + LeagueAttributes.NEXT_ID + "=0");
+        db.executeSQL("DELETE FROM games");
+        int id = IdAllocator.create(db).nextId();
+        assertTrue("Id " + id + " is not above the archived games", id > Collections.max(archived));
+    }
+}
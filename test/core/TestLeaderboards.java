@@ -0,0 +1,71 @@
+package core;
+
+import attributes.PlayerStatTypes;
+import attributes.TeamStatTypes;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class TestLeaderboards extends LeagueTestSupport {
+
+    private static final double DELTA = 1e-9;
+
+    private static double getPerGame(Player p, PlayerStatTypes... stats) {
+        double sum = 0;
+        for (PlayerStatTypes stat : stats)
+            sum += p.getStatTotals().getTotal(stat);
+        return sum / p.getStatTotals().getGamesPlayed();
+    }
+
+    /**
+     * The leaders found by sorting every player that played, best first and ties to the lower id
+     */
+    private static List<Player> recomputeLeaders(int k, PlayerStatTypes... stats) {
+        List<Player> players = new ArrayList<>();
+        for (Player p : League.getInstance().getPlayers())
+            if (p.getStatTotals().getGamesPlayed() > 0)
+                players.add(p);
+        players.sort(Comparator.comparingDouble((Player p) -> -getPerGame(p, stats)).thenComparingInt(Player::getID));
+        return players.subList(0, Math.min(k, players.size()));
+    }
+
+    private static void assertLeaders(int k, PlayerStatTypes... stats) {
+        List<Player> expected = recomputeLeaders(k, stats);
+        List<Leaderboards.Leader<Player>> leaders = LeagueFunctions.getPlayerLeaders(Leaderboards.Measure.PER_GAME, k,
+                1, stats);
+        assertEquals(expected.size(), leaders.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(getPerGame(expected.get(i), stats), leaders.get(i).getValue(), DELTA);
+            assertEquals(expected.get(i).getID(), leaders.get(i).getEntity().getID());
+        }
+    }
+
+    @Test
+    public void leadersMatchASortOfEveryPlayer() throws InterruptedException {
+        simulateThroughDay(1);
+        // The leaderboards are created now, and kept up to date from here on
+        assertLeaders(10, PlayerStatTypes.PTS);
+        assertLeaders(10, PlayerStatTypes.DRB, PlayerStatTypes.ORB);
+        simulateThroughDay(4);
+        assertLeaders(10, PlayerStatTypes.PTS);
+        assertLeaders(10, PlayerStatTypes.DRB, PlayerStatTypes.ORB);
+        assertLeaders(Leaderboards.MAX_K, PlayerStatTypes.ASSIST);
+    }
+
+    @Test
+    public void teamLeadersAreEveryTeamByTotal() throws InterruptedException {
+        simulateThroughDay(3);
+        List<Team> teams = new ArrayList<>(League.getInstance().getTeams());
+        teams.sort(Comparator.comparingInt((Team t) -> -t.getStatTotals().getTotal(TeamStatTypes.TEAM_PTS))
+                .thenComparingInt(Team::getID));
+        List<Leaderboards.Leader<Team>> leaders = LeagueFunctions.getTeamLeaders(Leaderboards.Measure.TOTAL,
+                teams.size(), 0, TeamStatTypes.TEAM_PTS);
+        assertEquals(teams.size(), leaders.size());
+        for (int i = 0; i < teams.size(); i++)
+            assertEquals(teams.get(i).getID(), leaders.get(i).getEntity().getID());
+    }
+}
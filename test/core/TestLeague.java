@@ -1,6 +1,42 @@
 package core;
 
-public class TestLeague {
+import org.junit.Test;
+import utilities.SimulationExecutor;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
 
+import static org.junit.Assert.assertEquals;
+
+public class TestLeague extends LeagueTestSupport {
+
+    private static final long SEED = 622;
+    private static final int[] THREAD_COUNTS = {1, 3, 8};
+
+    /**
+     * Generates players from the seed on an executor with some number of threads, and returns their names and
+     * attributes. The ids are left out, since each call takes new ones.
+     */
+    private static List<String> generate(int numThreads) {
+        SimulationExecutor executor = SimulationExecutor.create(SimulationExecutor.Strategy.FIXED, numThreads);
+        try {
+            List<String> players = new ArrayList<>();
+            for (Player p : League.getInstance().generatePlayers(League.NUM_PLAYERS, new SplittableRandom(SEED),
+                    executor))
+                players.add(p.getName() + " " + new TreeMap<>(p.getEntityAttributes()));
+            return players;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void generatedPlayersDoNotDependOnTheNumberOfThreads() {
+        List<String> expected = generate(THREAD_COUNTS[0]);
+        assertEquals(League.NUM_PLAYERS, expected.size());
+        for (int numThreads : THREAD_COUNTS)
+            assertEquals(numThreads + " threads", expected, generate(numThreads));
+    }
 }
@@ -0,0 +1,48 @@
+package core;
+
+import org.junit.Test;
+import utilities.SimulationExecutor;
+
+import java.io.File;
+import java.util.List;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class TestLeagueContext extends LeagueTestSupport {
+
+    private static final int NUM_CHUNKS = 16;
+
+    /**
+     * Runs chunked work on the executor of the bound context, and checks every chunk saw the league of the caller
+     */
+    private static void assertChunksRunInLeague(League expected) throws InterruptedException {
+        List<League> seen = SimulationExecutor.getInstance().runChunks(NUM_CHUNKS, chunk -> League.getInstance());
+        for (League league : seen)
+            assertSame(expected, league);
+    }
+
+    @Test
+    public void chunkedWorkRunsInTheLeagueOfTheCaller() throws Exception {
+        League league = League.getInstance();
+        assertChunksRunInLeague(league);
+
+        File saveFile = File.createTempFile("TestLeagueContextOther", ".db");
+        saveFile.deleteOnExit();
+        LeagueContext other = LeagueContext.create(saveFile.getAbsolutePath(), "other");
+        try {
+            League otherLeague = other.getLeague();
+            assertNotSame(league, otherLeague);
+            other.run(() -> {
+                try {
+                    assertChunksRunInLeague(otherLeague);
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        } finally {
+            other.close();
+        }
+        assertSame(league, League.getInstance());
+    }
+}
@@ -0,0 +1,101 @@
+package core;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TestQuantileSketch {
+
+    private static final int K = 200;
+    private static final int NUM_VALUES = 100_000;
+    // The documented error of about 1.65 / k, with some room for the deterministic compactions
+    private static final double RANK_ERROR = 2.0 / K;
+
+    private static long countBelow(double[] sorted, double value, boolean inclusive) {
+        long rank = 0;
+        for (double v : sorted)
+            if (v < value || (inclusive && v == value))
+                rank++;
+        return rank;
+    }
+
+    private static void assertRanksWithinError(double[] stream) {
+        QuantileSketch sketch = new QuantileSketch(K);
+        for (double value : stream)
+            sketch.update(value);
+        assertEquals(stream.length, sketch.getCount());
+        double[] sorted = stream.clone();
+        Arrays.sort(sorted);
+        for (int i = 1; i < 100; i++) {
+            double value = sorted[sorted.length * i / 100];
+            for (boolean inclusive : new boolean[]{false, true}) {
+                long error = Math.abs(sketch.getRank(value, inclusive) - countBelow(sorted, value, inclusive));
+                assertTrue("Rank of " + value + " is off by " + error, error <= RANK_ERROR * stream.length);
+            }
+            // The value at a quantile has about that many values below it
+            double estimate = sketch.getQuantile(i / 100.0);
+            double below = (double) countBelow(sorted, estimate, false) / stream.length;
+            double atOrBelow = (double) countBelow(sorted, estimate, true) / stream.length;
+            assertTrue("Value at " + i + "% is at " + below + " to " + atOrBelow,
+                    below - RANK_ERROR <= i / 100.0 && i / 100.0 <= atOrBelow + RANK_ERROR);
+        }
+    }
+
+    @Test
+    public void ranksOfDistinctValuesAreWithinTheErrorBound() {
+        SplittableRandom random = new SplittableRandom(11);
+        double[] stream = new double[NUM_VALUES];
+        for (int i = 0; i < stream.length; i++)
+            stream[i] = random.nextDouble();
+        assertRanksWithinError(stream);
+    }
+
+    @Test
+    public void ranksOfRepeatedValuesAreWithinTheErrorBound() {
+        // Box score values: small integers, mostly near zero
+        SplittableRandom random = new SplittableRandom(12);
+        double[] stream = new double[NUM_VALUES];
+        for (int i = 0; i < stream.length; i++)
+            stream[i] = (int) Math.floor(Math.abs(random.nextDouble() - random.nextDouble()) * 30);
+        assertRanksWithinError(stream);
+    }
+
+    @Test
+    public void ranksOfASortedStreamAreWithinTheErrorBound() {
+        double[] stream = new double[NUM_VALUES];
+        for (int i = 0; i < stream.length; i++)
+            stream[i] = i;
+        assertRanksWithinError(stream);
+    }
+
+    @Test
+    public void sameStreamGivesSameSketch() {
+        QuantileSketch first = new QuantileSketch(K);
+        QuantileSketch second = new QuantileSketch(K);
+        SplittableRandom random = new SplittableRandom(13);
+        for (int i = 0; i < NUM_VALUES; i++) {
+            double value = random.nextDouble();
+            first.update(value);
+            second.update(value);
+        }
+        for (int i = 0; i <= 100; i++)
+            assertEquals(first.getQuantile(i / 100.0), second.getQuantile(i / 100.0), 0.0);
+    }
+
+    @Test
+    public void clearedSketchIsEmpty() {
+        QuantileSketch sketch = new QuantileSketch(K);
+        for (int i = 0; i < 1000; i++)
+            sketch.update(i);
+        sketch.clear();
+        assertEquals(0, sketch.getCount());
+        assertEquals(0, sketch.getRank(500, true));
+        assertEquals(0.0, sketch.getQuantile(0.5), 0.0);
+        sketch.update(7);
+        assertEquals(7.0, sketch.getQuantile(0.5), 0.0);
+    }
+}
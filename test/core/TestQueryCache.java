@@ -0,0 +1,108 @@
+package core;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class TestQueryCache extends LeagueTestSupport {
+
+    private static int[] getStandingsRecord(Team team) {
+        Standings standings = League.getInstance().getStandings();
+        return new int[]{standings.getWins(team), standings.getLosses(team)};
+    }
+
+    @Test
+    public void rosterChangesRefreshTheFreeAgents() {
+        QueryCache cache = League.getInstance().getQueryCache();
+        List<Player> before = LeagueFunctions.getFreeAgents();
+        long misses = cache.getMissCount();
+        assertSame(before, LeagueFunctions.getFreeAgents());
+        assertEquals(misses, cache.getMissCount());
+
+        Team team = League.getInstance().getTeams().get(0);
+        Player released = team.getRoster().get(0);
+        team.removePlayerFromRoster(released);
+        List<Player> afterRelease = LeagueFunctions.getFreeAgents();
+        assertEquals(before.size() + 1, afterRelease.size());
+        assertTrue(afterRelease.contains(released));
+
+        team.addPlayerToRoster(released);
+        List<Player> afterSigning = LeagueFunctions.getFreeAgents();
+        assertEquals(before.size(), afterSigning.size());
+        assertFalse(afterSigning.contains(released));
+    }
+
+    @Test
+    public void recordedGamesOnlyRefreshTheQueriesOfTheirTeams() {
+        QueryCache cache = League.getInstance().getQueryCache();
+        GameSimulation game = LeagueFunctions.getAllUnplayedGames().get(0);
+        Team other = null;
+        for (Team t : League.getInstance().getTeams())
+            if (t != game.getHomeTeam() && t != game.getAwayTeam())
+                other = t;
+        assertNotNull(other);
+        int[] otherRecord = LeagueFunctions.getTeamRecord(other);
+        LeagueFunctions.getTeamRecord(game.getHomeTeam());
+        LeagueFunctions.getTeamRecord(game.getAwayTeam());
+        assertSame(game, LeagueFunctions.getNextGameForTeam(game.getHomeTeam()));
+
+        game.simulateGame();
+        // The team that did not play keeps its cached record
+        long misses = cache.getMissCount();
+        assertArrayEquals(otherRecord, LeagueFunctions.getTeamRecord(other));
+        assertEquals(misses, cache.getMissCount());
+        // Both teams of the game are read again
+        assertArrayEquals(getStandingsRecord(game.getHomeTeam()), LeagueFunctions.getTeamRecord(game.getHomeTeam()));
+        assertArrayEquals(getStandingsRecord(game.getAwayTeam()), LeagueFunctions.getTeamRecord(game.getAwayTeam()));
+        assertEquals(misses + 2, cache.getMissCount());
+        assertEquals(1, LeagueFunctions.getTeamRecord(game.getHomeTeam())[0]
+                + LeagueFunctions.getTeamRecord(game.getAwayTeam())[0]);
+        // League wide queries are read again after any game
+        assertFalse(LeagueFunctions.getAllUnplayedGames().contains(game));
+        assertTrue(LeagueFunctions.getAllExpiredGames().contains(game));
+        assertNotSame(game, LeagueFunctions.getNextGameForTeam(game.getHomeTeam()));
+    }
+
+    @Test
+    public void newSeasonDropsEveryCachedResult() throws Exception {
+        simulateThroughDay(1);
+        Team team = League.getInstance().getTeams().get(0);
+        assertTrue(LeagueFunctions.getTeamRecord(team)[0] + LeagueFunctions.getTeamRecord(team)[1] > 0);
+        assertFalse(LeagueFunctions.getAllExpiredGames().isEmpty());
+        assertTrue(League.getInstance().startNextSeason());
+        assertArrayEquals(new int[]{0, 0}, LeagueFunctions.getTeamRecord(team));
+        assertTrue(LeagueFunctions.getAllExpiredGames().isEmpty());
+        assertEquals(League.getInstance().getGames().size(), LeagueFunctions.getAllUnplayedGames().size());
+    }
+
+    @Test
+    public void staleEntriesAreSweptAsTheCacheGrows() {
+        QueryCache cache = new QueryCache(8);
+        for (int i = 0; i < 8; i++) {
+            int value = i;
+            cache.get(() -> value, "query", i);
+        }
+        assertEquals(8, cache.size());
+        cache.advance();
+        // A stale entry that is read is replaced, the others stay until the next sweep
+        assertEquals(Integer.valueOf(0), cache.get(() -> 0, "query", 0));
+        assertEquals(8, cache.size());
+        // The sweep at 16 entries drops the 7 entries that were not read since the advance
+        for (int i = 8; i < 16; i++) {
+            int value = i;
+            cache.get(() -> value, "query", i);
+        }
+        assertEquals(9, cache.size());
+        for (int i = 0; i < 16; i++)
+            if (i == 0 || i >= 8)
+                assertEquals(Integer.valueOf(i), cache.get(() -> -1, "query", i));
+    }
+}
@@ -0,0 +1,86 @@
+package core;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class TestScheduleIndex extends LeagueTestSupport {
+
+    private static final Comparator<GameSimulation> SCHEDULE_ORDER = Comparator.comparingInt(GameSimulation::getDay)
+            .thenComparingInt(GameSimulation::getID);
+
+    private static List<Integer> getIDs(List<GameSimulation> games) {
+        List<Integer> ids = new ArrayList<>(games.size());
+        for (GameSimulation game : games)
+            ids.add(game.getID());
+        return ids;
+    }
+
+    /**
+     * Compares every lookup of the index with a scan of the games of the league
+     */
+    private static void assertIndexMatchesScan() {
+        League league = League.getInstance();
+        List<GameSimulation> games = league.getGames();
+        ScheduleIndex index = league.getScheduleIndex();
+        List<GameSimulation> played = new ArrayList<>();
+        List<GameSimulation> unplayed = new ArrayList<>();
+        int numDays = 0;
+        for (GameSimulation game : games) {
+            assertSame(game, index.getGame(game.getID()));
+            assertEquals(game.gameIsOver(), index.isPlayed(game));
+            (game.gameIsOver() ? played : unplayed).add(game);
+            numDays = Math.max(numDays, game.getDay() + 1);
+        }
+        assertEquals(getIDs(played), getIDs(index.getPlayedGames()));
+        assertEquals(getIDs(unplayed), getIDs(index.getUnplayedGames()));
+        assertEquals(numDays, index.getNumDays());
+        for (int day = 0; day < numDays; day++) {
+            List<GameSimulation> onDay = new ArrayList<>();
+            for (GameSimulation game : games)
+                if (game.getDay() == day)
+                    onDay.add(game);
+            assertEquals(getIDs(onDay), getIDs(index.getGamesOnDay(day)));
+        }
+        for (Team t : league.getTeams()) {
+            List<GameSimulation> teamGames = new ArrayList<>();
+            for (GameSimulation game : games)
+                if (game.getHomeTeam() == t || game.getAwayTeam() == t)
+                    teamGames.add(game);
+            teamGames.sort(SCHEDULE_ORDER);
+            assertEquals(getIDs(teamGames), getIDs(index.getGamesForTeam(t)));
+            GameSimulation next = null;
+            for (GameSimulation game : teamGames) {
+                if (!game.gameIsOver()) {
+                    next = game;
+                    break;
+                }
+            }
+            assertSame("Next game of team " + t.getID(), next, index.getNextGame(t));
+        }
+    }
+
+    @Test
+    public void indexMatchesAScanOfTheGames() throws Exception {
+        assertIndexMatchesScan();
+        simulateThroughDay(2);
+        assertIndexMatchesScan();
+        // A game played ahead of its day leaves the earlier games of its teams as their next games
+        List<GameSimulation> unplayed = LeagueFunctions.getAllUnplayedGames();
+        LeagueFunctions.simulateGame(unplayed.get(unplayed.size() - 1));
+        assertIndexMatchesScan();
+        // Scheduling more games adds days after the ones already scheduled
+        League.getInstance().setupRoundRobinTournament();
+        assertIndexMatchesScan();
+        // Loading the league rebuilds the index from the saved games
+        reload();
+        assertIndexMatchesScan();
+        simulateThroughDay(5);
+        assertIndexMatchesScan();
+    }
+}
@@ -0,0 +1,196 @@
+package core;
+
+import attributes.PlayerStatTypes;
+import attributes.TeamStatTypes;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class TestSeasonArchive extends LeagueTestSupport {
+
+    /**
+     * A played game as it was in memory before its season was archived
+     */
+    private static final class PlayedGame {
+        private final int gid;
+        private final int day;
+        private final int homeTeamID;
+        private final int awayTeamID;
+        private final List<String> gameLog;
+        private final Map<Integer, int[]> teamStats = new HashMap<>();
+        private final Map<Integer, int[]> playerStats = new HashMap<>();
+
+        private PlayedGame(GameSimulation gs) {
+            gid = gs.getID();
+            day = gs.getDay();
+            homeTeamID = gs.getHomeTeam().getID();
+            awayTeamID = gs.getAwayTeam().getID();
+            gameLog = new ArrayList<>(gs.getGameLog());
+            int[] home = new int[TeamStatTypes.values().length];
+            int[] away = new int[TeamStatTypes.values().length];
+            for (TeamStatTypes stat : TeamStatTypes.values()) {
+                home[stat.ordinal()] = gs.getHomeTeamStat(stat);
+                away[stat.ordinal()] = gs.getAwayTeamStat(stat);
+            }
+            teamStats.put(homeTeamID, home);
+            teamStats.put(awayTeamID, away);
+            for (Map.Entry<Integer, double[]> row : LeagueFunctions.getPlayerBoxScores(gs).entrySet()) {
+                int[] stats = new int[PlayerStatTypes.values().length];
+                for (PlayerStatTypes stat : PlayerStatTypes.values())
+                    stats[stat.ordinal()] = (int) row.getValue()[stat.ordinal()];
+                playerStats.put(row.getKey(), stats);
+            }
+        }
+    }
+
+    private static int[] getTotals(StatTotals<?> totals, Enum<?>[] stats) {
+        int[] values = new int[stats.length];
+        for (Enum<?> stat : stats)
+            values[stat.ordinal()] = totals.getTotal(stat.ordinal());
+        return values;
+    }
+
+    private static int[] getTotals(SeasonArchive.SeasonLine line, Enum<?>[] stats) {
+        int[] values = new int[stats.length];
+        for (Enum<?> stat : stats)
+            values[stat.ordinal()] = line.getTotal(stat);
+        return values;
+    }
+
+    private static void assertGamesArchived(int season, List<PlayedGame> played) {
+        List<Integer> gids = SeasonArchive.getGameIDs(season);
+        assertEquals(played.size(), gids.size());
+        for (int i = 0; i < played.size(); i++) {
+            PlayedGame expected = played.get(i);
+            assertEquals(expected.gid, (int) gids.get(i));
+            SeasonArchive.ArchivedGame game = SeasonArchive.getGame(expected.gid);
+            assertNotNull(game);
+            assertEquals(season, game.getSeason());
+            assertEquals(expected.day, game.getDay());
+            assertEquals(expected.homeTeamID, game.getHomeTeamID());
+            assertEquals(expected.awayTeamID, game.getAwayTeamID());
+            assertTrue(game.getGameClock() >= GameEngine.GAME_LENGTH_SECONDS);
+            assertEquals(expected.gameLog, game.getGameLog());
+            assertEquals(expected.teamStats.keySet(), game.getTeamStats().keySet());
+            for (Map.Entry<Integer, int[]> row : expected.teamStats.entrySet())
+                assertArrayEquals(row.getValue(), game.getTeamStats().get(row.getKey()));
+            assertEquals(expected.playerStats.keySet(), game.getPlayerStats().keySet());
+            for (Map.Entry<Integer, int[]> row : expected.playerStats.entrySet())
+                assertArrayEquals(row.getValue(), game.getPlayerStats().get(row.getKey()));
+        }
+    }
+
+    @Test
+    public void finishedSeasonReadsBackFromTheArchive() throws Exception {
+        simulateThroughDay(3);
+        League league = League.getInstance();
+        int season = league.getSeason();
+        List<PlayedGame> played = new ArrayList<>();
+        for (GameSimulation gs : LeagueFunctions.getAllExpiredGames())
+            played.add(new PlayedGame(gs));
+        played.sort(Comparator.comparingInt(g -> g.gid));
+        Map<Integer, int[]> playerTotals = new HashMap<>();
+        Map<Integer, Integer> playerGames = new HashMap<>();
+        for (Player p : league.getPlayers()) {
+            if (p.getNumGamesPlayed() == 0)
+                continue;
+            playerTotals.put(p.getID(), getTotals(p.getStatTotals(), PlayerStatTypes.values()));
+            playerGames.put(p.getID(), p.getNumGamesPlayed());
+        }
+        Map<Integer, int[]> teamTotals = new HashMap<>();
+        Map<Integer, int[]> teamRecords = new HashMap<>();
+        for (Team t : league.getTeams()) {
+            teamTotals.put(t.getID(), getTotals(t.getStatTotals(), TeamStatTypes.values()));
+            teamRecords.put(t.getID(), LeagueFunctions.getTeamRecord(t).clone());
+        }
+
+        assertTrue(league.startNextSeason());
+        assertEquals(season + 1, League.getInstance().getSeason());
+        assertTrue(LeagueFunctions.getAllExpiredGames().isEmpty());
+        for (Player p : League.getInstance().getPlayers())
+            assertEquals(0, p.getNumGamesPlayed());
+
+        // The archive reads the same before and after the league is loaded again
+        for (int pass = 0; pass < 2; pass++) {
+            assertGamesArchived(season, played);
+            for (Player p : League.getInstance().getPlayers()) {
+                List<SeasonArchive.SeasonLine> lines = SeasonArchive.getPlayerSeasons(p.getID());
+                if (!playerTotals.containsKey(p.getID())) {
+                    assertTrue(lines.isEmpty());
+                    continue;
+                }
+                // No player changed teams during the season
+                assertEquals(1, lines.size());
+                assertEquals(season, lines.get(0).getSeason());
+                assertEquals((int) playerGames.get(p.getID()), lines.get(0).getGamesPlayed());
+                assertArrayEquals(playerTotals.get(p.getID()), getTotals(lines.get(0), PlayerStatTypes.values()));
+            }
+            for (Team t : League.getInstance().getTeams()) {
+                List<SeasonArchive.SeasonLine> lines = SeasonArchive.getTeamSeasons(t.getID());
+                assertEquals(1, lines.size());
+                int[] record = teamRecords.get(t.getID());
+                assertEquals(record[0], lines.get(0).getWins());
+                assertEquals(record[1], lines.get(0).getLosses());
+                assertEquals(record[0] + record[1], lines.get(0).getGamesPlayed());
+                assertArrayEquals(teamTotals.get(t.getID()), getTotals(lines.get(0), TeamStatTypes.values()));
+            }
+            reload();
+        }
+        assertEquals(season + 1, League.getInstance().getSeason());
+    }
+
+    /**
+     * Compares the history of every team and player with their archived season lines and the totals of the current
+     * season
+     */
+    private static void assertHistoryMatchesSeasons(int firstSeason) {
+        League league = League.getInstance();
+        int current = league.getSeason();
+        for (Team t : league.getTeams()) {
+            Map<Integer, Double> expected = new HashMap<>();
+            for (SeasonArchive.SeasonLine line : SeasonArchive.getTeamSeasons(t.getID()))
+                expected.put(line.getSeason(), (double) line.getTotal(TeamStatTypes.TEAM_PTS) / line.getGamesPlayed());
+            if (t.getStatTotals().getGamesPlayed() > 0)
+                expected.put(current, (double) t.getSumOfTeamStat(TeamStatTypes.TEAM_PTS)
+                        / t.getStatTotals().getGamesPlayed());
+            assertTrue(expected.containsKey(firstSeason));
+            Map<Integer, Double> history = LeagueFunctions.getTeamAvgStatBySeason(t, TeamStatTypes.TEAM_PTS);
+            assertEquals(expected.keySet(), history.keySet());
+            for (Map.Entry<Integer, Double> season : expected.entrySet())
+                assertEquals(season.getValue(), history.get(season.getKey()), 1e-9);
+        }
+        Map<Integer, double[]> careerTotals = league.getPlayerHistoryTable().query().groupBy(StatTable.Key.PID)
+                .aggregateAll(StatQuery.Aggregation.SUM);
+        for (Player p : league.getPlayers()) {
+            int points = p.getSumOfPlayerStat(PlayerStatTypes.PTS);
+            for (SeasonArchive.SeasonLine line : SeasonArchive.getPlayerSeasons(p.getID()))
+                points += line.getTotal(PlayerStatTypes.PTS);
+            double[] totals = careerTotals.get(p.getID());
+            assertEquals("Points of player " + p.getID(), points,
+                    (totals == null) ? 0 : (int) totals[PlayerStatTypes.PTS.ordinal()]);
+        }
+    }
+
+    @Test
+    public void historyCoversEverySeason() throws Exception {
+        int firstSeason = League.getInstance().getSeason();
+        simulateThroughDay(2);
+        assertTrue(League.getInstance().startNextSeason());
+        // The history is loaded here, and then kept up to date by the games of the new season
+        assertHistoryMatchesSeasons(firstSeason);
+        simulateThroughDay(1);
+        assertHistoryMatchesSeasons(firstSeason);
+        // A loaded league reads the finished season from the archive and the current one from its stat tables
+        reload();
+        assertHistoryMatchesSeasons(firstSeason);
+    }
+}
@@ -0,0 +1,73 @@
+package core;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TestSimulationSession extends LeagueTestSupport {
+
+    @Test
+    public void checkpointsEveryDay() throws InterruptedException {
+        List<GameSimulation> games = LeagueFunctions.getAllUnplayedGames();
+        TreeSet<Integer> days = new TreeSet<>();
+        for (GameSimulation game : games)
+            days.add(game.getDay());
+        SimulationSession session = new SimulationSession(games);
+        List<Integer> checkpoints = new ArrayList<>();
+        session.run(null, checkpoints::add);
+
+        assertEquals(new ArrayList<>(days), checkpoints);
+        assertEquals((int) days.last(), session.getLastCheckpointDay());
+        assertEquals(games.size(), session.getCompleted());
+        assertTrue(session.isDone());
+        for (GameSimulation game : games)
+            assertTrue(game.gameIsOver());
+    }
+
+    @Test
+    public void cancelKeepsEveryCheckpointedDay() throws Exception {
+        List<GameSimulation> games = LeagueFunctions.getAllUnplayedGames();
+        int firstDay = Integer.MAX_VALUE;
+        for (GameSimulation game : games)
+            firstDay = Math.min(firstDay, game.getDay());
+        SimulationSession session = new SimulationSession(games);
+        session.run(null, day -> session.cancel());
+
+        assertTrue(session.isCancelled());
+        assertEquals(firstDay, session.getLastCheckpointDay());
+        int played = 0;
+        for (GameSimulation game : games) {
+            if (game.getDay() <= firstDay)
+                assertTrue(game.gameIsOver());
+            if (game.gameIsOver())
+                played++;
+        }
+        assertEquals(played, session.getCompleted());
+        assertTrue(played < games.size());
+
+        // What the session played is what was saved
+        int unplayed = LeagueFunctions.getAllUnplayedGames().size();
+        reload();
+        assertEquals(unplayed, LeagueFunctions.getAllUnplayedGames().size());
+        for (GameSimulation game : LeagueFunctions.getGamesOnDay(firstDay))
+            assertTrue(game.gameIsOver());
+    }
+
+    @Test
+    public void cancelBeforeRunPlaysNothing() throws InterruptedException {
+        List<GameSimulation> games = LeagueFunctions.getAllUnplayedGames();
+        SimulationSession session = new SimulationSession(games);
+        session.cancel();
+        session.run(null, null);
+        assertEquals(0, session.getCompleted());
+        assertEquals(-1, session.getLastCheckpointDay());
+        for (GameSimulation game : games)
+            assertFalse(game.gameIsOver());
+    }
+}
@@ -0,0 +1,71 @@
+package core;
+
+import attributes.TeamStatTypes;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class TestStandings extends LeagueTestSupport {
+
+    /**
+     * Compares the standings of every team with a record counted from the played games, in the order they were played
+     */
+    private static void assertStandingsMatchRecompute() {
+        League league = League.getInstance();
+        List<GameSimulation> games = new ArrayList<>(league.getGames());
+        games.sort(Comparator.comparingInt(GameSimulation::getDay).thenComparingInt(GameSimulation::getID));
+        Standings standings = league.getStandings();
+        for (Team t : league.getTeams()) {
+            int wins = 0;
+            int losses = 0;
+            int pointsFor = 0;
+            int pointsAgainst = 0;
+            int streak = 0;
+            for (GameSimulation game : games) {
+                if (!game.gameIsOver() || (game.getHomeTeam() != t && game.getAwayTeam() != t))
+                    continue;
+                boolean home = game.getHomeTeam() == t;
+                int points = home ? game.getHomeTeamStat(TeamStatTypes.TEAM_PTS)
+                        : game.getAwayTeamStat(TeamStatTypes.TEAM_PTS);
+                int opponentPoints = home ? game.getAwayTeamStat(TeamStatTypes.TEAM_PTS)
+                        : game.getHomeTeamStat(TeamStatTypes.TEAM_PTS);
+                pointsFor += points;
+                pointsAgainst += opponentPoints;
+                if (game.getWinner() == t) {
+                    wins++;
+                    streak = (streak > 0) ? streak + 1 : 1;
+                } else {
+                    losses++;
+                    streak = (streak < 0) ? streak - 1 : -1;
+                }
+            }
+            assertEquals("Wins of team " + t.getID(), wins, standings.getWins(t));
+            assertEquals("Losses of team " + t.getID(), losses, standings.getLosses(t));
+            assertEquals(wins + losses, standings.getNumGamesPlayed(t));
+            assertEquals(pointsFor, standings.getPointsFor(t));
+            assertEquals(pointsAgainst, standings.getPointsAgainst(t));
+            assertEquals("Streak of team " + t.getID(), streak, standings.getStreak(t));
+            int[] record = LeagueFunctions.getTeamRecord(t);
+            assertEquals(wins, record[0]);
+            assertEquals(losses, record[1]);
+        }
+    }
+
+    @Test
+    public void standingsMatchARecountOfThePlayedGames() throws Exception {
+        assertStandingsMatchRecompute();
+        simulateThroughDay(2);
+        assertStandingsMatchRecompute();
+        simulateThroughDay(5);
+        assertStandingsMatchRecompute();
+        // Loading the league rebuilds the standings from the saved games
+        reload();
+        assertStandingsMatchRecompute();
+        simulateThroughDay(7);
+        assertStandingsMatchRecompute();
+    }
+}
@@ -0,0 +1,82 @@
+package core;
+
+import attributes.PlayerStatTypes;
+import attributes.TeamStatTypes;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class TestStatTotals extends LeagueTestSupport {
+
+    /**
+     * The game of a stat line, if it has been played
+     */
+    private static GameSimulation getPlayedGame(AbstractEntity statLine) {
+        GameSimulation game = League.getInstance().getGame(statLine.getIDS().get("gid"));
+        return (game != null && game.gameIsOver()) ? game : null;
+    }
+
+    /**
+     * Compares the running totals of every player and team with the sums of their stat lines of the games played
+     */
+    private static void assertTotalsMatchRecompute() {
+        League league = League.getInstance();
+        for (Player p : league.getPlayers()) {
+            int[] expected = new int[PlayerStatTypes.values().length];
+            int gamesPlayed = 0;
+            for (PlayerStat line : p.getPlayerStats()) {
+                if (getPlayedGame(line) == null)
+                    continue;
+                gamesPlayed++;
+                for (PlayerStatTypes stat : PlayerStatTypes.values())
+                    expected[stat.ordinal()] += (int) line.getEntityAttribute(stat.toString());
+            }
+            assertEquals("Games played by player " + p.getID(), gamesPlayed, p.getNumGamesPlayed());
+            for (PlayerStatTypes stat : PlayerStatTypes.values())
+                assertEquals(stat + " of player " + p.getID(), expected[stat.ordinal()], p.getSumOfPlayerStat(stat));
+        }
+        for (Team t : league.getTeams()) {
+            int[] expected = new int[TeamStatTypes.values().length];
+            int[] expectedOpponent = new int[TeamStatTypes.values().length];
+            int gamesPlayed = 0;
+            for (TeamStat line : t.getTeamStats()) {
+                GameSimulation game = getPlayedGame(line);
+                if (game == null)
+                    continue;
+                gamesPlayed++;
+                Team opponent = (game.getHomeTeam() == t) ? game.getAwayTeam() : game.getHomeTeam();
+                for (TeamStatTypes stat : TeamStatTypes.values()) {
+                    expected[stat.ordinal()] += (int) line.getEntityAttribute(stat.toString());
+                    expectedOpponent[stat.ordinal()] += (int) opponent.getTeamStat(game.getID()).getEntityAttribute(
+                            stat.toString());
+                }
+            }
+            assertEquals("Games played by team " + t.getID(), gamesPlayed, t.getStatTotals().getGamesPlayed());
+            for (TeamStatTypes stat : TeamStatTypes.values()) {
+                assertEquals(stat + " of team " + t.getID(), expected[stat.ordinal()], t.getSumOfTeamStat(stat));
+                assertEquals(stat + " against team " + t.getID(), expectedOpponent[stat.ordinal()],
+                        t.getOpponentStatTotals().getTotal(stat));
+            }
+        }
+    }
+
+    @Test
+    public void totalsMatchTheStatLinesOfThePlayedGames() throws Exception {
+        assertTotalsMatchRecompute();
+        simulateThroughDay(1);
+        assertTotalsMatchRecompute();
+        // A player signed after the schedule was made gets stat lines for the games of the new team. The first team
+        // plays every day of a round robin
+        Player signed = LeagueFunctions.getFreeAgents().get(0);
+        League.getInstance().getTeams().get(0).addPlayerToRoster(signed);
+        simulateThroughDay(4);
+        assertTotalsMatchRecompute();
+        assertEquals(3, signed.getNumGamesPlayed());
+        // Loading the league rebuilds the totals from the stat tables
+        reload();
+        assertTotalsMatchRecompute();
+        assertEquals(3, League.getInstance().getPlayer(signed.getID()).getNumGamesPlayed());
+        simulateThroughDay(6);
+        assertTotalsMatchRecompute();
+    }
+}
@@ -0,0 +1,23 @@
+package core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class TestTeamTendencies {
+
+    private static final double DELTA = 1e-9;
+
+    @Test
+    public void cutoffMixesPlayerAndTeamPercentages() {
+        // (0.25 + 0.30) / 0.2 * 0.3
+        assertEquals(0.825, TeamTendencies.computeThreePointCutoffPoint(1, 4, 3, 10), DELTA);
+    }
+
+    @Test
+    public void noCutoffWithoutAttemptsOrMakes() {
+        assertEquals(0.0, TeamTendencies.computeThreePointCutoffPoint(0, 0, 3, 10), DELTA);
+        assertEquals(0.0, TeamTendencies.computeThreePointCutoffPoint(1, 4, 0, 0), DELTA);
+        assertEquals(0.0, TeamTendencies.computeThreePointCutoffPoint(0, 4, 3, 10), DELTA);
+    }
+}
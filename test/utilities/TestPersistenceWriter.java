@@ -0,0 +1,166 @@
+package utilities;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TestPersistenceWriter {
+
+    private static final int CAPACITY = 4;
+    private static final int MAX_BATCH_SIZE = 3;
+
+    private final AtomicInteger commits = new AtomicInteger();
+    private PersistenceWriter writer;
+
+    /**
+     * A connection that only counts its commits, since the records of these tests do not run any statements
+     */
+    @Before
+    public void setupWriter() {
+        Connection connection = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("commit"))
+                        commits.incrementAndGet();
+                    return null;
+                });
+        writer = new PersistenceWriter(new DatabaseConnection(connection), CAPACITY, MAX_BATCH_SIZE);
+    }
+
+    @After
+    public void closeWriter() throws InterruptedException {
+        writer.close();
+    }
+
+    @Test
+    public void flushWaitsForEveryRecord() throws InterruptedException {
+        List<Integer> written = new CopyOnWriteArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            int record = i;
+            writer.submit(db -> written.add(record));
+        }
+        writer.flush();
+        assertEquals(20, written.size());
+        for (int i = 0; i < 20; i++)
+            assertEquals(i, (int) written.get(i));
+        // Records queued behind each other share a transaction
+        assertTrue(commits.get() >= 20 / MAX_BATCH_SIZE && commits.get() <= 20);
+    }
+
+    @Test
+    public void submitBlocksWhileTheQueueIsFull() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        writer.submit(db -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        // The writer is busy, so these fill the queue
+        for (int i = 0; i < CAPACITY; i++)
+            writer.submit(db -> {
+            });
+        CountDownLatch submitted = new CountDownLatch(1);
+        Thread producer = new Thread(() -> {
+            writer.submit(db -> {
+            });
+            submitted.countDown();
+        });
+        producer.start();
+        assertTrue("submit() returned while the queue was full", !submitted.await(200, TimeUnit.MILLISECONDS));
+        release.countDown();
+        assertTrue(submitted.await(5, TimeUnit.SECONDS));
+        writer.flush();
+        producer.join();
+    }
+
+    @Test
+    public void failedRecordIsReportedByFlush() throws InterruptedException {
+        writer.submit(db -> {
+        });
+        writer.submit(db -> {
+            throw new SQLException("constraint failed");
+        });
+        writer.submit(db -> {
+        });
+        try {
+            writer.flush();
+            fail("flush() did not report the failed record");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getCause() instanceof SQLException);
+        }
+        assertEquals(1, writer.getFailedCount());
+        // The failure is only reported once
+        writer.submit(db -> {
+        });
+        writer.flush();
+    }
+
+    private static int countRows(DatabaseConnection db) throws SQLException {
+        return db.executeQuery("SELECT COUNT(*) FROM rows").getInt(1);
+    }
+
+    private static void insertRow(DatabaseConnection db, int id) throws SQLException {
+        db.executeStatement("INSERT INTO rows(id) VALUES(?)", statement -> {
+            statement.setInt(1, id);
+            statement.execute();
+        });
+    }
+
+    @Test
+    public void recordThatFailsPartwayLeavesNoRows() throws IOException, InterruptedException, SQLException {
+        File saveFile = File.createTempFile("TestPersistenceWriter", ".db");
+        saveFile.deleteOnExit();
+        DatabaseConnection database = DatabaseConnection.open(saveFile.getAbsolutePath(), true);
+        PersistenceWriter sqliteWriter = new PersistenceWriter(database, CAPACITY, MAX_BATCH_SIZE);
+        try {
+            database.executeSQL("CREATE TABLE rows (id integer PRIMARY KEY)");
+            CountDownLatch release = new CountDownLatch(1);
+            // Holds the writer until the next three records are queued, so they share one transaction
+            sqliteWriter.submit(db -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            sqliteWriter.submit(db -> insertRow(db, 1));
+            sqliteWriter.submit(db -> {
+                insertRow(db, 2);
+                insertRow(db, 1);
+            });
+            sqliteWriter.submit(db -> insertRow(db, 3));
+            release.countDown();
+            try {
+                sqliteWriter.flush();
+                fail("flush() did not report the failed record");
+            } catch (IllegalStateException e) {
+                assertTrue(e.getCause() instanceof SQLException);
+            }
+            // The first and last records were committed, and the row the failed record wrote before failing was not
+            assertEquals(2, countRows(database));
+            assertEquals(0, database.executeQuery("SELECT COUNT(*) FROM rows WHERE id=2").getInt(1));
+        } finally {
+            sqliteWriter.close();
+            database.close();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package utilities;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class TestSimulationExecutor {
+
+    private static final int NUM_ITEMS = 50;
+
+    @Test
+    public void resultsAreInItemOrder() throws InterruptedException {
+        for (SimulationExecutor.Strategy strategy : SimulationExecutor.Strategy.values()) {
+            SimulationExecutor executor = SimulationExecutor.create(strategy, 4);
+            try {
+                List<Integer> items = IntStream.range(0, NUM_ITEMS).boxed().collect(Collectors.toList());
+                List<Integer> results = executor.run(items, i -> i * i, null);
+                List<Integer> expected = new ArrayList<>();
+                for (int i : items)
+                    expected.add(i * i);
+                assertEquals(strategy.toString(), expected, results);
+            } finally {
+                executor.shutdown();
+            }
+        }
+    }
+
+    private static int countFailures(Throwable failure) {
+        int count = 1;
+        for (Throwable suppressed : failure.getSuppressed())
+            count += countFailures(suppressed);
+        return count;
+    }
+
+    @Test
+    public void failedItemIsThrownAfterTheBatch() throws InterruptedException {
+        for (SimulationExecutor.Strategy strategy : SimulationExecutor.Strategy.values()) {
+            SimulationExecutor executor = SimulationExecutor.create(strategy, 4);
+            AtomicInteger completed = new AtomicInteger();
+            try {
+                List<Integer> items = IntStream.range(0, NUM_ITEMS).boxed().collect(Collectors.toList());
+                executor.run(items, i -> {
+                    if (i % 10 == 3)
+                        throw new IllegalArgumentException("item " + i);
+                    return i;
+                }, (item, result) -> completed.incrementAndGet());
+                fail(strategy + " did not throw");
+            } catch (IllegalArgumentException e) {
+                // Every other item still ran, and each failure is reported
+                assertEquals(strategy.toString(), NUM_ITEMS - 5, completed.get());
+                assertEquals(strategy.toString(), 5, countFailures(e));
+            } finally {
+                executor.shutdown();
+            }
+        }
+    }
+}